@@ -0,0 +1,132 @@
+package data.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import config.ConnectionPool;
+import config.PropertiesLoader;
+import data.dto.FrageDTO;
+import data.dto.ThemaDTO;
+import data.repository.QuizRepository;
+
+/**
+ * Prüft, dass das {@link JDBCRepository} Themen samt Fragenanzahl mit einer
+ * einzigen Anweisung lädt und nicht wieder eine Zählabfrage je Thema stellt.
+ *
+ * <p>Legt in der konfigurierten Datenbank (SQLite oder MariaDB) einige Themen mit
+ * unterschiedlich vielen Fragen an, zählt die vorbereiteten Anweisungen über den
+ * Statement-Cache des {@link ConnectionPool} und vergleicht die gelieferte
+ * Fragenanzahl mit den angelegten Fragen. Die angelegten Themen werden danach
+ * wieder gelöscht.</p>
+ *
+ * <p>Liegt nicht im Anwendungs-JAR. Aufruf, siehe README (für SQLite den Treiber
+ * zusätzlich in den Klassenpfad aufnehmen):
+ * {@code java -cp build/bench:build/classes:lib/* data.persistence.JDBCAbfragenPruefung}</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ */
+final class JDBCAbfragenPruefung {
+
+	private static final int ANZAHL_THEMEN = 5;
+
+	private JDBCAbfragenPruefung() {
+	}
+
+	/**
+	 * Führt die Prüfung aus; der Exit-Code ist 1, wenn mehr als eine Anweisung je
+	 * Abfrage nötig war oder eine Fragenanzahl nicht stimmt.
+	 *
+	 * @param args Kommandozeilenargumente (werden nicht verwendet)
+	 */
+	public static void main(String[] args) {
+		if (PropertiesLoader.getIntProperty("quiz.database.pool.statement.cache.size", 32) <= 0) {
+			// Ohne Cache zählt der Pool keine Anweisungen
+			System.err.println("JDBCAbfragenPruefung: quiz.database.pool.statement.cache.size muss größer als 0 sein");
+			System.exit(2);
+		}
+		QuizRepository quizRepository = RepositoryFactory.createRepository();
+		if (!(quizRepository instanceof JDBCRepository)) {
+			System.err.println("JDBCAbfragenPruefung: quiz.database.type muss sqlite oder mariadb sein");
+			System.exit(2);
+		}
+		JDBCRepository repository = (JDBCRepository) quizRepository;
+		ConnectionPool pool = repository.getConnectionPool();
+
+		List<ThemaDTO> angelegt = new ArrayList<>();
+		boolean fehlerfrei = true;
+		try {
+			String praefix = "Abfragenpruefung-" + System.currentTimeMillis() + "-";
+			for (int i = 0; i < ANZAHL_THEMEN; i++) {
+				ThemaDTO thema = new ThemaDTO();
+				thema.setTitel(praefix + i);
+				repository.saveThema(thema);
+				angelegt.add(thema);
+				// Thema i erhält i Fragen, das erste also keine (LEFT JOIN)
+				for (int j = 0; j < i; j++) {
+					FrageDTO frage = new FrageDTO();
+					frage.setTitel("Frage " + j);
+					frage.setText("Text " + j);
+					repository.saveFrage(frage, thema.getId());
+				}
+			}
+
+			long anweisungen = zaehleAnweisungen(pool, () -> repository.findAllThemen());
+			if (anweisungen != 1) {
+				System.err.println("JDBCAbfragenPruefung: findAllThemen braucht " + anweisungen + " Anweisungen");
+				fehlerfrei = false;
+			}
+			List<ThemaDTO> alle = repository.findAllThemen();
+			for (int i = 0; i < angelegt.size(); i++) {
+				ThemaDTO thema = angelegt.get(i);
+				Optional<ThemaDTO> inListe = alle.stream().filter(t -> t.getId() == thema.getId()).findFirst();
+				fehlerfrei &= pruefeAnzahl("findAllThemen", inListe, i);
+				fehlerfrei &= pruefeEinzelabfrage(pool, "findThemaById", () -> repository.findThemaById(thema.getId()), i);
+				fehlerfrei &= pruefeEinzelabfrage(pool, "findThemaByTitel",
+						() -> repository.findThemaByTitel(thema.getTitel()), i);
+			}
+		} finally {
+			for (ThemaDTO thema : angelegt) {
+				repository.deleteThema(thema.getId());
+			}
+			repository.close();
+		}
+		System.out.println("JDBCAbfragenPruefung: " + (fehlerfrei ? "in Ordnung" : "fehlgeschlagen"));
+		if (!fehlerfrei) {
+			System.exit(1);
+		}
+	}
+
+	private static boolean pruefeEinzelabfrage(ConnectionPool pool, String name, Supplier<Optional<ThemaDTO>> abfrage,
+			int erwartet) {
+		List<Optional<ThemaDTO>> ergebnis = new ArrayList<>(1);
+		long anweisungen = zaehleAnweisungen(pool, () -> ergebnis.add(abfrage.get()));
+		if (anweisungen != 1) {
+			System.err.println("JDBCAbfragenPruefung: " + name + " braucht " + anweisungen + " Anweisungen");
+			return false;
+		}
+		return pruefeAnzahl(name, ergebnis.get(0), erwartet);
+	}
+
+	private static boolean pruefeAnzahl(String name, Optional<ThemaDTO> thema, int erwartet) {
+		if (thema.isEmpty() || thema.get().getAnzahlFragen() != erwartet) {
+			System.err.println("JDBCAbfragenPruefung: " + name + " liefert "
+					+ thema.map(t -> t.getAnzahlFragen() + " Fragen").orElse("kein Thema") + ", erwartet " + erwartet);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Zählt die vorbereiteten Anweisungen (Cache-Treffer und -Fehlschläge) einer Abfrage.
+	 * Andere Threads dürfen den Pool währenddessen nicht nutzen.
+	 */
+	private static long zaehleAnweisungen(ConnectionPool pool, Runnable abfrage) {
+		long vorher = pool.getStatementTreffer() + pool.getStatementFehlschlaege();
+		abfrage.run();
+		return pool.getStatementTreffer() + pool.getStatementFehlschlaege() - vorher;
+	}
+}
@@ -0,0 +1,132 @@
+package data.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Misst Schreib- und Lesedurchsatz eines Ergebnis-Segments ohne und mit
+ * Deflate-Kompression ({@code quiz.database.lokal.compression}).
+ *
+ * <p>Erzeugt einen Monat Quiz-Ergebnisse mit realistischer Verteilung (fortlaufende
+ * IDs und Zeitpunkte, wenige Themen, einige hundert Fragen, kleine Antwortzeiten und
+ * Punkte), schreibt das Segment je Modus mehrmals über {@link LokalSnapshot} (samt
+ * fsync und Umbenennen, wie beim Checkpoint) und liest es wieder ein. Ausgegeben
+ * werden Dateigröße und der Median in MB/s, bezogen auf die unkomprimierte
+ * Spaltengröße, damit beide Modi vergleichbar sind.</p>
+ *
+ * <p>Liegt nicht im Anwendungs-JAR. Aufruf, siehe README:
+ * {@code java -cp build/bench:build/classes:lib/* data.persistence.LokalKompressionMessung [Ergebnisse] [Verzeichnis]}</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ */
+final class LokalKompressionMessung {
+
+	private static final int AUFWAERMEN = 3;
+	private static final int DURCHLAEUFE = 7;
+	private static final int ANZAHL_THEMEN = 12;
+	private static final int ANZAHL_FRAGEN = 400;
+	// 4 long-Spalten, 2 int-Spalten, 1 Byte Flags je Ergebnis
+	private static final int BYTES_JE_ERGEBNIS = 4 * Long.BYTES + 2 * Integer.BYTES + 1;
+
+	private LokalKompressionMessung() {
+	}
+
+	/**
+	 * Führt die Messung aus.
+	 *
+	 * @param args Anzahl Ergebnisse im Segment (Standard 200000) und Verzeichnis für
+	 *             die Messdatei (Standard: aktuelles Verzeichnis)
+	 */
+	public static void main(String[] args) throws IOException {
+		int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+		Path verzeichnis = Paths.get(args.length > 1 ? args[1] : ".");
+		Path datei = verzeichnis.resolve("kompressionsmessung.bin");
+		if (Files.exists(datei)) {
+			System.err.println("LokalKompressionMessung: " + datei + " existiert bereits");
+			System.exit(2);
+		}
+
+		LokalErgebnisSpeicher.Spalten spalten = erzeugeSpalten(anzahl);
+		double megabyte = (double) anzahl * BYTES_JE_ERGEBNIS / (1024 * 1024);
+		System.out.printf("LokalKompressionMessung: %d Ergebnisse, %.1f MB Spalten, %d Durchläufe je Modus%n", anzahl,
+				megabyte, DURCHLAEUFE);
+		try {
+			for (boolean komprimieren : new boolean[] { false, true }) {
+				miss(datei, spalten, komprimieren, megabyte);
+			}
+		} finally {
+			Files.deleteIfExists(datei);
+		}
+	}
+
+	private static void miss(Path datei, LokalErgebnisSpeicher.Spalten spalten, boolean komprimieren, double megabyte)
+			throws IOException {
+		double[] schreiben = new double[DURCHLAEUFE];
+		double[] lesen = new double[DURCHLAEUFE];
+		for (int i = -AUFWAERMEN; i < DURCHLAEUFE; i++) {
+			long beginn = System.nanoTime();
+			LokalSnapshot.schreibeErgebnisSegment(datei, spalten, komprimieren);
+			long geschrieben = System.nanoTime();
+			LokalErgebnisSpeicher.Spalten gelesen = LokalSnapshot.leseErgebnisSegment(datei);
+			long ende = System.nanoTime();
+			if (gelesen.anzahl != spalten.anzahl || !Arrays.equals(gelesen.ids, spalten.ids)
+					|| !Arrays.equals(gelesen.punkte, spalten.punkte) || !gelesen.richtig.equals(spalten.richtig)) {
+				throw new IllegalStateException("Gelesenes Segment weicht vom geschriebenen ab");
+			}
+			if (i >= 0) {
+				schreiben[i] = megabyte / ((geschrieben - beginn) / 1e9);
+				lesen[i] = megabyte / ((ende - geschrieben) / 1e9);
+			}
+		}
+		System.out.printf("LokalKompressionMessung (%s): Datei %.1f MB, Schreiben %.0f MB/s, Lesen %.0f MB/s%n",
+				komprimieren ? "deflate" : "none", Files.size(datei) / (1024.0 * 1024), median(schreiben),
+				median(lesen));
+	}
+
+	private static double median(double[] werte) {
+		double[] sortiert = werte.clone();
+		Arrays.sort(sortiert);
+		return sortiert[sortiert.length / 2];
+	}
+
+	/**
+	 * Ein Monat Ergebnisse: fortlaufende IDs und Zeitpunkte, Fragen ungleich beliebt.
+	 */
+	private static LokalErgebnisSpeicher.Spalten erzeugeSpalten(int anzahl) {
+		Random zufall = new Random(42);
+		long[] ids = new long[anzahl];
+		long[] themaIds = new long[anzahl];
+		long[] frageIds = new long[anzahl];
+		long[] zeitpunkte = new long[anzahl];
+		int[] antwortZeiten = new int[anzahl];
+		int[] punkte = new int[anzahl];
+		BitSet richtig = new BitSet(anzahl);
+		BitSet gezeigt = new BitSet(anzahl);
+		long monatsbeginn = LokalSnapshot.zuEpochMillis(LocalDateTime.of(2026, 3, 1, 0, 0));
+		long abstand = 31L * 24 * 60 * 60 * 1000 / anzahl;
+		for (int i = 0; i < anzahl; i++) {
+			ids[i] = 1_000_000L + i;
+			// Quadrat einer Gleichverteilung: wenige Fragen werden oft gespielt
+			double beliebtheit = zufall.nextDouble();
+			long frage = 1 + (long) (beliebtheit * beliebtheit * ANZAHL_FRAGEN);
+			frageIds[i] = frage;
+			themaIds[i] = 1 + frage % ANZAHL_THEMEN;
+			zeitpunkte[i] = monatsbeginn + i * abstand + zufall.nextInt((int) Math.max(1, abstand));
+			antwortZeiten[i] = 2 + zufall.nextInt(40);
+			boolean istRichtig = zufall.nextInt(100) < 65;
+			punkte[i] = istRichtig ? 1 + zufall.nextInt(3) : 0;
+			richtig.set(i, istRichtig);
+			gezeigt.set(i, zufall.nextInt(100) < 10);
+		}
+		return new LokalErgebnisSpeicher.Spalten(anzahl, ids, themaIds, frageIds, zeitpunkte, antwortZeiten, punkte,
+				richtig, gezeigt);
+	}
+}
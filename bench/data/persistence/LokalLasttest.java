@@ -0,0 +1,261 @@
+package data.persistence;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import config.PropertiesLoader;
+import data.dto.AntwortDTO;
+import data.dto.FrageDTO;
+import data.dto.QuizErgebnisDTO;
+import data.dto.ThemaDTO;
+
+/**
+ * Last-Test für das {@link LokalRepository} mit gleichzeitigen Lesern und Schreibern.
+ *
+ * <p>Schreiber speichern Quiz-Ergebnisse und ändern Fragen, Leser fragen Themen,
+ * Fragen und Statistiken ab. Der Test läuft zweimal: einmal mit den getrennten Locks
+ * des Repositories und einmal zum Vergleich hinter einem einzigen globalen
+ * Lese-/Schreib-Lock, wie vor der Aufteilung in Katalog- und Ergebnis-Lock. Nach
+ * jedem Lauf wird das Repository geschlossen, neu geladen und geprüft, dass kein
+ * Ergebnis verloren ging. Ausgegeben werden die Durchsätze beider Läufe und ihr
+ * Verhältnis; Modus und Durability kommen aus der {@code application.properties}.</p>
+ *
+ * <p>Liegt nicht im Anwendungs-JAR. Aufruf in einem leeren Verzeichnis, siehe README:
+ * {@code java -cp build/bench:build/classes:lib/* data.persistence.LokalLasttest [Sekunden] [Leser] [Schreiber]}</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ */
+final class LokalLasttest {
+
+	private static final int ANZAHL_FRAGEN = 20;
+
+	private static final String[] DATEIEN = { "quiz_themen.bin", "quiz_fragen.bin", "quiz_ergebnisse",
+			"quiz_journal.log" };
+
+	private LokalLasttest() {
+	}
+
+	/**
+	 * Führt den Last-Test aus; der Exit-Code ist 1, wenn Ergebnisse fehlen oder ein
+	 * Thread fehlschlägt.
+	 *
+	 * @param args Laufzeit je Lauf in Sekunden (Standard 10), Anzahl Leser (4) und Schreiber (2)
+	 */
+	public static void main(String[] args) throws InterruptedException, IOException {
+		int sekunden = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int anzahlLeser = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int anzahlSchreiber = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+		for (String datei : DATEIEN) {
+			if (Files.exists(Paths.get(datei))) {
+				System.err.println("LokalLasttest: " + datei + " existiert, bitte in einem leeren Verzeichnis ausführen");
+				System.exit(2);
+			}
+		}
+		System.out.println("LokalLasttest: Modus " + PropertiesLoader.getProperty("quiz.database.lokal.mode", "snapshot")
+				+ ", Durability " + PropertiesLoader.getProperty("quiz.database.lokal.durability", "write") + ", "
+				+ anzahlLeser + " Leser, " + anzahlSchreiber + " Schreiber, " + sekunden + " s je Lauf");
+
+		Messung getrennt = laufe("getrennte Locks", null, sekunden, anzahlLeser, anzahlSchreiber);
+		entferneDateien();
+		Messung global = laufe("globales Lock", new ReentrantReadWriteLock(), sekunden, anzahlLeser, anzahlSchreiber);
+		entferneDateien();
+
+		System.out.printf("LokalLasttest: getrennte Locks gegenüber globalem Lock: Ergebnisse x%.2f, "
+				+ "Lesevorgänge x%.2f%n", getrennt.ergebnisseJeSekunde() / global.ergebnisseJeSekunde(),
+				getrennt.leseJeSekunde() / global.leseJeSekunde());
+		if (!getrennt.vollstaendig || !global.vollstaendig) {
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Ein Lauf mit frischem Repository. Ist {@code globalesLock} gesetzt, nehmen alle
+	 * Leser dessen Lese-Lock und alle Schreiber dessen Schreib-Lock um jeden Aufruf.
+	 */
+	private static Messung laufe(String name, ReadWriteLock globalesLock, int sekunden, int anzahlLeser,
+			int anzahlSchreiber) throws InterruptedException {
+		Lock leseLock = globalesLock != null ? globalesLock.readLock() : null;
+		Lock schreibLock = globalesLock != null ? globalesLock.writeLock() : null;
+
+		LokalRepository repository = new LokalRepository();
+		ThemaDTO thema = new ThemaDTO();
+		thema.setTitel("Lasttest");
+		repository.saveThema(thema);
+		List<FrageDTO> fragen = new ArrayList<>();
+		for (int i = 0; i < ANZAHL_FRAGEN; i++) {
+			FrageDTO frage = new FrageDTO();
+			frage.setTitel("Frage " + i);
+			frage.setText("Text " + i);
+			frage.addAntwort(new AntwortDTO(0, "Richtig", true));
+			frage.addAntwort(new AntwortDTO(0, "Falsch", false));
+			fragen.add(repository.saveFrage(frage, thema.getId()));
+		}
+
+		AtomicBoolean laeuft = new AtomicBoolean(true);
+		AtomicLong gespeichert = new AtomicLong();
+		AtomicLong geaendert = new AtomicLong();
+		AtomicLong gelesen = new AtomicLong();
+		AtomicReference<Throwable> fehler = new AtomicReference<>();
+		List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < anzahlSchreiber; i++) {
+			threads.add(new Thread(() -> {
+				ThreadLocalRandom zufall = ThreadLocalRandom.current();
+				while (laeuft.get()) {
+					FrageDTO frage = fragen.get(zufall.nextInt(fragen.size()));
+					sperre(schreibLock);
+					try {
+						if (zufall.nextInt(100) == 0) {
+							// Gelegentlich den Katalog ändern, damit beide Locks umkämpft sind
+							FrageDTO kopie = repository.findFrageById(frage.getId()).orElseThrow();
+							kopie.setText("Text " + zufall.nextInt());
+							repository.saveFrage(kopie, thema.getId());
+							geaendert.incrementAndGet();
+						} else {
+							repository.saveQuizErgebnis(new QuizErgebnisDTO(thema.getId(), frage.getId(),
+									zufall.nextBoolean(), false, zufall.nextInt(30), zufall.nextInt(3)));
+							gespeichert.incrementAndGet();
+						}
+					} finally {
+						entsperre(schreibLock);
+					}
+				}
+			}, "LokalLasttest-Schreiber-" + i));
+		}
+		for (int i = 0; i < anzahlLeser; i++) {
+			threads.add(new Thread(() -> {
+				ThreadLocalRandom zufall = ThreadLocalRandom.current();
+				while (laeuft.get()) {
+					sperre(leseLock);
+					try {
+						switch (zufall.nextInt(4)) {
+						case 0:
+							repository.findAllThemen();
+							break;
+						case 1:
+							repository.findFragenByThemaId(thema.getId());
+							break;
+						case 2:
+							repository.aggregiereErgebnisseByFrageId(fragen.get(zufall.nextInt(fragen.size())).getId());
+							break;
+						default:
+							repository.findStatistikenByThemaId(thema.getId());
+						}
+					} finally {
+						entsperre(leseLock);
+					}
+					gelesen.incrementAndGet();
+				}
+			}, "LokalLasttest-Leser-" + i));
+		}
+		for (Thread thread : threads) {
+			thread.setUncaughtExceptionHandler((t, e) -> {
+				fehler.compareAndSet(null, e);
+				laeuft.set(false);
+			});
+			thread.start();
+		}
+
+		long beginn = System.nanoTime();
+		Thread.sleep(sekunden * 1000L);
+		laeuft.set(false);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		double dauer = (System.nanoTime() - beginn) / 1e9;
+		repository.close();
+
+		Messung messung = new Messung(gespeichert.get() / dauer, gelesen.get() / dauer);
+		System.out.printf("LokalLasttest (%s): %d Ergebnisse (%.0f/s), %d Fragen-Änderungen, %d Lesevorgänge (%.0f/s)%n",
+				name, gespeichert.get(), messung.ergebnisseJeSekunde(), geaendert.get(), gelesen.get(),
+				messung.leseJeSekunde());
+		if (fehler.get() != null) {
+			System.err.println("LokalLasttest (" + name + "): Thread fehlgeschlagen");
+			fehler.get().printStackTrace();
+			messung.vollstaendig = false;
+			return messung;
+		}
+
+		// Neu laden und prüfen, dass jedes gespeicherte Ergebnis angekommen ist
+		try (LokalRepository geladen = new LokalRepository()) {
+			long vorhanden = geladen.aggregiereErgebnisseByThemaId(thema.getId()).getAnzahlVersuche();
+			System.out.println("LokalLasttest (" + name + "): " + vorhanden + " von " + gespeichert.get()
+					+ " Ergebnissen nach dem Neuladen vorhanden");
+			messung.vollstaendig = vorhanden == gespeichert.get();
+		}
+		return messung;
+	}
+
+	private static void sperre(Lock lock) {
+		if (lock != null) {
+			lock.lock();
+		}
+	}
+
+	private static void entsperre(Lock lock) {
+		if (lock != null) {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Entfernt die vom Lauf angelegten Dateien, damit der nächste Lauf leer beginnt.
+	 * Beim Start wurde geprüft, dass keine davon vorher existierte.
+	 */
+	private static void entferneDateien() throws IOException {
+		for (String datei : DATEIEN) {
+			Path pfad = Paths.get(datei);
+			if (Files.isDirectory(pfad)) {
+				try (Stream<Path> inhalt = Files.walk(pfad)) {
+					for (Path eintrag : (Iterable<Path>) inhalt.sorted(Comparator.reverseOrder())::iterator) {
+						Files.delete(eintrag);
+					}
+				}
+			} else {
+				Files.deleteIfExists(pfad);
+			}
+		}
+		// Versiegelte Journal-Segmente (quiz_journal.log.<n>)
+		try (DirectoryStream<Path> segmente = Files.newDirectoryStream(Paths.get("."), "quiz_journal.log.*")) {
+			for (Path segment : segmente) {
+				Files.delete(segment);
+			}
+		}
+	}
+
+	private static final class Messung {
+
+		private final double ergebnisseJeSekunde;
+		private final double leseJeSekunde;
+		private boolean vollstaendig = true;
+
+		private Messung(double ergebnisseJeSekunde, double leseJeSekunde) {
+			this.ergebnisseJeSekunde = ergebnisseJeSekunde;
+			this.leseJeSekunde = leseJeSekunde;
+		}
+
+		private double ergebnisseJeSekunde() {
+			return ergebnisseJeSekunde;
+		}
+
+		private double leseJeSekunde() {
+			return leseJeSekunde;
+		}
+	}
+}
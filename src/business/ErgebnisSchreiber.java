@@ -0,0 +1,251 @@
+package business;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import data.dto.QuizErgebnisDTO;
+import exception.PersistenceException;
+
+/**
+ * Asynchrone Schreib-Warteschlange für Quiz-Ergebnisse.
+ *
+ * <p>Der {@link QuizStatistikService} reiht neue Ergebnisse hier ein, statt sie im
+ * aufrufenden Thread (meist dem Swing-EDT) zu speichern. Ein eigener Thread nimmt
+ * sie in Stapeln von höchstens {@code stapelGroesse} aus der Warteschlange und
+ * übergibt jeden Stapel dem Schreiber, der ihn in einem Zug speichert und danach
+ * das Event feuert. Die Antwortzeit der Oberfläche hängt so nicht mehr von der
+ * Geschwindigkeit des Speichers ab.</p>
+ *
+ * <p>Die Warteschlange ist begrenzt: Ist sie voll, wartet der aufrufende Thread,
+ * bis wieder Platz ist. Ein fehlgeschlagener Stapel bleibt erhalten und wird mit
+ * wachsender Pause (höchstens {@value #MAX_PAUSE_MS} ms) erneut geschrieben, bis es
+ * gelingt; nachfolgende Ergebnisse warten in der Warteschlange. Erst nach
+ * {@link #close()} erhält jeder Stapel nur noch {@value #MAX_VERSUCHE} Versuche.
+ * Was dann nicht gespeichert ist, meldet {@link #close()} mit einer
+ * {@link PersistenceException}; danach eingehende Ergebnisse werden direkt im
+ * aufrufenden Thread gespeichert.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see QuizStatistikService
+ */
+class ErgebnisSchreiber implements AutoCloseable {
+
+	private static final int MAX_VERSUCHE = 3;
+	private static final long MAX_PAUSE_MS = 5000;
+	private static final long MAX_PAUSE_BEIM_SCHLIESSEN_MS = 500;
+
+	// Markiert das Ende der Warteschlange, wird nie gespeichert
+	private static final QuizErgebnisDTO ENDE = new QuizErgebnisDTO();
+
+	private final BlockingQueue<QuizErgebnisDTO> warteschlange;
+	private final int stapelGroesse;
+	private final Consumer<List<QuizErgebnisDTO>> schreiber;
+	private final Thread thread;
+	private final AtomicLong geschrieben = new AtomicLong();
+	private final AtomicLong stapel = new AtomicLong();
+	// Nach close() nicht gespeicherte Ergebnisse samt letztem Fehler
+	private final List<QuizErgebnisDTO> verloren = new ArrayList<>();
+	private RuntimeException verlustUrsache;
+	// Einreihen unter dem Lese-Lock, Schließen unter dem Schreib-Lock
+	private final ReadWriteLock sperre = new ReentrantReadWriteLock();
+	private volatile boolean geschlossen;
+	// Beendet die Pause zwischen zwei Versuchen, sobald geschlossen wird
+	private final CountDownLatch schliessSignal = new CountDownLatch(1);
+
+	/**
+	 * Erstellt die Warteschlange und startet den Schreib-Thread.
+	 *
+	 * @param kapazitaet Maximale Anzahl wartender Ergebnisse
+	 * @param stapelGroesse Maximale Anzahl Ergebnisse je Schreibvorgang
+	 * @param schreiber Speichert einen Stapel und feuert das Event
+	 */
+	ErgebnisSchreiber(int kapazitaet, int stapelGroesse, Consumer<List<QuizErgebnisDTO>> schreiber) {
+		this.warteschlange = new ArrayBlockingQueue<>(Math.max(1, kapazitaet));
+		this.stapelGroesse = Math.max(1, stapelGroesse);
+		this.schreiber = schreiber;
+		this.thread = new Thread(this::laufe, "QuizStatistik-Schreiber");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Reiht ein Ergebnis zum Speichern ein.
+	 *
+	 * <p>Kehrt sofort zurück, solange die Warteschlange nicht voll ist. Nach
+	 * {@link #close()} oder bei Unterbrechung wird das Ergebnis direkt gespeichert.</p>
+	 *
+	 * @param ergebnis Das zu speichernde Ergebnis
+	 */
+	void einreihen(QuizErgebnisDTO ergebnis) {
+		boolean eingereiht = false;
+		try {
+			while (!eingereiht) {
+				// Aufrufer blockieren sich nicht gegenseitig; close() wartet nur auf laufende
+				// Versuche, danach wird nichts mehr hinter die Ende-Markierung eingereiht
+				sperre.readLock().lock();
+				try {
+					if (geschlossen) {
+						break;
+					}
+					eingereiht = warteschlange.offer(ergebnis, 50, TimeUnit.MILLISECONDS);
+				} finally {
+					sperre.readLock().unlock();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (!eingereiht) {
+			schreiber.accept(List.of(ergebnis));
+		}
+	}
+
+	/**
+	 * Gibt die Anzahl der noch nicht gespeicherten Ergebnisse zurück.
+	 *
+	 * @return Anzahl wartender Ergebnisse
+	 */
+	int getAusstehend() {
+		return (int) warteschlange.stream().filter(ergebnis -> ergebnis != ENDE).count();
+	}
+
+	private void laufe() {
+		List<QuizErgebnisDTO> aktuell = new ArrayList<>(stapelGroesse);
+		boolean ende = false;
+		while (!ende) {
+			try {
+				aktuell.add(warteschlange.take());
+			} catch (InterruptedException e) {
+				// Wird nur über close() beendet
+				continue;
+			}
+			warteschlange.drainTo(aktuell, stapelGroesse - 1);
+			// Die Ende-Markierung ist immer das letzte Element
+			if (aktuell.get(aktuell.size() - 1) == ENDE) {
+				aktuell.remove(aktuell.size() - 1);
+				ende = true;
+			}
+			if (!aktuell.isEmpty()) {
+				schreibe(aktuell);
+			}
+			aktuell = new ArrayList<>(stapelGroesse);
+		}
+	}
+
+	/**
+	 * Schreibt einen Stapel, bis es gelingt. Nach {@link #close()} wird aufgegeben,
+	 * sobald der Stapel {@value #MAX_VERSUCHE} Versuche hatte (bzw. nach einem
+	 * Versuch, wenn schon ein Stapel verloren ist).
+	 */
+	private void schreibe(List<QuizErgebnisDTO> ergebnisse) {
+		long pause = 100;
+		for (int versuch = 1;; versuch++) {
+			try {
+				schreiber.accept(ergebnisse);
+				geschrieben.addAndGet(ergebnisse.size());
+				stapel.incrementAndGet();
+				return;
+			} catch (RuntimeException e) {
+				if (geschlossen && (versuch >= MAX_VERSUCHE || hatVerluste())) {
+					System.err.println("ErgebnisSchreiber: " + ergebnisse.size()
+							+ " Quiz-Ergebnisse konnten nicht gespeichert werden: " + e.getMessage());
+					verliere(ergebnisse, e);
+					return;
+				}
+				System.err.println("ErgebnisSchreiber: Speichern fehlgeschlagen (Versuch " + versuch + "), "
+						+ "neuer Versuch in " + pause + " ms: " + e.getMessage());
+			}
+			try {
+				// Vor close() verkürzt das Signal die Pause, danach wird regulär gewartet
+				if (geschlossen) {
+					Thread.sleep(pause);
+				} else {
+					schliessSignal.await(pause, TimeUnit.MILLISECONDS);
+				}
+			} catch (InterruptedException e) {
+				// Wird nur über close() beendet
+			}
+			pause = geschlossen ? Math.min(pause, MAX_PAUSE_BEIM_SCHLIESSEN_MS) : Math.min(pause * 2, MAX_PAUSE_MS);
+		}
+	}
+
+	private synchronized void verliere(List<QuizErgebnisDTO> ergebnisse, RuntimeException ursache) {
+		verloren.addAll(ergebnisse);
+		verlustUrsache = ursache;
+	}
+
+	private synchronized boolean hatVerluste() {
+		return !verloren.isEmpty();
+	}
+
+	/**
+	 * Gibt die Ergebnisse zurück, die beim Schließen nicht gespeichert werden konnten.
+	 *
+	 * @return Kopie der verlorenen Ergebnisse (leer, solange nichts verloren ist)
+	 */
+	synchronized List<QuizErgebnisDTO> getVerloren() {
+		return new ArrayList<>(verloren);
+	}
+
+	/**
+	 * Schreibt alle eingereihten Ergebnisse und beendet den Schreib-Thread.
+	 *
+	 * <p>Wartet höchstens 10 Sekunden. Ergebnisse, die bis dahin nicht gespeichert
+	 * werden konnten oder noch warten, gehen verloren und werden gemeldet.</p>
+	 *
+	 * @throws PersistenceException wenn Ergebnisse nicht gespeichert werden konnten
+	 */
+	@Override
+	public void close() {
+		sperre.writeLock().lock();
+		try {
+			if (geschlossen) {
+				return;
+			}
+			geschlossen = true;
+		} finally {
+			sperre.writeLock().unlock();
+		}
+		schliessSignal.countDown();
+		// Der Schreib-Thread leert die Warteschlange, es wird also bald Platz frei
+		boolean unterbrochen = false;
+		while (!warteschlange.offer(ENDE)) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				unterbrochen = true;
+			}
+		}
+		if (unterbrochen) {
+			Thread.currentThread().interrupt();
+		}
+		try {
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		int ausstehend = thread.isAlive() ? getAusstehend() : 0;
+		int anzahlVerloren;
+		RuntimeException ursache;
+		synchronized (this) {
+			anzahlVerloren = verloren.size();
+			ursache = verlustUrsache;
+		}
+		System.out.println("ErgebnisSchreiber: " + geschrieben.get() + " Quiz-Ergebnisse in " + stapel.get()
+				+ " Stapeln gespeichert, " + anzahlVerloren + " verloren, " + ausstehend + " nicht rechtzeitig");
+		if (anzahlVerloren + ausstehend > 0) {
+			throw new PersistenceException((anzahlVerloren + ausstehend)
+					+ " Quiz-Ergebnisse konnten nicht gespeichert werden", ursache);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package business;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import business.event.DataChangedEvent;
@@ -170,6 +171,15 @@ public class FrageService {
 		return repository.findFragenByThemaId(themaId);
 	}
 
+	/**
+	 * Findet die Fragen aller Themen in einem Durchgang.
+	 * 
+	 * @return Fragen je Themen-ID; Themen ohne Fragen können fehlen
+	 */
+	public Map<Long, List<FrageDTO>> findFragenFuerAlleThemen() {
+		return repository.findFragenFuerAlleThemen();
+	}
+
 	/**
 	 * Findet alle Fragen eines Themas nach Namen.
 	 * 
@@ -1,6 +1,9 @@
 package business;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ObjIntConsumer;
 
 import business.event.EventListener;
 import business.event.EventManager;
@@ -9,6 +12,7 @@ import config.PropertiesLoader;
 import data.dto.ThemaDTO;
 import data.persistence.RepositoryFactory;
 import data.repository.QuizRepository;
+import exception.PersistenceException;
 
 /**
  * Zentrale Anwendungsklasse für die Quiz-Anwendung.
@@ -45,11 +49,13 @@ import data.repository.QuizRepository;
 public class QuizApplication {
 
 	private static QuizApplication instance;
+	private static CompletableFuture<QuizApplication> bereitschaft;
 	private final QuizRepository repository;
 	private final ThemaService themaService;
 	private final FrageService frageService;
 	private final QuizStatistikService quizStatistikService;
 	private final EventManager eventManager;
+	private final AtomicBoolean gestoppt = new AtomicBoolean();
 
 	/**
 	 * Privater Konstruktor für Singleton-Pattern.
@@ -58,8 +64,13 @@ public class QuizApplication {
 	 * Registriert Standard-Event-Listener für Logging und Debugging.</p>
 	 */
 	private QuizApplication() {
+		this((schritt, prozent) -> {
+		});
+	}
+
+	private QuizApplication(ObjIntConsumer<String> fortschritt) {
 		// Repository erstellen
-		this.repository = RepositoryFactory.createRepository();
+		this.repository = RepositoryFactory.createRepository(fortschritt);
 
 		// Services erstellen
 		this.themaService = new ThemaService(repository);
@@ -77,15 +88,53 @@ public class QuizApplication {
 	 * Singleton-Instanz der Quiz-Anwendung.
 	 * 
 	 * <p>Erstellt bei Bedarf eine neue Instanz oder gibt die bestehende zurück.
-	 * Thread-sicher durch synchronized.</p>
+	 * Thread-sicher; läuft bereits ein Laden über {@link #bereitschaft(ObjIntConsumer)},
+	 * wird auf dessen Abschluss gewartet.</p>
 	 * 
 	 * @return Die einzige Instanz der Quiz-Anwendung
 	 */
-	public static synchronized QuizApplication getInstance() {
-		if (instance == null) {
-			instance = new QuizApplication();
+	public static QuizApplication getInstance() {
+		CompletableFuture<QuizApplication> laden;
+		synchronized (QuizApplication.class) {
+			if (instance != null) {
+				return instance;
+			}
+			if (bereitschaft == null) {
+				instance = new QuizApplication();
+				return instance;
+			}
+			laden = bereitschaft;
+		}
+		// Laden wurde bereits im Hintergrund gestartet
+		return laden.join();
+	}
+
+	/**
+	 * Startet das Laden der Anwendung im Hintergrund.
+	 * 
+	 * <p>Das Repository liest seine Daten in einem eigenen Thread ein, sodass z.B. die
+	 * GUI sofort erscheinen und den Fortschritt anzeigen kann. Weitere Aufrufe liefern
+	 * dasselbe Future; {@link #getInstance()} wartet bis zum Abschluss.</p>
+	 * 
+	 * @param fortschritt Erhält Beschreibung und Fortschritt in Prozent des aktuellen
+	 *                    Ladeschritts (wird im Lade-Thread aufgerufen)
+	 * @return Future, das mit der fertig initialisierten Anwendung abgeschlossen wird
+	 */
+	public static synchronized CompletableFuture<QuizApplication> bereitschaft(ObjIntConsumer<String> fortschritt) {
+		if (bereitschaft == null) {
+			if (instance != null) {
+				bereitschaft = CompletableFuture.completedFuture(instance);
+			} else {
+				bereitschaft = CompletableFuture.supplyAsync(() -> {
+					QuizApplication app = new QuizApplication(fortschritt);
+					synchronized (QuizApplication.class) {
+						instance = app;
+					}
+					return app;
+				}, aufgabe -> new Thread(aufgabe, "QuizApplication-Laden").start());
+			}
 		}
-		return instance;
+		return bereitschaft;
 	}
 
 	/**
@@ -124,15 +173,27 @@ public class QuizApplication {
 	 * Startet die Anwendung.
 	 * 
 	 * <p>Gibt Konfigurationsinformationen aus und markiert die Anwendung als bereit.
-	 * Diese Methode wird beim Anwendungsstart aufgerufen.</p>
+	 * Diese Methode wird beim Anwendungsstart aufgerufen. Ein Shutdown-Hook ruft
+	 * {@link #stop()} auf, falls die JVM ohne vorheriges Stoppen beendet wird
+	 * (z.B. {@code System.exit} oder Strg+C).</p>
 	 */
 	public void start() {
 		System.out.println("Quiz-Anwendung wird gestartet...");
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				stop();
+			} catch (PersistenceException e) {
+				// Bereits von stop() protokolliert, beim Beenden gibt es keine Oberfläche mehr
+			}
+		}, "QuizApplication-Beenden"));
 		
 		// Zeige Informationen über das bereits erstellte Repository
 		if (repository instanceof data.persistence.LokalRepository) {
 			System.out.println("Datenbank-Typ: Lokale Speicherung");
 			System.out.println("Datenbank-Konfiguration: Lokale Umgebung");
+		} else if (repository instanceof data.persistence.LsmRepository) {
+			System.out.println("Datenbank-Typ: LSM-Speicher");
+			System.out.println("Datenbank-Konfiguration: Lokale Umgebung");
 		} else if (repository instanceof data.persistence.JDBCRepository) {
 			System.out.println("Datenbank-Typ: JDBC-Verbindung");
 			System.out.println("Datenbank-Konfiguration: Datenbank-basierte Umgebung");
@@ -149,12 +210,43 @@ public class QuizApplication {
 	 * Stoppt die Anwendung.
 	 * 
 	 * <p>Führt Cleanup-Operationen durch und markiert die Anwendung als gestoppt.
-	 * Diese Methode wird beim Anwendungsende aufgerufen.</p>
+	 * Zuerst werden die noch wartenden Quiz-Ergebnisse des {@link QuizStatistikService}
+	 * gespeichert. Ausstehende Änderungen werden über {@link QuizRepository#flush()} geschrieben,
+	 * schließbare Repositories (z.B. das LokalRepository im Journal-Modus) werden
+	 * anschließend geschlossen. Diese Methode wird beim Anwendungsende aufgerufen;
+	 * weitere Aufrufe (z.B. durch den Shutdown-Hook) haben keine Wirkung.</p>
+	 * 
+	 * @throws PersistenceException wenn Quiz-Ergebnisse nicht gespeichert werden konnten;
+	 *         das Repository wird trotzdem geschlossen
 	 */
 	public void stop() {
+		if (!gestoppt.compareAndSet(false, true)) {
+			return;
+		}
 		System.out.println("Quiz-Anwendung wird gestoppt...");
-		// Hier könnten Cleanup-Operationen durchgeführt werden
+		PersistenceException verlust = null;
+		try {
+			quizStatistikService.close();
+		} catch (PersistenceException e) {
+			System.err.println("Fehler beim Speichern der Quiz-Ergebnisse: " + e.getMessage());
+			verlust = e;
+		}
+		try {
+			repository.flush();
+		} catch (RuntimeException e) {
+			System.err.println("Fehler beim Schreiben ausstehender Änderungen: " + e.getMessage());
+		}
+		if (repository instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) repository).close();
+			} catch (Exception e) {
+				System.err.println("Fehler beim Schließen des Repositories: " + e.getMessage());
+			}
+		}
 		System.out.println("Anwendung gestoppt!");
+		if (verlust != null) {
+			throw verlust;
+		}
 	}
 
 	/**
@@ -1,9 +1,12 @@
 package business;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import business.event.DataChangedEvent;
 import business.event.EventManager;
+import config.PropertiesLoader;
 import data.dto.QuizErgebnisDTO;
 import data.dto.StatistikDTO;
 import data.repository.QuizRepository;
@@ -24,6 +27,12 @@ import data.repository.QuizRepository;
  *   <li>Event-Benachrichtigung bei neuen Ergebnissen</li>
  * </ul>
  * 
+ * <p>Einzelne Ergebnisse werden standardmäßig asynchron über einen
+ * {@link ErgebnisSchreiber} gespeichert ({@code quiz.ergebnisse.async}); die Events
+ * (eines je Ergebnis) werden dann im Schreib-Thread gefeuert, sobald der Stapel
+ * gespeichert ist.
+ * {@link #close()} schreibt alle noch wartenden Ergebnisse.</p>
+ * 
  * <p>Statistik-Metriken:</p>
  * <ul>
  *   <li>Anzahl Versuche und Erfolgsrate</li>
@@ -39,9 +48,10 @@ import data.repository.QuizRepository;
  * @see ThemaService
  * @see DataChangedEvent
  */
-public class QuizStatistikService {
+public class QuizStatistikService implements AutoCloseable {
 
 	private final QuizRepository repository;
+	private final ErgebnisSchreiber ergebnisSchreiber;
 
 	/**
 	 * Erstellt einen neuen QuizStatistikService mit dem angegebenen Repository.
@@ -50,13 +60,22 @@ public class QuizStatistikService {
 	 */
 	public QuizStatistikService(QuizRepository repository) {
 		this.repository = repository;
+		if (PropertiesLoader.getBooleanProperty("quiz.ergebnisse.async", true)) {
+			this.ergebnisSchreiber = new ErgebnisSchreiber(
+					PropertiesLoader.getIntProperty("quiz.ergebnisse.queue.capacity", 10000),
+					PropertiesLoader.getIntProperty("quiz.ergebnisse.batch.size", 500), this::speichereStapel);
+		} else {
+			this.ergebnisSchreiber = null;
+		}
 	}
 
 	/**
 	 * Speichert ein Quiz-Ergebnis.
 	 * 
 	 * <p>Die Methode speichert das Ergebnis in der Datenbank und feuert ein Event
-	 * zur Benachrichtigung anderer Komponenten über die neue Statistik.</p>
+	 * zur Benachrichtigung anderer Komponenten über die neue Statistik. Im
+	 * asynchronen Modus wird das Ergebnis nur eingereiht und die Methode kehrt
+	 * sofort zurück; Speichern und Event folgen im Schreib-Thread.</p>
 	 * 
 	 * @param themaId Die ID des Themas
 	 * @param frageId Die ID der Frage
@@ -70,14 +89,51 @@ public class QuizStatistikService {
 		QuizErgebnisDTO ergebnis = new QuizErgebnisDTO(themaId, frageId, antwortRichtig, antwortVorherGezeigt,
 				antwortZeitSekunden, punkte);
 
+		if (ergebnisSchreiber != null) {
+			ergebnisSchreiber.einreihen(ergebnis);
+			return;
+		}
+
 		repository.saveQuizErgebnis(ergebnis);
+		feuereErstellt(ergebnis);
+	}
 
-		// Event feuern
+	/**
+	 * Speichert einen Stapel des {@link ErgebnisSchreiber} und feuert danach je
+	 * Ergebnis ein Event, wie beim synchronen Speichern.
+	 */
+	private void speichereStapel(List<QuizErgebnisDTO> ergebnisse) {
+		repository.saveQuizErgebnisse(ergebnisse);
+		for (QuizErgebnisDTO ergebnis : ergebnisse) {
+			feuereErstellt(ergebnis);
+		}
+	}
+
+	private void feuereErstellt(QuizErgebnisDTO ergebnis) {
 		DataChangedEvent event = new DataChangedEvent("QuizStatistikService", DataChangedEvent.ChangeType.CREATED,
 				DataChangedEvent.EntityType.QUIZ_ERGEBNIS, ergebnis);
 		EventManager.getInstance().fireEvent(event);
 	}
 
+	/**
+	 * Speichert viele Quiz-Ergebnisse auf einmal (z.B. Import).
+	 * 
+	 * <p>Es wird ein einziges Event {@code QUIZ_ERGEBNISSE_CREATED} mit allen
+	 * Ergebnissen gefeuert, kein {@code QUIZ_ERGEBNIS_CREATED} je Ergebnis.</p>
+	 * 
+	 * @param ergebnisse Die zu speichernden Quiz-Ergebnisse
+	 */
+	public void saveQuizErgebnisse(Collection<QuizErgebnisDTO> ergebnisse) {
+		if (ergebnisse.isEmpty()) {
+			return;
+		}
+		repository.saveQuizErgebnisse(ergebnisse);
+
+		DataChangedEvent event = new DataChangedEvent("QuizStatistikService", DataChangedEvent.ChangeType.CREATED,
+				DataChangedEvent.EntityType.QUIZ_ERGEBNISSE, ergebnisse);
+		EventManager.getInstance().fireEvent(event);
+	}
+
 	/**
 	 * Findet alle Quiz-Ergebnisse für ein Thema.
 	 * 
@@ -98,6 +154,39 @@ public class QuizStatistikService {
 		return repository.findQuizErgebnisseByFrageId(frageId);
 	}
 
+	/**
+	 * Findet eine Seite der Quiz-Ergebnisse eines Themas, neueste zuerst.
+	 * 
+	 * <p>Für die nächste Seite werden Zeitpunkt und ID des letzten Ergebnisses als
+	 * Cursor übergeben, sodass lange Historien schrittweise geladen werden können.</p>
+	 * 
+	 * @param themaId Die ID des Themas
+	 * @param vorZeitpunkt Zeitpunkt des letzten Ergebnisses der vorherigen Seite
+	 * @param vorId ID des letzten Ergebnisses der vorherigen Seite oder 0 für die erste Seite
+	 * @param limit Maximale Anzahl Ergebnisse
+	 * @return Höchstens {@code limit} Quiz-Ergebnisse
+	 * @see QuizRepository#findQuizErgebnisseByThemaId(long, LocalDateTime, long, int)
+	 */
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return repository.findQuizErgebnisseByThemaId(themaId, vorZeitpunkt, vorId, limit);
+	}
+
+	/**
+	 * Findet eine Seite der Quiz-Ergebnisse einer Frage, neueste zuerst.
+	 * 
+	 * @param frageId Die ID der Frage
+	 * @param vorZeitpunkt Zeitpunkt des letzten Ergebnisses der vorherigen Seite
+	 * @param vorId ID des letzten Ergebnisses der vorherigen Seite oder 0 für die erste Seite
+	 * @param limit Maximale Anzahl Ergebnisse
+	 * @return Höchstens {@code limit} Quiz-Ergebnisse
+	 * @see #findQuizErgebnisseByThemaId(long, LocalDateTime, long, int)
+	 */
+	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return repository.findQuizErgebnisseByFrageId(frageId, vorZeitpunkt, vorId, limit);
+	}
+
 	/**
 	 * Findet Statistiken für ein Thema.
 	 * 
@@ -129,34 +218,10 @@ public class QuizStatistikService {
 	 * @return Eine StatistikDTO mit allen aggregierten Daten des Themas
 	 */
 	public StatistikDTO berechneThemaStatistik(long themaId, String themaTitel) {
-		List<QuizErgebnisDTO> ergebnisse = findQuizErgebnisseByThemaId(themaId);
-
-		if (ergebnisse.isEmpty()) {
-			return new StatistikDTO(themaId, themaTitel, 0, "");
-		}
-
-		// Aggregierte Statistiken berechnen
-		int gesamtVersuche = ergebnisse.size();
-		int gesamtRichtig = (int) ergebnisse.stream().filter(QuizErgebnisDTO::isAntwortRichtig).count();
-		int gesamtFalsch = gesamtVersuche - gesamtRichtig;
-
-		double durchschnittZeit = ergebnisse.stream().mapToInt(QuizErgebnisDTO::getAntwortZeitSekunden).average()
-				.orElse(0.0);
-
-		double durchschnittPunkte = ergebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).average().orElse(0.0);
-
-		int bestePunkte = ergebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).max().orElse(0);
-
-		// Statistik erstellen
-		StatistikDTO statistik = new StatistikDTO(themaId, themaTitel, 0, "");
-		statistik.setAnzahlVersuche(gesamtVersuche);
-		statistik.setAnzahlRichtig(gesamtRichtig);
-		statistik.setAnzahlFalsch(gesamtFalsch);
-		statistik.setDurchschnittlicheAntwortZeit(durchschnittZeit);
-		statistik.setDurchschnittlichePunkte((int) durchschnittPunkte);
-		statistik.setBestePunkte(bestePunkte);
-		statistik.berechneErfolgsRate();
-
+		// Aggregation im Repository, ohne die einzelnen Ergebnisse zu laden
+		StatistikDTO statistik = repository.aggregiereErgebnisseByThemaId(themaId);
+		statistik.setThemaId(themaId);
+		statistik.setThemaTitel(themaTitel);
 		return statistik;
 	}
 
@@ -173,19 +238,11 @@ public class QuizStatistikService {
 	 * @return Eine StatistikDTO mit allen aggregierten Daten der Frage
 	 */
 	public StatistikDTO berechneFrageStatistik(long themaId, String themaTitel, long frageId, String frageTitel) {
-		List<QuizErgebnisDTO> ergebnisse = findQuizErgebnisseByFrageId(frageId);
-
-		if (ergebnisse.isEmpty()) {
-			return new StatistikDTO(themaId, themaTitel, frageId, frageTitel);
-		}
-
-		// Statistik mit allen Ergebnissen erstellen
-		StatistikDTO statistik = new StatistikDTO(themaId, themaTitel, frageId, frageTitel);
-
-		for (QuizErgebnisDTO ergebnis : ergebnisse) {
-			statistik.addErgebnis(ergebnis.isAntwortRichtig(), ergebnis.getAntwortZeitSekunden(), ergebnis.getPunkte());
-		}
-
+		StatistikDTO statistik = repository.aggregiereErgebnisseByFrageId(frageId);
+		statistik.setThemaId(themaId);
+		statistik.setThemaTitel(themaTitel);
+		statistik.setFrageId(frageId);
+		statistik.setFrageTitel(frageTitel);
 		return statistik;
 	}
 
@@ -198,35 +255,23 @@ public class QuizStatistikService {
 	 * @return Eine StatistikDTO mit allen aggregierten Daten aller Themen
 	 */
 	public StatistikDTO berechneGesamtStatistik() {
-		List<QuizErgebnisDTO> alleErgebnisse = repository.findAlleStatistiken().stream()
-				.flatMap(stat -> findQuizErgebnisseByFrageId(stat.getFrageId()).stream()).toList();
+		StatistikDTO statistik = repository.aggregiereAlleErgebnisse();
+		statistik.setThemaTitel("Alle Themen");
+		return statistik;
+	}
 
-		if (alleErgebnisse.isEmpty()) {
-			return new StatistikDTO(0, "Alle Themen", 0, "");
+	/**
+	 * Speichert alle noch wartenden Quiz-Ergebnisse und beendet den Schreib-Thread.
+	 * 
+	 * <p>Wird von {@link QuizApplication#stop()} vor dem Schließen des Repositories
+	 * aufgerufen. Danach eingehende Ergebnisse werden direkt gespeichert.</p>
+	 * 
+	 * @throws exception.PersistenceException wenn wartende Ergebnisse nicht gespeichert werden konnten
+	 */
+	@Override
+	public void close() {
+		if (ergebnisSchreiber != null) {
+			ergebnisSchreiber.close();
 		}
-
-		// Aggregierte Statistiken berechnen
-		int gesamtVersuche = alleErgebnisse.size();
-		int gesamtRichtig = (int) alleErgebnisse.stream().filter(QuizErgebnisDTO::isAntwortRichtig).count();
-		int gesamtFalsch = gesamtVersuche - gesamtRichtig;
-
-		double durchschnittZeit = alleErgebnisse.stream().mapToInt(QuizErgebnisDTO::getAntwortZeitSekunden).average()
-				.orElse(0.0);
-
-		double durchschnittPunkte = alleErgebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).average().orElse(0.0);
-
-		int bestePunkte = alleErgebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).max().orElse(0);
-
-		// Statistik erstellen
-		StatistikDTO statistik = new StatistikDTO(0, "Alle Themen", 0, "");
-		statistik.setAnzahlVersuche(gesamtVersuche);
-		statistik.setAnzahlRichtig(gesamtRichtig);
-		statistik.setAnzahlFalsch(gesamtFalsch);
-		statistik.setDurchschnittlicheAntwortZeit(durchschnittZeit);
-		statistik.setDurchschnittlichePunkte((int) durchschnittPunkte);
-		statistik.setBestePunkte(bestePunkte);
-		statistik.berechneErfolgsRate();
-
-		return statistik;
 	}
 }
@@ -19,6 +19,7 @@ package business.event;
  *   <li>THEMA - Themen-bezogene Änderungen</li>
  *   <li>FRAGE - Fragen-bezogene Änderungen</li>
  *   <li>QUIZ_ERGEBNIS - Quiz-Ergebnis-Änderungen</li>
+ *   <li>QUIZ_ERGEBNISSE - Viele Quiz-Ergebnisse auf einmal (z.B. Import)</li>
  * </ul>
  * 
  * <p>Verwendung:</p>
@@ -62,7 +63,9 @@ public class DataChangedEvent extends QuizEvent {
 		/** Fragen-bezogene Änderungen */
 		FRAGE, 
 		/** Quiz-Ergebnis-Änderungen */
-		QUIZ_ERGEBNIS
+		QUIZ_ERGEBNIS,
+		/** Viele Quiz-Ergebnisse auf einmal; das Datenobjekt ist eine Collection von QuizErgebnisDTO */
+		QUIZ_ERGEBNISSE
 	}
 
 	private final ChangeType changeType;
@@ -96,7 +99,7 @@ public class DataChangedEvent extends QuizEvent {
 	/**
 	 * Gibt den Typ der geänderten Entität zurück.
 	 * 
-	 * @return Der Typ der Entität (THEMA, FRAGE, QUIZ_ERGEBNIS)
+	 * @return Der Typ der Entität (THEMA, FRAGE, QUIZ_ERGEBNIS, QUIZ_ERGEBNISSE)
 	 */
 	public EntityType getEntityType() {
 		return entityType;
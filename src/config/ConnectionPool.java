@@ -0,0 +1,424 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Schlanker Connection-Pool für JDBC-Verbindungen.
+ *
+ * <p>Ausgeliehene Verbindungen sind Stellvertreter: {@code close()} gibt die
+ * Verbindung an den Pool zurück, statt sie zu schließen. Höchstens
+ * {@code maxGroesse} Verbindungen sind gleichzeitig ausgeliehen; weitere Anfragen
+ * warten bis zu {@code maxWartezeitMs}. Beim Ausleihen wird jede Verbindung mit
+ * {@link Connection#isValid(int)} geprüft, abgebrochene Verbindungen (z.B. nach
+ * einem Neustart von MariaDB) werden verworfen und neu aufgebaut.</p>
+ *
+ * <p>Ein Hintergrund-Thread schließt Verbindungen, die länger als
+ * {@code leerlaufMs} unbenutzt waren, und hält mindestens {@code minGroesse}
+ * Verbindungen offen. Ausleihen und Wartezeiten werden mitgezählt.</p>
+ *
+ * <p>Jede physische Verbindung hat einen {@link StatementCache}, sodass häufige
+ * Abfragen nur einmal je Verbindung vorbereitet werden.</p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Öffnet eine neue physische Verbindung.
+     */
+    @FunctionalInterface
+    public interface Verbindungsquelle {
+        Connection oeffne() throws SQLException;
+    }
+
+    private final Verbindungsquelle quelle;
+    private final int minGroesse;
+    private final int maxGroesse;
+    private final long maxWartezeitMs;
+    private final long leerlaufMs;
+    private final int validierungTimeoutSekunden;
+    private final int statementCacheGroesse;
+
+    private final Semaphore genehmigungen;
+    // Neueste zuerst, damit selten genutzte Verbindungen am Ende altern
+    private final Deque<Leerlauf> leerlaufend = new ArrayDeque<>();
+    private final AtomicInteger offen = new AtomicInteger();
+    private final ScheduledExecutorService aufraeumer;
+    private volatile boolean geschlossen;
+
+    // Metriken
+    private final AtomicLong anzahlAusleihen = new AtomicLong();
+    private final AtomicLong gesamtWartezeitNanos = new AtomicLong();
+    private final AtomicLong maxWartezeitNanos = new AtomicLong();
+    private final AtomicLong anzahlZeitueberschreitungen = new AtomicLong();
+    private final AtomicLong anzahlVerworfen = new AtomicLong();
+    private final AtomicLong statementTreffer = new AtomicLong();
+    private final AtomicLong statementFehlschlaege = new AtomicLong();
+    private final AtomicLong statementVerdraengt = new AtomicLong();
+
+    /**
+     * Erstellt den Pool und öffnet die Mindestanzahl an Verbindungen.
+     *
+     * @param statementCacheGroesse Höchstanzahl gecachter Anweisungen je Verbindung, 0 schaltet den Cache ab
+     * @throws SQLException wenn die erste Verbindung nicht geöffnet werden kann
+     */
+    public ConnectionPool(Verbindungsquelle quelle, int minGroesse, int maxGroesse, long maxWartezeitMs,
+            long leerlaufMs, int validierungTimeoutSekunden, int statementCacheGroesse) throws SQLException {
+        this.quelle = quelle;
+        this.maxGroesse = Math.max(1, maxGroesse);
+        this.minGroesse = Math.max(0, Math.min(minGroesse, this.maxGroesse));
+        this.maxWartezeitMs = Math.max(0, maxWartezeitMs);
+        this.leerlaufMs = Math.max(1000, leerlaufMs);
+        this.validierungTimeoutSekunden = Math.max(1, validierungTimeoutSekunden);
+        this.statementCacheGroesse = Math.max(0, statementCacheGroesse);
+        this.genehmigungen = new Semaphore(this.maxGroesse, true);
+
+        // Mindestens eine Verbindung sofort öffnen, damit Konfigurationsfehler früh auffallen
+        for (int i = 0; i < Math.max(1, this.minGroesse); i++) {
+            Physisch verbindung = oeffne();
+            synchronized (leerlaufend) {
+                leerlaufend.addFirst(new Leerlauf(verbindung));
+            }
+        }
+
+        this.aufraeumer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ConnectionPool-Aufraeumer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervall = Math.max(1000, this.leerlaufMs / 2);
+        aufraeumer.scheduleWithFixedDelay(this::raeumeAuf, intervall, intervall, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Leiht eine Verbindung aus. Sie muss mit {@code close()} zurückgegeben werden,
+     * am besten über try-with-resources.
+     *
+     * @throws SQLTimeoutException wenn innerhalb der Wartezeit keine Verbindung frei wird
+     */
+    public Connection getConnection() throws SQLException {
+        if (geschlossen) {
+            throw new SQLException("Connection-Pool ist geschlossen");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!genehmigungen.tryAcquire(maxWartezeitMs, TimeUnit.MILLISECONDS)) {
+                anzahlZeitueberschreitungen.incrementAndGet();
+                throw new SQLTimeoutException("Keine freie Datenbankverbindung nach " + maxWartezeitMs
+                        + " ms (höchstens " + maxGroesse + " Verbindungen)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Warten auf eine Datenbankverbindung wurde unterbrochen", e);
+        }
+        long gewartet = System.nanoTime() - start;
+        anzahlAusleihen.incrementAndGet();
+        gesamtWartezeitNanos.addAndGet(gewartet);
+        maxWartezeitNanos.accumulateAndGet(gewartet, Math::max);
+
+        try {
+            Physisch physisch = leihe();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Ausleihe(physisch));
+        } catch (SQLException | RuntimeException e) {
+            genehmigungen.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Schließt alle freien Verbindungen; ausgeliehene werden bei der Rückgabe geschlossen.
+     */
+    @Override
+    public void close() {
+        if (geschlossen) {
+            return;
+        }
+        geschlossen = true;
+        aufraeumer.shutdownNow();
+        List<Physisch> freie = new ArrayList<>();
+        synchronized (leerlaufend) {
+            for (Leerlauf eintrag : leerlaufend) {
+                freie.add(eintrag.verbindung);
+            }
+            leerlaufend.clear();
+        }
+        freie.forEach(this::schliesse);
+        System.out.println("ConnectionPool: " + getStatistik());
+    }
+
+    public boolean isGeschlossen() {
+        return geschlossen;
+    }
+
+    // --- Metriken ---
+
+    public long getAnzahlAusleihen() {
+        return anzahlAusleihen.get();
+    }
+
+    public double getMittlereWartezeitMs() {
+        long ausleihen = anzahlAusleihen.get();
+        return ausleihen == 0 ? 0.0 : gesamtWartezeitNanos.get() / 1_000_000.0 / ausleihen;
+    }
+
+    public double getMaxWartezeitMs() {
+        return maxWartezeitNanos.get() / 1_000_000.0;
+    }
+
+    public long getAnzahlZeitueberschreitungen() {
+        return anzahlZeitueberschreitungen.get();
+    }
+
+    public long getAnzahlVerworfen() {
+        return anzahlVerworfen.get();
+    }
+
+    public int getAnzahlOffen() {
+        return offen.get();
+    }
+
+    public int getAnzahlAusgeliehen() {
+        return maxGroesse - genehmigungen.availablePermits();
+    }
+
+    public long getStatementTreffer() {
+        return statementTreffer.get();
+    }
+
+    public long getStatementFehlschlaege() {
+        return statementFehlschlaege.get();
+    }
+
+    public long getStatementVerdraengt() {
+        return statementVerdraengt.get();
+    }
+
+    /**
+     * Gibt eine Zusammenfassung der Metriken zurück.
+     */
+    public String getStatistik() {
+        return String.format("%d Ausleihen, Wartezeit Ø %.2f ms / max. %.2f ms, %d Zeitüberschreitungen, "
+                + "%d verworfen, %d offen, %d ausgeliehen; Statement-Cache: %d Treffer, %d vorbereitet, "
+                + "%d verdrängt", getAnzahlAusleihen(), getMittlereWartezeitMs(), getMaxWartezeitMs(),
+                getAnzahlZeitueberschreitungen(), getAnzahlVerworfen(), getAnzahlOffen(), getAnzahlAusgeliehen(),
+                getStatementTreffer(), getStatementFehlschlaege(), getStatementVerdraengt());
+    }
+
+    // --- Interne Verwaltung ---
+
+    /**
+     * Liefert eine geprüfte freie Verbindung oder öffnet eine neue.
+     */
+    private Physisch leihe() throws SQLException {
+        while (true) {
+            Leerlauf frei;
+            synchronized (leerlaufend) {
+                frei = leerlaufend.pollFirst();
+            }
+            if (frei == null) {
+                return oeffne();
+            }
+            if (istGueltig(frei.verbindung)) {
+                return frei.verbindung;
+            }
+            anzahlVerworfen.incrementAndGet();
+            schliesse(frei.verbindung);
+        }
+    }
+
+    private void zurueckgeben(Physisch physisch, boolean defekt) {
+        try {
+            Connection verbindung = physisch.verbindung;
+            if (!defekt && !geschlossen && !verbindung.isClosed()) {
+                // Offene Transaktionen nicht an den nächsten Nutzer weitergeben
+                if (!verbindung.getAutoCommit()) {
+                    verbindung.rollback();
+                    verbindung.setAutoCommit(true);
+                }
+                synchronized (leerlaufend) {
+                    leerlaufend.addFirst(new Leerlauf(physisch));
+                }
+                return;
+            }
+            if (defekt) {
+                anzahlVerworfen.incrementAndGet();
+            }
+            schliesse(physisch);
+        } catch (SQLException e) {
+            anzahlVerworfen.incrementAndGet();
+            schliesse(physisch);
+        } finally {
+            genehmigungen.release();
+        }
+    }
+
+    /**
+     * Schließt lange unbenutzte Verbindungen und füllt auf die Mindestanzahl auf.
+     */
+    private void raeumeAuf() {
+        long grenze = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(leerlaufMs);
+        List<Physisch> abgelaufen = new ArrayList<>();
+        synchronized (leerlaufend) {
+            Iterator<Leerlauf> aelteste = leerlaufend.descendingIterator();
+            while (aelteste.hasNext() && offen.get() - abgelaufen.size() > minGroesse) {
+                Leerlauf eintrag = aelteste.next();
+                if (eintrag.seit > grenze) {
+                    break;
+                }
+                aelteste.remove();
+                abgelaufen.add(eintrag.verbindung);
+            }
+        }
+        abgelaufen.forEach(this::schliesse);
+
+        try {
+            while (!geschlossen && offen.get() < minGroesse) {
+                Physisch verbindung = oeffne();
+                synchronized (leerlaufend) {
+                    leerlaufend.addLast(new Leerlauf(verbindung));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("ConnectionPool: Verbindung kann nicht geöffnet werden: " + e.getMessage());
+        }
+    }
+
+    private Physisch oeffne() throws SQLException {
+        Connection verbindung = quelle.oeffne();
+        offen.incrementAndGet();
+        StatementCache cache = statementCacheGroesse == 0 ? null
+                : new StatementCache(verbindung, statementCacheGroesse, statementTreffer, statementFehlschlaege,
+                        statementVerdraengt);
+        return new Physisch(verbindung, cache);
+    }
+
+    private void schliesse(Physisch physisch) {
+        offen.decrementAndGet();
+        if (physisch.cache != null) {
+            physisch.cache.schliesseAlle();
+        }
+        try {
+            physisch.verbindung.close();
+        } catch (SQLException e) {
+            // Verbindung ist ohnehin unbrauchbar
+        }
+    }
+
+    private boolean istGueltig(Physisch physisch) {
+        try {
+            return !physisch.verbindung.isClosed() && physisch.verbindung.isValid(validierungTimeoutSekunden);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static boolean istVerbindungsfehler(SQLException e) {
+        String zustand = e.getSQLState();
+        return e instanceof SQLNonTransientConnectionException || e instanceof SQLRecoverableException
+                || (zustand != null && zustand.startsWith("08"));
+    }
+
+    /**
+     * Physische Verbindung mit ihrem Statement-Cache.
+     */
+    private static final class Physisch {
+        private final Connection verbindung;
+        private final StatementCache cache;
+
+        private Physisch(Connection verbindung, StatementCache cache) {
+            this.verbindung = verbindung;
+            this.cache = cache;
+        }
+    }
+
+    private static final class Leerlauf {
+        private final Physisch verbindung;
+        private final long seit = System.nanoTime();
+
+        private Leerlauf(Physisch verbindung) {
+            this.verbindung = verbindung;
+        }
+    }
+
+    /**
+     * Stellvertreter einer ausgeliehenen Verbindung.
+     */
+    private final class Ausleihe implements InvocationHandler {
+        private final Physisch physisch;
+        private final AtomicBoolean zurueckgegeben = new AtomicBoolean();
+        private volatile boolean defekt;
+
+        private Ausleihe(Physisch physisch) {
+            this.physisch = physisch;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (zurueckgegeben.compareAndSet(false, true)) {
+                        zurueckgeben(physisch, defekt);
+                    }
+                    return null;
+                case "isClosed":
+                    if (zurueckgegeben.get()) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pool-Verbindung[" + physisch.verbindung + "]";
+                default:
+                    break;
+            }
+            if (zurueckgegeben.get()) {
+                throw new SQLException("Verbindung wurde bereits an den Pool zurückgegeben");
+            }
+            try {
+                if (physisch.cache != null && method.getName().equals("prepareStatement")) {
+                    if (args.length == 1) {
+                        return physisch.cache.prepareStatement((String) args[0], null);
+                    }
+                    if (args.length == 2 && args[1] instanceof Integer) {
+                        return physisch.cache.prepareStatement((String) args[0], (Integer) args[1]);
+                    }
+                }
+                return method.invoke(physisch.verbindung, args);
+            } catch (SQLException e) {
+                // Aus dem Statement-Cache
+                if (istVerbindungsfehler(e)) {
+                    defekt = true;
+                }
+                throw e;
+            } catch (InvocationTargetException e) {
+                Throwable ursache = e.getCause();
+                if (ursache instanceof SQLException && istVerbindungsfehler((SQLException) ursache)) {
+                    defekt = true;
+                }
+                throw ursache;
+            }
+        }
+    }
+}
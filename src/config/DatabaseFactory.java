@@ -2,6 +2,8 @@ package config;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -13,6 +15,7 @@ public class DatabaseFactory {
     
     private static DatabaseFactory instance;
     private final PropertiesLoader propertiesLoader;
+    private final Map<DatabaseType, ConnectionPool> connectionPools = new EnumMap<>(DatabaseType.class);
     
     private DatabaseFactory() {
         this.propertiesLoader = new PropertiesLoader();
@@ -59,6 +62,9 @@ public class DatabaseFactory {
                 case LOKAL:
                     throw new SQLException("Lokale Speicherung benötigt keine Datenbankverbindung");
                     
+                case LSM:
+                    throw new SQLException("Der LSM-Speicher benötigt keine Datenbankverbindung");
+                    
                 default:
                     throw new SQLException("Nicht unterstützter Datenbanktyp: " + dbType);
             }
@@ -67,6 +73,25 @@ public class DatabaseFactory {
         }
     }
     
+    /**
+     * Gibt den Connection-Pool für einen Datenbanktyp zurück und erstellt ihn bei Bedarf.
+     * Größe, Wartezeit, Leerlaufzeit und Statement-Cache kommen aus den Properties quiz.database.pool.*.
+     */
+    public synchronized ConnectionPool getConnectionPool(DatabaseType dbType) throws SQLException {
+        ConnectionPool pool = connectionPools.get(dbType);
+        if (pool == null || pool.isGeschlossen()) {
+            pool = new ConnectionPool(() -> createConnection(dbType),
+                    PropertiesLoader.getIntProperty("quiz.database.pool.min", 1),
+                    PropertiesLoader.getIntProperty("quiz.database.pool.max", 8),
+                    PropertiesLoader.getLongProperty("quiz.database.pool.wait.ms", 5000),
+                    PropertiesLoader.getLongProperty("quiz.database.pool.idle.ms", 300000),
+                    PropertiesLoader.getIntProperty("quiz.database.pool.validation.timeout.s", 2),
+                    PropertiesLoader.getIntProperty("quiz.database.pool.statement.cache.size", 32));
+            connectionPools.put(dbType, pool);
+        }
+        return pool;
+    }
+    
     /**
      * Erstellt eine SQLite-Verbindung.
      */
@@ -132,6 +157,9 @@ public class DatabaseFactory {
                 case LOKAL:
                     throw new SQLException("Lokale Speicherung benötigt keine Datenbankverbindung");
                     
+                case LSM:
+                    throw new SQLException("Der LSM-Speicher benötigt keine Datenbankverbindung");
+                    
                 default:
                     throw new SQLException("Nicht unterstützter Datenbanktyp: " + dbType);
             }
@@ -92,6 +92,28 @@ public enum DatabaseType {
         public String getDefaultProperty(String propertyName) {
             return null;
         }
+    },
+    
+    LSM("lsm", null, null, "LSM-Speicher") {
+        @Override
+        public Connection createConnection(String... params) throws SQLException {
+            throw new SQLException("Der LSM-Speicher benötigt keine Datenbankverbindung");
+        }
+        
+        @Override
+        public String[] getRequiredProperties() {
+            return new String[0]; // Alle Properties haben Standardwerte
+        }
+        
+        @Override
+        public String getDefaultProperty(String propertyName) {
+            switch (propertyName) {
+                case "quiz.database.lsm.directory": return "quiz_lsm";
+                case "quiz.database.lsm.memtable.bytes": return "4194304";
+                case "quiz.database.lsm.merge.segments": return "4";
+                default: return null;
+            }
+        }
     };
     
     private final String configKey;
@@ -186,7 +208,7 @@ public enum DatabaseType {
      * Prüft, ob der Datenbanktyp eine echte Datenbankverbindung benötigt.
      */
     public boolean requiresConnection() {
-        return this != LOKAL;
+        return this != LOKAL && this != LSM;
     }
     
     @Override
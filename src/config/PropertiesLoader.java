@@ -61,6 +61,26 @@ public class PropertiesLoader {
 		properties.setProperty("quiz.database.mariadb.name", "quiz_db");
 		properties.setProperty("quiz.database.mariadb.user", "root");
 		properties.setProperty("quiz.database.mariadb.password", ""); // Leer für Sicherheit
+		properties.setProperty("quiz.database.pool.min", "1");
+		properties.setProperty("quiz.database.pool.max", "8");
+		properties.setProperty("quiz.database.pool.wait.ms", "5000");
+		properties.setProperty("quiz.database.pool.idle.ms", "300000");
+		properties.setProperty("quiz.database.pool.validation.timeout.s", "2");
+		properties.setProperty("quiz.database.pool.statement.cache.size", "32");
+		properties.setProperty("quiz.database.lokal.mode", "snapshot");
+		properties.setProperty("quiz.database.lokal.checkpoint.records", "1000");
+		properties.setProperty("quiz.database.lokal.checkpoint.bytes", "4194304");
+		properties.setProperty("quiz.database.lokal.durability", "write");
+		properties.setProperty("quiz.database.lokal.flush.interval.ms", "500");
+		properties.setProperty("quiz.database.lokal.segments.max.loaded", "12");
+		properties.setProperty("quiz.database.lokal.compression", "none");
+		properties.setProperty("quiz.database.lsm.directory", "quiz_lsm");
+		properties.setProperty("quiz.database.lsm.memtable.bytes", "4194304");
+		properties.setProperty("quiz.database.lsm.merge.segments", "4");
+		properties.setProperty("quiz.database.lsm.sync", "batch");
+		properties.setProperty("quiz.ergebnisse.async", "true");
+		properties.setProperty("quiz.ergebnisse.queue.capacity", "10000");
+		properties.setProperty("quiz.ergebnisse.batch.size", "500");
 		
 		// UI-Konfiguration
 		properties.setProperty("quiz.ui.scale", "2.0");
@@ -103,6 +123,17 @@ public class PropertiesLoader {
 		}
 	}
 
+	/**
+	 * Gibt eine Property als Long zurück.
+	 */
+	public static long getLongProperty(String key, long defaultValue) {
+		try {
+			return Long.parseLong(properties.getProperty(key));
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * Gibt eine Property als Double zurück.
 	 */
@@ -0,0 +1,199 @@
+package config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache für vorbereitete Anweisungen einer physischen Verbindung.
+ *
+ * <p>Schlüssel ist der SQL-Text (zusammen mit dem Flag für generierte Schlüssel).
+ * Ausgegeben werden Stellvertreter, deren {@code close()} die Anweisung nur
+ * zurücksetzt (Parameter, Batch sowie geänderte {@code maxRows}, {@code fetchSize}
+ * und {@code queryTimeout} auf die Werte des Treibers) und für den nächsten Aufruf
+ * im Cache lässt. Der Cache ist auf
+ * {@code maxGroesse} Anweisungen begrenzt und verdrängt die am längsten nicht
+ * genutzte. Ist eine Anweisung noch in Benutzung (verschachtelte Abfrage mit
+ * demselben SQL), wird eine ungecachte vorbereitet.</p>
+ *
+ * <p>Eine Verbindung wird immer nur von einem Thread gleichzeitig genutzt, der
+ * Cache ist daher nicht synchronisiert.</p>
+ */
+final class StatementCache {
+
+    private final Connection verbindung;
+    private final int maxGroesse;
+    private final AtomicLong treffer;
+    private final AtomicLong fehlschlaege;
+    private final AtomicLong verdraengt;
+    private final LinkedHashMap<String, Eintrag> eintraege = new LinkedHashMap<>(16, 0.75f, true);
+
+    StatementCache(Connection verbindung, int maxGroesse, AtomicLong treffer, AtomicLong fehlschlaege,
+            AtomicLong verdraengt) {
+        this.verbindung = verbindung;
+        this.maxGroesse = maxGroesse;
+        this.treffer = treffer;
+        this.fehlschlaege = fehlschlaege;
+        this.verdraengt = verdraengt;
+    }
+
+    /**
+     * Liefert eine vorbereitete Anweisung aus dem Cache oder bereitet sie vor.
+     *
+     * @param autoGeneratedKeys Flag für generierte Schlüssel oder {@code null} für
+     *                          {@link Connection#prepareStatement(String)}
+     */
+    PreparedStatement prepareStatement(String sql, Integer autoGeneratedKeys) throws SQLException {
+        String schluessel = autoGeneratedKeys + ":" + sql;
+        Eintrag eintrag = eintraege.get(schluessel);
+        if (eintrag != null && !eintrag.inBenutzung) {
+            treffer.incrementAndGet();
+            return eintrag.leihe();
+        }
+        fehlschlaege.incrementAndGet();
+        PreparedStatement anweisung = autoGeneratedKeys == null ? verbindung.prepareStatement(sql)
+                : verbindung.prepareStatement(sql, autoGeneratedKeys);
+        if (eintrag != null) {
+            // Dieselbe Anweisung ist noch offen, die neue nicht cachen
+            return anweisung;
+        }
+        try {
+            eintrag = new Eintrag(schluessel, anweisung);
+        } catch (SQLException e) {
+            try {
+                anweisung.close();
+            } catch (SQLException f) {
+                e.addSuppressed(f);
+            }
+            throw e;
+        }
+        eintraege.put(schluessel, eintrag);
+        verdraenge();
+        return eintrag.leihe();
+    }
+
+    /**
+     * Schließt alle gecachten Anweisungen, bevor die Verbindung geschlossen wird.
+     */
+    void schliesseAlle() {
+        for (Eintrag eintrag : eintraege.values()) {
+            eintrag.schliesse();
+        }
+        eintraege.clear();
+    }
+
+    int getGroesse() {
+        return eintraege.size();
+    }
+
+    private void verdraenge() {
+        Iterator<Eintrag> aelteste = eintraege.values().iterator();
+        while (eintraege.size() > maxGroesse && aelteste.hasNext()) {
+            Eintrag eintrag = aelteste.next();
+            if (!eintrag.inBenutzung) {
+                aelteste.remove();
+                eintrag.schliesse();
+                verdraengt.incrementAndGet();
+            }
+        }
+    }
+
+    private void entferne(Eintrag eintrag) {
+        eintraege.remove(eintrag.schluessel, eintrag);
+        eintrag.schliesse();
+    }
+
+    private final class Eintrag {
+        private final String schluessel;
+        private final PreparedStatement anweisung;
+        // Werte des Treibers, auf die eine geänderte Anweisung zurückgesetzt wird
+        private final int standardMaxRows;
+        private final int standardFetchSize;
+        private final int standardQueryTimeout;
+        private boolean inBenutzung;
+        private boolean einstellungenGeaendert;
+
+        private Eintrag(String schluessel, PreparedStatement anweisung) throws SQLException {
+            this.schluessel = schluessel;
+            this.anweisung = anweisung;
+            this.standardMaxRows = anweisung.getMaxRows();
+            this.standardFetchSize = anweisung.getFetchSize();
+            this.standardQueryTimeout = anweisung.getQueryTimeout();
+        }
+
+        private PreparedStatement leihe() {
+            inBenutzung = true;
+            AtomicBoolean zurueckgegeben = new AtomicBoolean();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "close":
+                                if (zurueckgegeben.compareAndSet(false, true)) {
+                                    gibZurueck();
+                                }
+                                return null;
+                            case "isClosed":
+                                if (zurueckgegeben.get()) {
+                                    return true;
+                                }
+                                break;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "setMaxRows":
+                            case "setLargeMaxRows":
+                            case "setFetchSize":
+                            case "setQueryTimeout":
+                                einstellungenGeaendert = true;
+                                break;
+                            default:
+                                break;
+                        }
+                        if (zurueckgegeben.get()) {
+                            throw new SQLException("Anweisung wurde bereits geschlossen");
+                        }
+                        try {
+                            return method.invoke(anweisung, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        private void gibZurueck() {
+            try {
+                anweisung.clearParameters();
+                anweisung.clearBatch();
+                if (einstellungenGeaendert) {
+                    anweisung.setMaxRows(standardMaxRows);
+                    anweisung.setFetchSize(standardFetchSize);
+                    anweisung.setQueryTimeout(standardQueryTimeout);
+                    einstellungenGeaendert = false;
+                }
+                inBenutzung = false;
+            } catch (SQLException e) {
+                // Nicht mehr verwendbar
+                inBenutzung = false;
+                entferne(this);
+                return;
+            }
+            // Falls der Cache während der Benutzung übergelaufen ist
+            verdraenge();
+        }
+
+        private void schliesse() {
+            try {
+                anweisung.close();
+            } catch (SQLException e) {
+                // Anweisung ist ohnehin unbrauchbar
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package data.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import data.dto.AntwortDTO;
+
+/**
+ * Gleicht die Antworten einer Frage mit den gespeicherten Zeilen der Tabelle
+ * {@code Antworten} ab.
+ *
+ * <p>Statt alle Antworten zu löschen und neu einzufügen, werden die übergebenen
+ * Antworten über ihre ID mit den gespeicherten verglichen:</p>
+ * <ul>
+ *   <li>bekannte ID mit geändertem Text oder Markierung: UPDATE</li>
+ *   <li>ID &lt;= 0 oder unbekannte ID: INSERT (die neue ID wird zurückgeschrieben)</li>
+ *   <li>gespeicherte Antwort, die nicht mehr übergeben wird: DELETE</li>
+ * </ul>
+ * <p>Jede Art wird als ein JDBC-Batch gesendet. Ist nichts geändert, wird nicht
+ * geschrieben. IDs bleiben so über Bearbeitungen hinweg stabil. Die Transaktion
+ * steuert der Aufrufer.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see JDBCRepository
+ */
+public final class AntwortAbgleich {
+
+	private AntwortAbgleich() {
+	}
+
+	/**
+	 * Gleicht die Antworten einer Frage ab.
+	 *
+	 * @param connection Die Verbindung (Transaktion wird vom Aufrufer gesteuert)
+	 * @param frageId    Die ID der Frage
+	 * @param antworten  Die gewünschten Antworten; neue erhalten ihre ID
+	 * @return true, wenn mindestens eine Zeile geschrieben wurde
+	 * @throws SQLException bei Datenbankfehlern
+	 */
+	public static boolean gleicheAb(Connection connection, long frageId, List<AntwortDTO> antworten)
+			throws SQLException {
+		Map<Long, AntwortDTO> gespeichert = ladeGespeicherte(connection, frageId);
+		long hoechsteId = 0;
+		for (long id : gespeichert.keySet()) {
+			hoechsteId = Math.max(hoechsteId, id);
+		}
+
+		List<AntwortDTO> aktualisieren = new ArrayList<>();
+		List<AntwortDTO> einfuegen = new ArrayList<>();
+		for (AntwortDTO antwort : antworten) {
+			AntwortDTO alt = antwort.getId() > 0 ? gespeichert.remove(antwort.getId()) : null;
+			if (alt == null) {
+				einfuegen.add(antwort);
+			} else if (!Objects.equals(alt.getText(), antwort.getText()) || alt.istRichtig() != antwort.istRichtig()) {
+				aktualisieren.add(antwort);
+			}
+		}
+		// Übrig sind gespeicherte Antworten, die nicht mehr vorkommen
+		List<Long> loeschen = new ArrayList<>(gespeichert.keySet());
+
+		if (loeschen.isEmpty() && aktualisieren.isEmpty() && einfuegen.isEmpty()) {
+			return false;
+		}
+
+		if (!loeschen.isEmpty()) {
+			try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM Antworten WHERE id = ?")) {
+				for (long id : loeschen) {
+					stmt.setLong(1, id);
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+		}
+
+		if (!aktualisieren.isEmpty()) {
+			String sql = "UPDATE Antworten SET antwort_text = ?, ist_richtig = ? WHERE id = ?";
+			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+				for (AntwortDTO antwort : aktualisieren) {
+					stmt.setString(1, antwort.getText());
+					stmt.setBoolean(2, antwort.istRichtig());
+					stmt.setLong(3, antwort.getId());
+					stmt.addBatch();
+				}
+				stmt.executeBatch();
+			}
+		}
+
+		if (!einfuegen.isEmpty()) {
+			fuegeEin(connection, frageId, einfuegen, hoechsteId);
+		}
+
+		return true;
+	}
+
+	private static Map<Long, AntwortDTO> ladeGespeicherte(Connection connection, long frageId) throws SQLException {
+		Map<Long, AntwortDTO> gespeichert = new LinkedHashMap<>();
+		String sql = "SELECT id, antwort_text, ist_richtig FROM Antworten WHERE frage_id = ? ORDER BY id";
+
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setLong(1, frageId);
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					long id = rs.getLong("id");
+					gespeichert.put(id, new AntwortDTO(id, rs.getString("antwort_text"), rs.getBoolean("ist_richtig")));
+				}
+			}
+		}
+
+		return gespeichert;
+	}
+
+	/**
+	 * Fügt neue Antworten als Batch ein und liest ihre IDs in Einfügereihenfolge
+	 * nach, da nicht jeder Treiber generierte Schlüssel für Batches liefert. Neue
+	 * IDs sind größer als alle bisherigen IDs der Frage.
+	 */
+	private static void fuegeEin(Connection connection, long frageId, List<AntwortDTO> einfuegen, long hoechsteId)
+			throws SQLException {
+		String sql = "INSERT INTO Antworten(antwort_text, ist_richtig, frage_id) VALUES(?, ?, ?)";
+
+		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			for (AntwortDTO antwort : einfuegen) {
+				stmt.setString(1, antwort.getText());
+				stmt.setBoolean(2, antwort.istRichtig());
+				stmt.setLong(3, frageId);
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+
+		String idSql = "SELECT id FROM Antworten WHERE frage_id = ? AND id > ? ORDER BY id";
+
+		try (PreparedStatement stmt = connection.prepareStatement(idSql)) {
+			stmt.setLong(1, frageId);
+			stmt.setLong(2, hoechsteId);
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				for (int i = 0; i < einfuegen.size() && rs.next(); i++) {
+					einfuegen.get(i).setId(rs.getLong(1));
+				}
+			}
+		}
+	}
+}
@@ -4,9 +4,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import data.dto.AntwortDTO;
@@ -14,35 +19,69 @@ import data.dto.FrageDTO;
 import data.dto.QuizErgebnisDTO;
 import data.dto.StatistikDTO;
 import data.dto.ThemaDTO;
+import config.ConnectionPool;
 import data.repository.QuizRepository;
 import exception.PersistenceException;
 
 /**
  * Repository-Implementierung für JDBC-Datenquellen (SQLite, MariaDB).
+ *
+ * <p>Jede Operation leiht sich eine Verbindung aus dem {@link ConnectionPool} und
+ * gibt sie am Ende zurück. Hilfsmethoden, die innerhalb einer Operation laufen,
+ * erhalten die bereits ausgeliehene Verbindung, damit eine Operation nie zwei
+ * Verbindungen gleichzeitig belegt.</p>
  */
-public class JDBCRepository implements QuizRepository {
+public class JDBCRepository implements QuizRepository, AutoCloseable {
 
-	private final Connection connection;
+	// Summen je Gruppe für Statistiken; e ist der Alias von QuizErgebnisse
+	private static final String AGGREGAT_SPALTEN = "COUNT(e.id) AS versuche, "
+			+ "SUM(CASE WHEN e.antwort_richtig = 1 THEN 1 ELSE 0 END) AS richtig, "
+			+ "SUM(e.antwort_zeit_sekunden) AS zeit_summe, SUM(e.punkte) AS punkte_summe, "
+			+ "MAX(e.punkte) AS beste_punkte";
 
-	public JDBCRepository(Connection connection) {
-		this.connection = connection;
+	private static final String ERGEBNIS_SPALTEN = "id, thema_id, frage_id, antwort_richtig, antwort_vorher_gezeigt, "
+			+ "antwort_zeit_sekunden, zeitpunkt, punkte";
+
+	// Zeilen je Batch bei saveQuizErgebnisse
+	private static final int ERGEBNIS_BATCH = 1000;
+
+	private final ConnectionPool pool;
+
+	public JDBCRepository(ConnectionPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Gibt den verwendeten Connection-Pool zurück (z.B. für seine Metriken).
+	 */
+	public ConnectionPool getConnectionPool() {
+		return pool;
+	}
+
+	/**
+	 * Schließt den Connection-Pool und damit alle Verbindungen.
+	 */
+	@Override
+	public void close() {
+		pool.close();
 	}
 
 	// --- Themen-Operationen ---
 	@Override
 	public List<ThemaDTO> findAllThemen() {
 		List<ThemaDTO> themen = new ArrayList<>();
-		String sql = "SELECT id, titel, information FROM Themen ORDER BY titel";
+		// Themen und Fragenanzahl in einer Abfrage statt einer COUNT-Abfrage je Thema
+		String sql = "SELECT t.id, t.titel, t.information, COUNT(f.id) AS anzahl_fragen FROM Themen t "
+				+ "LEFT JOIN Fragen f ON f.thema_id = t.id GROUP BY t.id, t.titel, t.information ORDER BY t.titel";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
 
 			while (rs.next()) {
 				long id = rs.getLong("id");
 				String titel = rs.getString("titel");
 				String information = rs.getString("information");
-
-				// Anzahl Fragen für dieses Thema ermitteln
-				int anzahlFragen = countFragenForThema(id);
+				int anzahlFragen = rs.getInt("anzahl_fragen");
 
 				ThemaDTO thema = new ThemaDTO(id, titel, information, anzahlFragen);
 				themen.add(thema);
@@ -56,16 +95,18 @@ public class JDBCRepository implements QuizRepository {
 
 	@Override
 	public Optional<ThemaDTO> findThemaById(long id) {
-		String sql = "SELECT id, titel, information FROM Themen WHERE id = ?";
+		String sql = "SELECT t.id, t.titel, t.information, COUNT(f.id) AS anzahl_fragen FROM Themen t "
+				+ "LEFT JOIN Fragen f ON f.thema_id = t.id WHERE t.id = ? GROUP BY t.id, t.titel, t.information";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setLong(1, id);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				if (rs.next()) {
 					String titel = rs.getString("titel");
 					String information = rs.getString("information");
-					int anzahlFragen = countFragenForThema(id);
+					int anzahlFragen = rs.getInt("anzahl_fragen");
 
 					return Optional.of(new ThemaDTO(id, titel, information, anzahlFragen));
 				}
@@ -79,16 +120,18 @@ public class JDBCRepository implements QuizRepository {
 
 	@Override
 	public Optional<ThemaDTO> findThemaByTitel(String titel) {
-		String sql = "SELECT id, titel, information FROM Themen WHERE titel = ?";
+		String sql = "SELECT t.id, t.titel, t.information, COUNT(f.id) AS anzahl_fragen FROM Themen t "
+				+ "LEFT JOIN Fragen f ON f.thema_id = t.id WHERE t.titel = ? GROUP BY t.id, t.titel, t.information";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setString(1, titel);
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				if (rs.next()) {
 					long id = rs.getLong("id");
 					String information = rs.getString("information");
-					int anzahlFragen = countFragenForThema(id);
+					int anzahlFragen = rs.getInt("anzahl_fragen");
 
 					return Optional.of(new ThemaDTO(id, titel, information, anzahlFragen));
 				}
@@ -106,7 +149,8 @@ public class JDBCRepository implements QuizRepository {
 			// Neues Thema einfügen
 			String sql = "INSERT INTO Themen(titel, information) VALUES(?, ?)";
 
-			try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			try (Connection connection = pool.getConnection();
+					PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 				stmt.setString(1, thema.getTitel());
 				stmt.setString(2, thema.getInformation());
 				stmt.executeUpdate();
@@ -123,7 +167,8 @@ public class JDBCRepository implements QuizRepository {
 			// Bestehendes Thema aktualisieren
 			String sql = "UPDATE Themen SET titel = ?, information = ? WHERE id = ?";
 
-			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+			try (Connection connection = pool.getConnection();
+					PreparedStatement stmt = connection.prepareStatement(sql)) {
 				stmt.setString(1, thema.getTitel());
 				stmt.setString(2, thema.getInformation());
 				stmt.setLong(3, thema.getId());
@@ -143,7 +188,8 @@ public class JDBCRepository implements QuizRepository {
 	public void deleteThema(long id) {
 		String sql = "DELETE FROM Themen WHERE id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setLong(1, id);
 			stmt.executeUpdate();
 		} catch (SQLException e) {
@@ -155,7 +201,8 @@ public class JDBCRepository implements QuizRepository {
 	public boolean existsThemaWithTitel(String titel) {
 		String sql = "SELECT COUNT(*) FROM Themen WHERE titel = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setString(1, titel);
 
 			try (ResultSet rs = stmt.executeQuery()) {
@@ -174,30 +221,73 @@ public class JDBCRepository implements QuizRepository {
 	@Override
 	public List<FrageDTO> findFragenByThemaId(long themaId) {
 		List<FrageDTO> fragen = new ArrayList<>();
+		Map<Long, FrageDTO> fragenNachId = new HashMap<>();
 		String sql = "SELECT id, frage_titel, frage_text FROM Fragen WHERE thema_id = ? ORDER BY frage_titel";
+		// Antworten aller Fragen des Themas in einer Abfrage statt einer je Frage
+		String antwortenSql = "SELECT a.id, a.antwort_text, a.ist_richtig, a.frage_id FROM Antworten a "
+				+ "JOIN Fragen f ON f.id = a.frage_id WHERE f.thema_id = ? ORDER BY a.id";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setLong(1, themaId);
+		try (Connection connection = pool.getConnection()) {
+			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+				stmt.setLong(1, themaId);
 
-			try (ResultSet rs = stmt.executeQuery()) {
+				try (ResultSet rs = stmt.executeQuery()) {
+					while (rs.next()) {
+						long id = rs.getLong("id");
+						String titel = rs.getString("frage_titel");
+						String text = rs.getString("frage_text");
+
+						FrageDTO frage = new FrageDTO(id, titel, text, "");
+						fragen.add(frage);
+						fragenNachId.put(id, frage);
+					}
+				}
+			}
+
+			if (!fragen.isEmpty()) {
+				try (PreparedStatement stmt = connection.prepareStatement(antwortenSql)) {
+					stmt.setLong(1, themaId);
+					ordneAntwortenZu(stmt, fragenNachId);
+				}
+			}
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Laden der Fragen für Thema " + themaId, e);
+		}
+
+		return fragen;
+	}
+
+	@Override
+	public Map<Long, List<FrageDTO>> findFragenFuerAlleThemen() {
+		Map<Long, List<FrageDTO>> fragenNachThema = new HashMap<>();
+		Map<Long, FrageDTO> fragenNachId = new HashMap<>();
+		String sql = "SELECT id, frage_titel, frage_text, thema_id FROM Fragen ORDER BY thema_id, frage_titel";
+		String antwortenSql = "SELECT id, antwort_text, ist_richtig, frage_id FROM Antworten ORDER BY id";
+
+		try (Connection connection = pool.getConnection()) {
+			try (PreparedStatement stmt = connection.prepareStatement(sql); ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
 					long id = rs.getLong("id");
 					String titel = rs.getString("frage_titel");
 					String text = rs.getString("frage_text");
-
-					// Antworten für diese Frage laden
-					List<AntwortDTO> antworten = findAntwortenByFrageId(id);
+					long themaId = rs.getLong("thema_id");
 
 					FrageDTO frage = new FrageDTO(id, titel, text, "");
-					frage.setAntworten(antworten);
-					fragen.add(frage);
+					fragenNachThema.computeIfAbsent(themaId, k -> new ArrayList<>()).add(frage);
+					fragenNachId.put(id, frage);
+				}
+			}
+
+			if (!fragenNachId.isEmpty()) {
+				try (PreparedStatement stmt = connection.prepareStatement(antwortenSql)) {
+					ordneAntwortenZu(stmt, fragenNachId);
 				}
 			}
 		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Laden der Fragen für Thema " + themaId, e);
+			throw new PersistenceException("Fehler beim Laden der Fragen aller Themen", e);
 		}
 
-		return fragen;
+		return fragenNachThema;
 	}
 
 	@Override
@@ -213,7 +303,8 @@ public class JDBCRepository implements QuizRepository {
 	public Optional<FrageDTO> findFrageById(long id) {
 		String sql = "SELECT id, frage_titel, frage_text, thema_id FROM Fragen WHERE id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setLong(1, id);
 
 			try (ResultSet rs = stmt.executeQuery()) {
@@ -223,7 +314,7 @@ public class JDBCRepository implements QuizRepository {
 					long themaId = rs.getLong("thema_id");
 
 					// Antworten für diese Frage laden
-					List<AntwortDTO> antworten = findAntwortenByFrageId(id);
+					List<AntwortDTO> antworten = findAntwortenByFrageId(connection, id);
 
 					FrageDTO frage = new FrageDTO(id, titel, text, "");
 					frage.setAntworten(antworten);
@@ -242,7 +333,8 @@ public class JDBCRepository implements QuizRepository {
 	public Optional<FrageDTO> findFrageByTitel(String titel, long themaId) {
 		String sql = "SELECT id, frage_titel, frage_text FROM Fragen WHERE frage_titel = ? AND thema_id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setString(1, titel);
 			stmt.setLong(2, themaId);
 
@@ -252,7 +344,7 @@ public class JDBCRepository implements QuizRepository {
 					String text = rs.getString("frage_text");
 
 					// Antworten für diese Frage laden
-					List<AntwortDTO> antworten = findAntwortenByFrageId(id);
+					List<AntwortDTO> antworten = findAntwortenByFrageId(connection, id);
 
 					FrageDTO frage = new FrageDTO(id, titel, text, "");
 					frage.setAntworten(antworten);
@@ -269,41 +361,59 @@ public class JDBCRepository implements QuizRepository {
 
 	@Override
 	public FrageDTO saveFrage(FrageDTO frage, long themaId) {
-		if (frage.getId() <= 0) {
-			// Neue Frage einfügen
-			String sql = "INSERT INTO Fragen(frage_titel, frage_text, thema_id) VALUES(?, ?, ?)";
-
-			try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-				stmt.setString(1, frage.getTitel());
-				stmt.setString(2, frage.getText());
-				stmt.setLong(3, themaId);
-				stmt.executeUpdate();
-
-				try (ResultSet rs = stmt.getGeneratedKeys()) {
-					if (rs.next()) {
-						frage.setId(rs.getLong(1));
+		boolean neu = frage.getId() <= 0;
+
+		try (Connection connection = pool.getConnection()) {
+			// Frage und Antworten in einer Transaktion speichern
+			connection.setAutoCommit(false);
+			Exception fehler = null;
+			try {
+				if (neu) {
+					// Neue Frage einfügen
+					String sql = "INSERT INTO Fragen(frage_titel, frage_text, thema_id) VALUES(?, ?, ?)";
+
+					try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+						stmt.setString(1, frage.getTitel());
+						stmt.setString(2, frage.getText());
+						stmt.setLong(3, themaId);
+						stmt.executeUpdate();
+
+						try (ResultSet rs = stmt.getGeneratedKeys()) {
+							if (rs.next()) {
+								frage.setId(rs.getLong(1));
+							}
+						}
+					}
+				} else {
+					// Bestehende Frage aktualisieren
+					String sql = "UPDATE Fragen SET frage_titel = ?, frage_text = ? WHERE id = ?";
+
+					try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+						stmt.setString(1, frage.getTitel());
+						stmt.setString(2, frage.getText());
+						stmt.setLong(3, frage.getId());
+						stmt.executeUpdate();
 					}
 				}
-			} catch (SQLException e) {
-				throw new PersistenceException("Fehler beim Speichern der neuen Frage", e);
-			}
-		} else {
-			// Bestehende Frage aktualisieren
-			String sql = "UPDATE Fragen SET frage_titel = ?, frage_text = ? WHERE id = ?";
 
-			try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-				stmt.setString(1, frage.getTitel());
-				stmt.setString(2, frage.getText());
-				stmt.setLong(3, frage.getId());
-				stmt.executeUpdate();
-			} catch (SQLException e) {
-				throw new PersistenceException("Fehler beim Aktualisieren der Frage", e);
+				// Antworten speichern
+				saveAntworten(connection, frage);
+				connection.commit();
+			} catch (SQLException | RuntimeException e) {
+				fehler = e;
+				rollback(connection, e);
+				if (neu) {
+					frage.setId(0);
+				}
+				throw e;
+			} finally {
+				stelleAutoCommitWiederHer(connection, fehler);
 			}
+		} catch (SQLException e) {
+			throw new PersistenceException(
+					neu ? "Fehler beim Speichern der neuen Frage" : "Fehler beim Aktualisieren der Frage", e);
 		}
 
-		// Antworten speichern
-		saveAntworten(frage);
-
 		return frage;
 	}
 
@@ -312,7 +422,8 @@ public class JDBCRepository implements QuizRepository {
 		// Zuerst alle Antworten löschen (CASCADE sollte das automatisch machen)
 		String sql = "DELETE FROM Fragen WHERE id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setLong(1, id);
 			stmt.executeUpdate();
 		} catch (SQLException e) {
@@ -324,7 +435,8 @@ public class JDBCRepository implements QuizRepository {
 	public boolean existsFrageWithTitel(String titel, long themaId) {
 		String sql = "SELECT COUNT(*) FROM Fragen WHERE frage_titel = ? AND thema_id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setString(1, titel);
 			stmt.setLong(2, themaId);
 
@@ -343,6 +455,37 @@ public class JDBCRepository implements QuizRepository {
 	// --- Antworten-Operationen ---
 	@Override
 	public List<AntwortDTO> findAntwortenByFrageId(long frageId) {
+		try (Connection connection = pool.getConnection()) {
+			return findAntwortenByFrageId(connection, frageId);
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Laden der Antworten für Frage " + frageId, e);
+		}
+	}
+
+	@Override
+	public AntwortDTO saveAntwort(AntwortDTO antwort, long frageId) {
+		try (Connection connection = pool.getConnection()) {
+			return saveAntwort(connection, antwort, frageId);
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Speichern der Antwort", e);
+		}
+	}
+
+	@Override
+	public void deleteAntwort(long id) {
+		String sql = "DELETE FROM Antworten WHERE id = ?";
+
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setLong(1, id);
+			stmt.executeUpdate();
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Löschen der Antwort mit ID " + id, e);
+		}
+	}
+
+	// --- Private Hilfsmethoden ---
+	private List<AntwortDTO> findAntwortenByFrageId(Connection connection, long frageId) throws SQLException {
 		List<AntwortDTO> antworten = new ArrayList<>();
 		String sql = "SELECT id, antwort_text, ist_richtig FROM Antworten WHERE frage_id = ? ORDER BY id";
 
@@ -358,15 +501,28 @@ public class JDBCRepository implements QuizRepository {
 					antworten.add(new AntwortDTO(id, text, istRichtig));
 				}
 			}
-		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Laden der Antworten für Frage " + frageId, e);
 		}
 
 		return antworten;
 	}
 
-	@Override
-	public AntwortDTO saveAntwort(AntwortDTO antwort, long frageId) {
+	/**
+	 * Führt eine Antworten-Abfrage aus und hängt jede Antwort an ihre Frage an.
+	 * Die Abfrage muss id, antwort_text, ist_richtig und frage_id liefern.
+	 */
+	private void ordneAntwortenZu(PreparedStatement stmt, Map<Long, FrageDTO> fragenNachId) throws SQLException {
+		try (ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				FrageDTO frage = fragenNachId.get(rs.getLong("frage_id"));
+				if (frage != null) {
+					frage.addAntwort(new AntwortDTO(rs.getLong("id"), rs.getString("antwort_text"),
+							rs.getBoolean("ist_richtig")));
+				}
+			}
+		}
+	}
+
+	private AntwortDTO saveAntwort(Connection connection, AntwortDTO antwort, long frageId) {
 		if (antwort.getId() <= 0) {
 			// Neue Antwort einfügen
 			String sql = "INSERT INTO Antworten(antwort_text, ist_richtig, frage_id) VALUES(?, ?, ?)";
@@ -402,23 +558,11 @@ public class JDBCRepository implements QuizRepository {
 		return antwort;
 	}
 
-	@Override
-	public void deleteAntwort(long id) {
-		String sql = "DELETE FROM Antworten WHERE id = ?";
-
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setLong(1, id);
-			stmt.executeUpdate();
-		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Löschen der Antwort mit ID " + id, e);
-		}
-	}
-
-	// --- Private Hilfsmethoden ---
 	private int countFragenForThema(long themaId) {
 		String sql = "SELECT COUNT(*) FROM Fragen WHERE thema_id = ?";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
 			stmt.setLong(1, themaId);
 
 			try (ResultSet rs = stmt.executeQuery()) {
@@ -434,21 +578,12 @@ public class JDBCRepository implements QuizRepository {
 		return 0;
 	}
 
-	private void saveAntworten(FrageDTO frage) {
-		// Zuerst alle bestehenden Antworten löschen
-		String deleteSql = "DELETE FROM Antworten WHERE frage_id = ?";
-
-		try (PreparedStatement stmt = connection.prepareStatement(deleteSql)) {
-			stmt.setLong(1, frage.getId());
-			stmt.executeUpdate();
-		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Löschen der bestehenden Antworten", e);
-		}
-
-		// Dann alle neuen Antworten einfügen
-		for (AntwortDTO antwort : frage.getAntworten()) {
-			saveAntwort(antwort, frage.getId());
-		}
+	/**
+	 * Gleicht die Antworten einer Frage innerhalb der laufenden Transaktion ab;
+	 * nur geänderte, neue und entfernte Antworten werden geschrieben.
+	 */
+	private void saveAntworten(Connection connection, FrageDTO frage) throws SQLException {
+		AntwortAbgleich.gleicheAb(connection, frage.getId(), frage.getAntworten());
 	}
 
 	// --- Quiz-Statistik-Operationen ---
@@ -456,7 +591,8 @@ public class JDBCRepository implements QuizRepository {
 	public void saveQuizErgebnis(QuizErgebnisDTO ergebnis) {
 		String sql = "INSERT INTO QuizErgebnisse(thema_id, frage_id, antwort_richtig, antwort_vorher_gezeigt, antwort_zeit_sekunden, zeitpunkt, punkte) VALUES(?, ?, ?, ?, ?, ?, ?)";
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 			stmt.setLong(1, ergebnis.getThemaId());
 			stmt.setLong(2, ergebnis.getFrageId());
 			stmt.setBoolean(3, ergebnis.isAntwortRichtig());
@@ -477,41 +613,159 @@ public class JDBCRepository implements QuizRepository {
 	}
 
 	@Override
-	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId) {
-		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>();
-		String sql = "SELECT id, thema_id, frage_id, antwort_richtig, antwort_vorher_gezeigt, antwort_zeit_sekunden, zeitpunkt, punkte FROM QuizErgebnisse WHERE thema_id = ? ORDER BY zeitpunkt DESC";
-
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setLong(1, themaId);
+	public void saveQuizErgebnisse(Collection<QuizErgebnisDTO> ergebnisse) {
+		if (ergebnisse.isEmpty()) {
+			return;
+		}
+		String sql = "INSERT INTO QuizErgebnisse(thema_id, frage_id, antwort_richtig, antwort_vorher_gezeigt, antwort_zeit_sekunden, zeitpunkt, punkte) VALUES(?, ?, ?, ?, ?, ?, ?)";
 
-			try (ResultSet rs = stmt.executeQuery()) {
-				while (rs.next()) {
-					QuizErgebnisDTO ergebnis = new QuizErgebnisDTO();
-					ergebnis.setId(rs.getLong("id"));
-					ergebnis.setThemaId(rs.getLong("thema_id"));
-					ergebnis.setFrageId(rs.getLong("frage_id"));
-					ergebnis.setAntwortRichtig(rs.getBoolean("antwort_richtig"));
-					ergebnis.setAntwortVorherGezeigt(rs.getBoolean("antwort_vorher_gezeigt"));
-					ergebnis.setAntwortZeitSekunden(rs.getInt("antwort_zeit_sekunden"));
-					ergebnis.setZeitpunkt(java.time.LocalDateTime.parse(rs.getString("zeitpunkt")));
-					ergebnis.setPunkte(rs.getInt("punkte"));
-					ergebnisse.add(ergebnis);
+		try (Connection connection = pool.getConnection()) {
+			// Alle Blöcke in einer Transaktion
+			connection.setAutoCommit(false);
+			Exception fehler = null;
+			try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+				List<QuizErgebnisDTO> block = new ArrayList<>(ERGEBNIS_BATCH);
+				for (QuizErgebnisDTO ergebnis : ergebnisse) {
+					stmt.setLong(1, ergebnis.getThemaId());
+					stmt.setLong(2, ergebnis.getFrageId());
+					stmt.setBoolean(3, ergebnis.isAntwortRichtig());
+					stmt.setBoolean(4, ergebnis.isAntwortVorherGezeigt());
+					stmt.setInt(5, ergebnis.getAntwortZeitSekunden());
+					stmt.setString(6, ergebnis.getZeitpunkt().toString());
+					stmt.setInt(7, ergebnis.getPunkte());
+					stmt.addBatch();
+					block.add(ergebnis);
+					if (block.size() == ERGEBNIS_BATCH) {
+						sendeBatch(stmt, block);
+					}
 				}
+				if (!block.isEmpty()) {
+					sendeBatch(stmt, block);
+				}
+				connection.commit();
+			} catch (SQLException | RuntimeException e) {
+				fehler = e;
+				rollback(connection, e);
+				throw e;
+			} finally {
+				stelleAutoCommitWiederHer(connection, fehler);
 			}
 		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Laden der Quiz-Ergebnisse für Thema " + themaId, e);
+			throw new PersistenceException("Fehler beim Speichern von " + ergebnisse.size() + " Quiz-Ergebnissen", e);
 		}
+	}
 
-		return ergebnisse;
+	/**
+	 * Macht eine fehlgeschlagene Transaktion rückgängig. Scheitert auch das, bleibt der
+	 * ursprüngliche Fehler der gemeldete und der neue wird angehängt.
+	 */
+	private static void rollback(Connection connection, Exception fehler) {
+		try {
+			connection.rollback();
+		} catch (SQLException e) {
+			fehler.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Schaltet Auto-Commit wieder ein, bevor die Verbindung in den Pool zurückgeht.
+	 * Ein Fehler dabei verdeckt nicht den Fehler der Transaktion, sondern wird an
+	 * diesen angehängt.
+	 *
+	 * @param fehler Fehler der Transaktion oder {@code null}
+	 * @throws SQLException wenn Auto-Commit nach erfolgreicher Transaktion nicht eingeschaltet werden kann
+	 */
+	private static void stelleAutoCommitWiederHer(Connection connection, Exception fehler) throws SQLException {
+		try {
+			connection.setAutoCommit(true);
+		} catch (SQLException e) {
+			if (fehler == null) {
+				throw e;
+			}
+			fehler.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Sendet einen Batch und übernimmt die generierten IDs, wenn der Treiber für
+	 * jede Zeile einen Schlüssel liefert.
+	 */
+	private void sendeBatch(PreparedStatement stmt, List<QuizErgebnisDTO> block) throws SQLException {
+		stmt.executeBatch();
+		List<Long> ids = new ArrayList<>(block.size());
+		try (ResultSet rs = stmt.getGeneratedKeys()) {
+			while (rs.next()) {
+				ids.add(rs.getLong(1));
+			}
+		} catch (SQLFeatureNotSupportedException e) {
+			// IDs bleiben ungesetzt
+		}
+		if (ids.size() == block.size()) {
+			for (int i = 0; i < ids.size(); i++) {
+				block.get(i).setId(ids.get(i));
+			}
+		}
+		block.clear();
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId) {
+		return findeErgebnisse("thema_id", themaId, null, 0, 0, "Thema " + themaId);
 	}
 
 	@Override
 	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId) {
-		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>();
-		String sql = "SELECT id, thema_id, frage_id, antwort_richtig, antwort_vorher_gezeigt, antwort_zeit_sekunden, zeitpunkt, punkte FROM QuizErgebnisse WHERE frage_id = ? ORDER BY zeitpunkt DESC";
+		return findeErgebnisse("frage_id", frageId, null, 0, 0, "Frage " + frageId);
+	}
 
-		try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-			stmt.setLong(1, frageId);
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return findeErgebnisse("thema_id", themaId, vorZeitpunkt, vorId, Math.max(0, limit), "Thema " + themaId);
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return findeErgebnisse("frage_id", frageId, vorZeitpunkt, vorId, Math.max(0, limit), "Frage " + frageId);
+	}
+
+	/**
+	 * Lädt Ergebnisse absteigend nach Zeitpunkt und ID, optional ab einem Cursor und begrenzt.
+	 * 
+	 * <p>Der Cursor wird als Keyset-Bedingung formuliert ({@code zeitpunkt <= ?} als
+	 * Bereichsgrenze, dazu {@code zeitpunkt < ? OR id < ?}), sodass die Datenbank über
+	 * die Indizes idx_ergebnisse_frage_zeit bzw. idx_ergebnisse_thema_zeit direkt an
+	 * den Cursor springt, statt die vorherigen Seiten zu überspringen.</p>
+	 * 
+	 * @param spalte thema_id oder frage_id
+	 * @param limit Maximale Anzahl oder 0 für alle Ergebnisse
+	 */
+	private List<QuizErgebnisDTO> findeErgebnisse(String spalte, long id, LocalDateTime vorZeitpunkt, long vorId,
+			int limit, String beschreibung) {
+		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>();
+		boolean mitCursor = vorId > 0;
+		if (mitCursor && vorZeitpunkt == null) {
+			// zeitpunkt ist NOT NULL, nach einem Ergebnis ohne Zeitpunkt folgt nichts mehr
+			return ergebnisse;
+		}
+		String sql = "SELECT " + ERGEBNIS_SPALTEN + " FROM QuizErgebnisse WHERE " + spalte + " = ?"
+				+ (mitCursor ? " AND zeitpunkt <= ? AND (zeitpunkt < ? OR id < ?)" : "")
+				+ " ORDER BY zeitpunkt DESC, id DESC" + (limit > 0 ? " LIMIT ?" : "");
+
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			int parameter = 1;
+			stmt.setLong(parameter++, id);
+			if (mitCursor) {
+				String zeitpunkt = vorZeitpunkt.toString();
+				stmt.setString(parameter++, zeitpunkt);
+				stmt.setString(parameter++, zeitpunkt);
+				stmt.setLong(parameter++, vorId);
+			}
+			if (limit > 0) {
+				stmt.setInt(parameter, limit);
+			}
 
 			try (ResultSet rs = stmt.executeQuery()) {
 				while (rs.next()) {
@@ -522,13 +776,14 @@ public class JDBCRepository implements QuizRepository {
 					ergebnis.setAntwortRichtig(rs.getBoolean("antwort_richtig"));
 					ergebnis.setAntwortVorherGezeigt(rs.getBoolean("antwort_vorher_gezeigt"));
 					ergebnis.setAntwortZeitSekunden(rs.getInt("antwort_zeit_sekunden"));
-					ergebnis.setZeitpunkt(java.time.LocalDateTime.parse(rs.getString("zeitpunkt")));
+					// MariaDB liefert DATETIME mit Leerzeichen statt 'T'
+					ergebnis.setZeitpunkt(LocalDateTime.parse(rs.getString("zeitpunkt").replace(' ', 'T')));
 					ergebnis.setPunkte(rs.getInt("punkte"));
 					ergebnisse.add(ergebnis);
 				}
 			}
 		} catch (SQLException e) {
-			throw new PersistenceException("Fehler beim Laden der Quiz-Ergebnisse für Frage " + frageId, e);
+			throw new PersistenceException("Fehler beim Laden der Quiz-Ergebnisse für " + beschreibung, e);
 		}
 
 		return ergebnisse;
@@ -537,22 +792,23 @@ public class JDBCRepository implements QuizRepository {
 	@Override
 	public List<StatistikDTO> findStatistikenByThemaId(long themaId) {
 		List<StatistikDTO> statistiken = new ArrayList<>();
+		// Eine Zeile je Frage, summiert in der Datenbank
+		String sql = "SELECT f.id, f.frage_titel, " + AGGREGAT_SPALTEN + " FROM Fragen f "
+				+ "LEFT JOIN QuizErgebnisse e ON e.frage_id = f.id WHERE f.thema_id = ? "
+				+ "GROUP BY f.id, f.frage_titel ORDER BY f.frage_titel";
 
-		// Alle Fragen des Themas laden
-		List<FrageDTO> fragen = findFragenByThemaId(themaId);
-
-		for (FrageDTO frage : fragen) {
-			StatistikDTO statistik = new StatistikDTO(themaId, "", frage.getId(), frage.getTitel());
-
-			// Quiz-Ergebnisse für diese Frage laden
-			List<QuizErgebnisDTO> ergebnisse = findQuizErgebnisseByFrageId(frage.getId());
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			stmt.setLong(1, themaId);
 
-			for (QuizErgebnisDTO ergebnis : ergebnisse) {
-				statistik.addErgebnis(ergebnis.isAntwortRichtig(), ergebnis.getAntwortZeitSekunden(),
-						ergebnis.getPunkte());
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					StatistikDTO statistik = new StatistikDTO(themaId, "", rs.getLong("id"), rs.getString("frage_titel"));
+					statistiken.add(uebertrageAggregat(rs, statistik));
+				}
 			}
-
-			statistiken.add(statistik);
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Laden der Statistiken für Thema " + themaId, e);
 		}
 
 		return statistiken;
@@ -561,15 +817,80 @@ public class JDBCRepository implements QuizRepository {
 	@Override
 	public List<StatistikDTO> findAlleStatistiken() {
 		List<StatistikDTO> alleStatistiken = new ArrayList<>();
+		String sql = "SELECT t.id AS thema_id, f.id, f.frage_titel, " + AGGREGAT_SPALTEN + " FROM Themen t "
+				+ "JOIN Fragen f ON f.thema_id = t.id LEFT JOIN QuizErgebnisse e ON e.frage_id = f.id "
+				+ "GROUP BY t.id, t.titel, f.id, f.frage_titel ORDER BY t.titel, f.frage_titel";
 
-		// Alle Themen laden
-		List<ThemaDTO> themen = findAllThemen();
-
-		for (ThemaDTO thema : themen) {
-			List<StatistikDTO> themaStatistiken = findStatistikenByThemaId(thema.getId());
-			alleStatistiken.addAll(themaStatistiken);
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				StatistikDTO statistik = new StatistikDTO(rs.getLong("thema_id"), "", rs.getLong("id"),
+						rs.getString("frage_titel"));
+				alleStatistiken.add(uebertrageAggregat(rs, statistik));
+			}
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Laden aller Statistiken", e);
 		}
 
 		return alleStatistiken;
 	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByThemaId(long themaId) {
+		String sql = "SELECT " + AGGREGAT_SPALTEN + " FROM QuizErgebnisse e WHERE e.thema_id = ?";
+		return aggregiere(sql, themaId, new StatistikDTO(themaId, "", 0, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByFrageId(long frageId) {
+		String sql = "SELECT " + AGGREGAT_SPALTEN + " FROM QuizErgebnisse e WHERE e.frage_id = ?";
+		return aggregiere(sql, frageId, new StatistikDTO(0, "", frageId, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereAlleErgebnisse() {
+		// Nur Ergebnisse vorhandener Fragen, wie bei findAlleStatistiken()
+		String sql = "SELECT " + AGGREGAT_SPALTEN + " FROM QuizErgebnisse e JOIN Fragen f ON f.id = e.frage_id";
+		return aggregiere(sql, null, new StatistikDTO(0, "", 0, ""));
+	}
+
+	private StatistikDTO aggregiere(String sql, Long id, StatistikDTO statistik) {
+		try (Connection connection = pool.getConnection();
+				PreparedStatement stmt = connection.prepareStatement(sql)) {
+			if (id != null) {
+				stmt.setLong(1, id);
+			}
+
+			try (ResultSet rs = stmt.executeQuery()) {
+				if (rs.next()) {
+					uebertrageAggregat(rs, statistik);
+				}
+			}
+		} catch (SQLException e) {
+			throw new PersistenceException("Fehler beim Aggregieren der Quiz-Ergebnisse", e);
+		}
+
+		return statistik;
+	}
+
+	/**
+	 * Überträgt die Summen aus {@link #AGGREGAT_SPALTEN} auf eine Statistik.
+	 * Durchschnitte werden wie beim lokalen Speicher aus den Summen gebildet.
+	 */
+	private static StatistikDTO uebertrageAggregat(ResultSet rs, StatistikDTO statistik) throws SQLException {
+		int versuche = rs.getInt("versuche");
+		if (versuche == 0) {
+			return statistik;
+		}
+		int richtig = rs.getInt("richtig");
+		statistik.setAnzahlVersuche(versuche);
+		statistik.setAnzahlRichtig(richtig);
+		statistik.setAnzahlFalsch(versuche - richtig);
+		statistik.setDurchschnittlicheAntwortZeit((double) rs.getLong("zeit_summe") / versuche);
+		statistik.setDurchschnittlichePunkte((int) ((double) rs.getLong("punkte_summe") / versuche));
+		statistik.setBestePunkte(rs.getInt("beste_punkte"));
+		statistik.berechneErfolgsRate();
+		return statistik;
+	}
 }
@@ -0,0 +1,415 @@
+package data.persistence;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import data.dto.QuizErgebnisDTO;
+import exception.PersistenceException;
+
+/**
+ * Zeitlich partitionierte Quiz-Ergebnisse des {@link LokalRepository}.
+ *
+ * <p>Ergebnisse werden nach Monat ihres Zeitpunkts in Segmente aufgeteilt, je Segment
+ * eine Datei ({@code <verzeichnis>/JJJJ-MM.bin}). Beim Start wird von jeder Datei nur
+ * die Zusammenfassung am Dateianfang gelesen (ID-Bereich und Summen je Frage und
+ * Thema). Aggregationen kommen damit ohne die einzelnen Ergebnisse aus; ein Segment
+ * wird erst vollständig geladen, wenn eine Abfrage seine Ergebnisse braucht oder ein
+ * Ergebnis darin geändert wird.</p>
+ *
+ * <p>Höchstens {@code maxGeladen} Segmente bleiben geladen. Darüber hinaus werden die
+ * am längsten nicht benutzten, bereits geschriebenen Segmente wieder auf ihre
+ * Zusammenfassung reduziert. Geschrieben werden nur geänderte Segmente.</p>
+ *
+ * <p>Ein Ergebnis bleibt in dem Segment, in dem es zuerst gespeichert wurde. Ergebnisse
+ * ohne Zeitpunkt liegen im Segment {@code 1970-01}. Ergebnis-Seiten gehen davon aus,
+ * dass der Zeitpunkt eines Ergebnisses in seinem Monat liegt.</p>
+ *
+ * <p>Schreibende Aufrufe erfordern den Ergebnis-Schreib-Lock des Repositories, lesende
+ * den Lese-Lock; das Nachladen von Segmenten ist zusätzlich synchronisiert.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalErgebnisSpeicher
+ */
+final class LokalErgebnisSegmente {
+
+	private static final String ENDUNG = ".bin";
+	private static final YearMonth OHNE_ZEITPUNKT = YearMonth.of(1970, 1);
+
+	private final Path verzeichnis;
+	private final int maxGeladen;
+	private final TreeMap<YearMonth, Segment> segmente = new TreeMap<>();
+	// Geladene Segmente in Zugriffsreihenfolge (am längsten unbenutzt zuerst)
+	private final LinkedHashMap<YearMonth, Segment> geladen = new LinkedHashMap<>(16, 0.75f, true);
+	private long hoechsteId;
+
+	/**
+	 * Liest die Zusammenfassungen aller Segmente im Verzeichnis ein.
+	 *
+	 * @param verzeichnis Das Segment-Verzeichnis (wird bei Bedarf angelegt)
+	 * @param maxGeladen Höchstzahl gleichzeitig geladener Segmente
+	 */
+	LokalErgebnisSegmente(Path verzeichnis, int maxGeladen) {
+		this.verzeichnis = verzeichnis;
+		this.maxGeladen = Math.max(1, maxGeladen);
+		try {
+			Files.createDirectories(verzeichnis);
+			try (DirectoryStream<Path> dateien = Files.newDirectoryStream(verzeichnis, "*" + ENDUNG)) {
+				for (Path datei : dateien) {
+					String name = datei.getFileName().toString();
+					YearMonth monat;
+					try {
+						monat = YearMonth.parse(name.substring(0, name.length() - ENDUNG.length()));
+					} catch (DateTimeParseException e) {
+						continue;
+					}
+					Segment segment;
+					try {
+						segment = new Segment(monat, datei, LokalSnapshot.leseErgebnisZusammenfassung(datei));
+					} catch (PersistenceException | BufferUnderflowException e) {
+						System.err.println("LokalErgebnisSegmente: Segment " + datei
+								+ " kann nicht gelesen werden und wird übersprungen");
+						continue;
+					}
+					segmente.put(monat, segment);
+					hoechsteId = Math.max(hoechsteId, segment.maxId);
+				}
+			}
+		} catch (IOException e) {
+			throw new PersistenceException("Ergebnis-Segmente in " + verzeichnis + " können nicht gelesen werden", e);
+		}
+	}
+
+	/**
+	 * Verteilt Ergebnisse aus dem früheren Einzel-Snapshot auf die Monats-Segmente.
+	 *
+	 * @param spalten Die bisherigen Ergebnisse
+	 */
+	void uebernehme(LokalErgebnisSpeicher.Spalten spalten) {
+		for (int zeile = 0; zeile < spalten.anzahl; zeile++) {
+			Segment segment = segmente.computeIfAbsent(monatVon(spalten.zeitpunkte[zeile]), this::neuesSegment);
+			lade(segment).speichere(spalten, zeile);
+			segment.geaendert(spalten.ids[zeile]);
+			hoechsteId = Math.max(hoechsteId, spalten.ids[zeile]);
+		}
+	}
+
+	/**
+	 * Fügt ein Ergebnis hinzu oder überschreibt das Ergebnis mit derselben ID.
+	 *
+	 * @param ergebnis Das Ergebnis (wird nicht referenziert)
+	 */
+	void speichere(QuizErgebnisDTO ergebnis) {
+		long id = ergebnis.getId();
+		Segment segment = id <= hoechsteId ? segmentMitId(id) : null;
+		if (segment == null) {
+			long zeitpunkt = LokalSnapshot.zuEpochMillis(ergebnis.getZeitpunkt());
+			segment = segmente.computeIfAbsent(monatVon(zeitpunkt), this::neuesSegment);
+		}
+		lade(segment).speichere(ergebnis);
+		segment.geaendert(id);
+		hoechsteId = Math.max(hoechsteId, id);
+	}
+
+	/**
+	 * Erzeugt die DTOs aller Ergebnisse einer Frage; lädt nur Segmente, die welche enthalten.
+	 *
+	 * @param frageId Die ID der Frage
+	 * @return Neue Liste in zeitlicher Reihenfolge der Segmente
+	 */
+	List<QuizErgebnisDTO> findeNachFrageId(long frageId) {
+		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>();
+		for (Segment segment : segmente.values()) {
+			LokalErgebnisSpeicher speicher = segment.speicher;
+			if (speicher != null || segment.zusammenfassung.nachFrageId.containsKey(frageId)) {
+				ergebnisse.addAll(lade(segment).findeNachFrageId(frageId));
+			}
+		}
+		return ergebnisse;
+	}
+
+	/**
+	 * Erzeugt die DTOs aller Ergebnisse eines Themas; lädt nur Segmente, die welche enthalten.
+	 *
+	 * @param themaId Die ID des Themas
+	 * @return Neue Liste in zeitlicher Reihenfolge der Segmente
+	 */
+	List<QuizErgebnisDTO> findeNachThemaId(long themaId) {
+		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>();
+		for (Segment segment : segmente.values()) {
+			LokalErgebnisSpeicher speicher = segment.speicher;
+			if (speicher != null || segment.zusammenfassung.nachThemaId.containsKey(themaId)) {
+				ergebnisse.addAll(lade(segment).findeNachThemaId(themaId));
+			}
+		}
+		return ergebnisse;
+	}
+
+	/**
+	 * Erzeugt eine Seite der Ergebnisse einer Frage, absteigend nach Zeitpunkt und ID.
+	 *
+	 * <p>Die Segmente werden vom Monat des Cursors an rückwärts durchlaufen; neuere
+	 * Segmente und Segmente ohne Ergebnisse der Frage werden nicht geladen. Innerhalb
+	 * eines Segments beginnt die Seite per Binärsuche am Cursor.</p>
+	 *
+	 * @param frageId Die ID der Frage
+	 * @param vorZeitpunkt Zeitpunkt des Cursors
+	 * @param vorId ID des Cursors oder {@code <= 0} für die erste Seite
+	 * @param limit Maximale Anzahl Ergebnisse
+	 * @return Neue Liste mit höchstens {@code limit} DTOs
+	 */
+	List<QuizErgebnisDTO> seiteNachFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId, int limit) {
+		return seite(vorZeitpunkt, vorId, limit, zusammenfassung -> zusammenfassung.nachFrageId.containsKey(frageId),
+			(speicher, zeitpunkt, id, seite) -> speicher.seiteNachFrageId(frageId, zeitpunkt, id, limit, seite));
+	}
+
+	/**
+	 * Erzeugt eine Seite der Ergebnisse eines Themas, absteigend nach Zeitpunkt und ID.
+	 *
+	 * @see #seiteNachFrageId(long, LocalDateTime, long, int)
+	 */
+	List<QuizErgebnisDTO> seiteNachThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId, int limit) {
+		return seite(vorZeitpunkt, vorId, limit, zusammenfassung -> zusammenfassung.nachThemaId.containsKey(themaId),
+			(speicher, zeitpunkt, id, seite) -> speicher.seiteNachThemaId(themaId, zeitpunkt, id, limit, seite));
+	}
+
+	private List<QuizErgebnisDTO> seite(LocalDateTime vorZeitpunkt, long vorId, int limit,
+			Predicate<Zusammenfassung> enthaelt, Seitenabfrage abfrage) {
+		List<QuizErgebnisDTO> seite = new ArrayList<>();
+		boolean erste = vorId <= 0;
+		long zeitpunkt = erste ? Long.MAX_VALUE : LokalSnapshot.zuEpochMillis(vorZeitpunkt);
+		long id = erste ? Long.MAX_VALUE : vorId;
+		Map<YearMonth, Segment> kandidaten = erste ? segmente.descendingMap()
+			: segmente.headMap(monatVon(zeitpunkt), true).descendingMap();
+		for (Segment segment : kandidaten.values()) {
+			if (seite.size() >= limit) {
+				break;
+			}
+			if (segment.speicher != null || enthaelt.test(segment.zusammenfassung)) {
+				abfrage.haengeAn(lade(segment), zeitpunkt, id, seite);
+			}
+		}
+		return seite;
+	}
+
+	/**
+	 * Summiert die Ergebnisse einer Frage, ohne Segmente zu laden.
+	 *
+	 * @param frageId Die ID der Frage
+	 * @param aggregat Das fortzuschreibende Aggregat
+	 */
+	void summiereFrage(long frageId, LokalErgebnisSpeicher.Aggregat aggregat) {
+		for (Segment segment : segmente.values()) {
+			LokalErgebnisSpeicher speicher = segment.speicher;
+			if (speicher != null) {
+				speicher.summiereFrage(frageId, aggregat);
+			} else {
+				summiere(segment.zusammenfassung.nachFrageId.get(frageId), aggregat);
+			}
+		}
+	}
+
+	/**
+	 * Summiert die Ergebnisse eines Themas, ohne Segmente zu laden.
+	 *
+	 * @param themaId Die ID des Themas
+	 * @param aggregat Das fortzuschreibende Aggregat
+	 */
+	void summiereThema(long themaId, LokalErgebnisSpeicher.Aggregat aggregat) {
+		for (Segment segment : segmente.values()) {
+			LokalErgebnisSpeicher speicher = segment.speicher;
+			if (speicher != null) {
+				speicher.summiereThema(themaId, aggregat);
+			} else {
+				summiere(segment.zusammenfassung.nachThemaId.get(themaId), aggregat);
+			}
+		}
+	}
+
+	long maxId() {
+		return hoechsteId;
+	}
+
+	boolean istLeer() {
+		return segmente.isEmpty();
+	}
+
+	/**
+	 * Kopiert die geänderten Segmente und gibt eine Aktion zurück, die sie schreibt.
+	 *
+	 * @return Schreibt die Kopien; danach gelten die Segmente als gespeichert
+	 */
+	Runnable schreiber() {
+		List<Runnable> schreiber = new ArrayList<>();
+		for (Segment segment : segmente.values()) {
+			LokalErgebnisSpeicher speicher = segment.speicher;
+			long stand = segment.aenderungen;
+			if (speicher == null || stand == segment.geschrieben.get()) {
+				continue;
+			}
+			LokalErgebnisSpeicher.Spalten kopie = speicher.spalten();
+			schreiber.add(() -> {
+				LokalSnapshot.schreibeErgebnisSegment(segment.datei, kopie);
+				segment.geschrieben.accumulateAndGet(stand, Math::max);
+			});
+		}
+		return () -> schreiber.forEach(Runnable::run);
+	}
+
+	private Segment segmentMitId(long id) {
+		for (Segment segment : segmente.values()) {
+			if (id >= segment.minId && id <= segment.maxId && lade(segment).enthaelt(id)) {
+				return segment;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Liefert den Speicher des Segments und lädt ihn bei Bedarf nach.
+	 */
+	private synchronized LokalErgebnisSpeicher lade(Segment segment) {
+		LokalErgebnisSpeicher speicher = segment.speicher;
+		if (speicher != null) {
+			geladen.get(segment.monat); // Zugriffsreihenfolge aktualisieren
+			return speicher;
+		}
+		speicher = new LokalErgebnisSpeicher(LokalSnapshot.leseErgebnisSegment(segment.datei));
+		segment.speicher = speicher;
+		geladen.put(segment.monat, segment);
+		raeumeAuf(segment);
+		return speicher;
+	}
+
+	/**
+	 * Reduziert überzählige, bereits geschriebene Segmente auf ihre Zusammenfassung.
+	 */
+	private void raeumeAuf(Segment behalten) {
+		Iterator<Segment> iterator = geladen.values().iterator();
+		while (geladen.size() > maxGeladen && iterator.hasNext()) {
+			Segment segment = iterator.next();
+			if (segment == behalten || segment.aenderungen != segment.geschrieben.get()) {
+				continue;
+			}
+			segment.zusammenfassung = Zusammenfassung.aus(segment.speicher.spalten());
+			segment.speicher = null;
+			iterator.remove();
+		}
+	}
+
+	private synchronized Segment neuesSegment(YearMonth monat) {
+		Segment segment = new Segment(monat, verzeichnis.resolve(monat + ENDUNG), Zusammenfassung.LEER);
+		segment.speicher = new LokalErgebnisSpeicher();
+		geladen.put(monat, segment);
+		raeumeAuf(segment);
+		return segment;
+	}
+
+	private static YearMonth monatVon(long epochMillis) {
+		LocalDateTime zeitpunkt = LokalSnapshot.zuZeitpunkt(epochMillis);
+		return zeitpunkt == null ? OHNE_ZEITPUNKT : YearMonth.from(zeitpunkt);
+	}
+
+	private static void summiere(LokalErgebnisSpeicher.Aggregat teil, LokalErgebnisSpeicher.Aggregat aggregat) {
+		if (teil != null) {
+			aggregat.addiere(teil);
+		}
+	}
+
+	/**
+	 * Hängt die Ergebnisse eines Segments vor dem Cursor (Epoch-ms und ID) an die Seite an.
+	 */
+	@FunctionalInterface
+	private interface Seitenabfrage {
+		void haengeAn(LokalErgebnisSpeicher speicher, long vorZeitpunkt, long vorId, List<QuizErgebnisDTO> seite);
+	}
+
+	/**
+	 * Ein Monats-Segment; {@code speicher} ist {@code null}, solange nur die
+	 * Zusammenfassung geladen ist.
+	 */
+	private static final class Segment {
+		final YearMonth monat;
+		final Path datei;
+		volatile LokalErgebnisSpeicher speicher;
+		volatile Zusammenfassung zusammenfassung;
+		long minId;
+		long maxId;
+		// Änderungszähler und zuletzt geschriebener Stand
+		long aenderungen;
+		final AtomicLong geschrieben = new AtomicLong();
+
+		Segment(YearMonth monat, Path datei, Zusammenfassung zusammenfassung) {
+			this.monat = monat;
+			this.datei = datei;
+			this.zusammenfassung = zusammenfassung;
+			this.minId = zusammenfassung.minId;
+			this.maxId = zusammenfassung.maxId;
+		}
+
+		void geaendert(long id) {
+			minId = Math.min(minId, id);
+			maxId = Math.max(maxId, id);
+			aenderungen++;
+		}
+	}
+
+	/**
+	 * Kopf eines Segments: ID-Bereich und Summen je Frage und Thema.
+	 */
+	static final class Zusammenfassung {
+		static final Zusammenfassung LEER = new Zusammenfassung(Long.MAX_VALUE, 0, Map.of(), Map.of());
+
+		final long minId;
+		final long maxId;
+		final Map<Long, LokalErgebnisSpeicher.Aggregat> nachFrageId;
+		final Map<Long, LokalErgebnisSpeicher.Aggregat> nachThemaId;
+
+		Zusammenfassung(long minId, long maxId, Map<Long, LokalErgebnisSpeicher.Aggregat> nachFrageId,
+				Map<Long, LokalErgebnisSpeicher.Aggregat> nachThemaId) {
+			this.minId = minId;
+			this.maxId = maxId;
+			this.nachFrageId = nachFrageId;
+			this.nachThemaId = nachThemaId;
+		}
+
+		/**
+		 * Bildet die Zusammenfassung der übergebenen Spalten.
+		 *
+		 * @param spalten Die Ergebnisse eines Segments
+		 * @return Die Zusammenfassung
+		 */
+		static Zusammenfassung aus(LokalErgebnisSpeicher.Spalten spalten) {
+			long minId = Long.MAX_VALUE;
+			long maxId = 0;
+			Map<Long, LokalErgebnisSpeicher.Aggregat> nachFrageId = new HashMap<>();
+			Map<Long, LokalErgebnisSpeicher.Aggregat> nachThemaId = new HashMap<>();
+			for (int zeile = 0; zeile < spalten.anzahl; zeile++) {
+				minId = Math.min(minId, spalten.ids[zeile]);
+				maxId = Math.max(maxId, spalten.ids[zeile]);
+				boolean richtig = spalten.richtig.get(zeile);
+				nachFrageId.computeIfAbsent(spalten.frageIds[zeile], k -> new LokalErgebnisSpeicher.Aggregat())
+					.addiere(richtig, spalten.antwortZeiten[zeile], spalten.punkte[zeile]);
+				nachThemaId.computeIfAbsent(spalten.themaIds[zeile], k -> new LokalErgebnisSpeicher.Aggregat())
+					.addiere(richtig, spalten.antwortZeiten[zeile], spalten.punkte[zeile]);
+			}
+			return new Zusammenfassung(minId, maxId, nachFrageId, nachThemaId);
+		}
+	}
+}
@@ -0,0 +1,583 @@
+package data.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import data.dto.QuizErgebnisDTO;
+import data.dto.StatistikDTO;
+
+/**
+ * Spaltenorientierter Speicher für Quiz-Ergebnisse des {@link LokalRepository}.
+ *
+ * <p>Statt eines {@link QuizErgebnisDTO} pro Ergebnis werden die Felder in wachsenden
+ * primitiven Spalten gehalten ({@code long[]} für IDs und Zeitpunkte in Epoch-ms,
+ * {@code int[]} für Antwortzeit und Punkte, je ein {@link BitSet} für
+ * richtig/gezeigt). DTOs werden nur bei Abfragen erzeugt; Aggregationen laufen
+ * direkt über die Spalten. Die Zeilen je Frage und Thema werden nach Zeitpunkt und
+ * ID sortiert gehalten, sodass Ergebnis-Seiten per Binärsuche am Cursor beginnen.</p>
+ *
+ * <p>Nicht thread-sicher, der Zugriff wird über den Ergebnis-Lock des Repositories
+ * geschützt.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalErgebnisSegmente
+ */
+final class LokalErgebnisSpeicher {
+
+	private static final int START_KAPAZITAET = 64;
+
+	private int anzahl;
+	private long[] ids;
+	private long[] themaIds;
+	private long[] frageIds;
+	private long[] zeitpunkte;
+	private int[] antwortZeiten;
+	private int[] punkte;
+	private final BitSet richtig;
+	private final BitSet gezeigt;
+
+	// Indizes: Ergebnis-ID -> Zeile, Frage/Thema -> Zeilen in Einfügereihenfolge
+	private final IdIndex zeileNachId;
+	private final Map<Long, Zeilen> zeilenNachFrageId = new HashMap<>();
+	private final Map<Long, Zeilen> zeilenNachThemaId = new HashMap<>();
+
+	/**
+	 * Erstellt einen leeren Speicher.
+	 */
+	LokalErgebnisSpeicher() {
+		this(new Spalten(0, new long[0], new long[0], new long[0], new long[0], new int[0], new int[0],
+				new BitSet(), new BitSet()));
+	}
+
+	/**
+	 * Übernimmt eingelesene Spalten und baut die Indizes auf.
+	 *
+	 * @param spalten Die Spalten (werden übernommen, nicht kopiert)
+	 */
+	LokalErgebnisSpeicher(Spalten spalten) {
+		int kapazitaet = Math.max(START_KAPAZITAET, spalten.anzahl);
+		this.anzahl = spalten.anzahl;
+		this.ids = Arrays.copyOf(spalten.ids, kapazitaet);
+		this.themaIds = Arrays.copyOf(spalten.themaIds, kapazitaet);
+		this.frageIds = Arrays.copyOf(spalten.frageIds, kapazitaet);
+		this.zeitpunkte = Arrays.copyOf(spalten.zeitpunkte, kapazitaet);
+		this.antwortZeiten = Arrays.copyOf(spalten.antwortZeiten, kapazitaet);
+		this.punkte = Arrays.copyOf(spalten.punkte, kapazitaet);
+		this.richtig = spalten.richtig;
+		this.gezeigt = spalten.gezeigt;
+		this.zeileNachId = new IdIndex(kapazitaet);
+		for (int zeile = 0; zeile < anzahl; zeile++) {
+			zeileNachId.put(ids[zeile], zeile);
+			fuegeEin(zeilenDerFrage(frageIds[zeile]), zeile);
+			fuegeEin(zeilenDesThemas(themaIds[zeile]), zeile);
+		}
+	}
+
+	/**
+	 * Erstellt einen Speicher aus vorhandenen DTOs (z.B. beim Konvertieren von Altdaten).
+	 *
+	 * @param ergebnisse Die Quiz-Ergebnisse
+	 * @return Der gefüllte Speicher
+	 */
+	static LokalErgebnisSpeicher aus(Collection<QuizErgebnisDTO> ergebnisse) {
+		LokalErgebnisSpeicher speicher = new LokalErgebnisSpeicher();
+		ergebnisse.forEach(speicher::speichere);
+		return speicher;
+	}
+
+	/**
+	 * Fügt ein Ergebnis hinzu oder überschreibt das Ergebnis mit derselben ID.
+	 *
+	 * @param ergebnis Das Ergebnis (wird nicht referenziert)
+	 */
+	void speichere(QuizErgebnisDTO ergebnis) {
+		speichere(ergebnis.getId(), ergebnis.getThemaId(), ergebnis.getFrageId(),
+				LokalSnapshot.zuEpochMillis(ergebnis.getZeitpunkt()), ergebnis.getAntwortZeitSekunden(),
+				ergebnis.getPunkte(), ergebnis.isAntwortRichtig(), ergebnis.isAntwortVorherGezeigt());
+	}
+
+	/**
+	 * Übernimmt eine Zeile aus anderen Spalten, ohne ein DTO zu erzeugen.
+	 *
+	 * @param spalten Die Quell-Spalten
+	 * @param zeile Die Zeile in den Quell-Spalten
+	 */
+	void speichere(Spalten spalten, int zeile) {
+		speichere(spalten.ids[zeile], spalten.themaIds[zeile], spalten.frageIds[zeile], spalten.zeitpunkte[zeile],
+				spalten.antwortZeiten[zeile], spalten.punkte[zeile], spalten.richtig.get(zeile),
+				spalten.gezeigt.get(zeile));
+	}
+
+	private void speichere(long id, long themaId, long frageId, long zeitpunkt, int antwortZeit, int punkteWert,
+			boolean istRichtig, boolean istGezeigt) {
+		int vorhanden = zeileNachId.get(id);
+		int zeile;
+		boolean neueFrage = true;
+		boolean neuesThema = true;
+		if (vorhanden < 0) {
+			zeile = anzahl++;
+			sichereKapazitaet(anzahl);
+			zeileNachId.put(id, zeile);
+		} else {
+			zeile = vorhanden;
+			// Aktualisierung mit geänderter Zuordnung: Zeile in den Indizes umhängen
+			neueFrage = frageIds[zeile] != frageId;
+			neuesThema = themaIds[zeile] != themaId;
+			if (neueFrage) {
+				zeilenDerFrage(frageIds[zeile]).entfernen(zeile);
+			} else if (zeitpunkte[zeile] != zeitpunkt) {
+				zeilenDerFrage(frageId).sortiert = false;
+			}
+			if (neuesThema) {
+				zeilenDesThemas(themaIds[zeile]).entfernen(zeile);
+			} else if (zeitpunkte[zeile] != zeitpunkt) {
+				zeilenDesThemas(themaId).sortiert = false;
+			}
+		}
+		ids[zeile] = id;
+		themaIds[zeile] = themaId;
+		frageIds[zeile] = frageId;
+		zeitpunkte[zeile] = zeitpunkt;
+		antwortZeiten[zeile] = antwortZeit;
+		punkte[zeile] = punkteWert;
+		richtig.set(zeile, istRichtig);
+		gezeigt.set(zeile, istGezeigt);
+		if (neueFrage) {
+			fuegeEin(zeilenDerFrage(frageId), zeile);
+		}
+		if (neuesThema) {
+			fuegeEin(zeilenDesThemas(themaId), zeile);
+		}
+	}
+
+	/**
+	 * Prüft, ob ein Ergebnis mit der ID enthalten ist.
+	 *
+	 * @param id Die Ergebnis-ID
+	 * @return {@code true}, wenn vorhanden
+	 */
+	boolean enthaelt(long id) {
+		return zeileNachId.get(id) >= 0;
+	}
+
+	/**
+	 * Erzeugt die DTOs aller Ergebnisse einer Frage.
+	 *
+	 * @param frageId Die ID der Frage
+	 * @return Neue Liste neuer DTOs in Einfügereihenfolge
+	 */
+	List<QuizErgebnisDTO> findeNachFrageId(long frageId) {
+		return materialisiere(zeilenNachFrageId.get(frageId));
+	}
+
+	/**
+	 * Erzeugt die DTOs aller Ergebnisse eines Themas.
+	 *
+	 * @param themaId Die ID des Themas
+	 * @return Neue Liste neuer DTOs in Einfügereihenfolge
+	 */
+	List<QuizErgebnisDTO> findeNachThemaId(long themaId) {
+		return materialisiere(zeilenNachThemaId.get(themaId));
+	}
+
+	/**
+	 * Hängt die DTOs der Frage, die vor dem Cursor liegen, absteigend nach Zeitpunkt
+	 * und ID an, bis {@code ziel} {@code limit} Einträge enthält.
+	 *
+	 * @param frageId Die ID der Frage
+	 * @param vorZeitpunkt Zeitpunkt des Cursors in Epoch-ms
+	 * @param vorId ID des Cursors
+	 * @param limit Maximale Größe von {@code ziel}
+	 * @param ziel Die Seite, an die angehängt wird
+	 */
+	void seiteNachFrageId(long frageId, long vorZeitpunkt, long vorId, int limit, List<QuizErgebnisDTO> ziel) {
+		seite(zeilenNachFrageId.get(frageId), vorZeitpunkt, vorId, limit, ziel);
+	}
+
+	/**
+	 * Hängt die DTOs des Themas, die vor dem Cursor liegen, absteigend an.
+	 *
+	 * @see #seiteNachFrageId(long, long, long, int, List)
+	 */
+	void seiteNachThemaId(long themaId, long vorZeitpunkt, long vorId, int limit, List<QuizErgebnisDTO> ziel) {
+		seite(zeilenNachThemaId.get(themaId), vorZeitpunkt, vorId, limit, ziel);
+	}
+
+	/**
+	 * Summiert die Ergebnisse einer Frage in ein Aggregat.
+	 *
+	 * @param frageId Die ID der Frage
+	 * @param aggregat Das fortzuschreibende Aggregat
+	 */
+	void summiereFrage(long frageId, Aggregat aggregat) {
+		summiere(zeilenNachFrageId.get(frageId), aggregat);
+	}
+
+	/**
+	 * Summiert die Ergebnisse eines Themas in ein Aggregat.
+	 *
+	 * @param themaId Die ID des Themas
+	 * @param aggregat Das fortzuschreibende Aggregat
+	 */
+	void summiereThema(long themaId, Aggregat aggregat) {
+		summiere(zeilenNachThemaId.get(themaId), aggregat);
+	}
+
+	/**
+	 * Kopiert die belegten Spalten, z.B. um sie außerhalb des Locks zu schreiben.
+	 *
+	 * @return Unabhängige Kopie der Spalten
+	 */
+	Spalten spalten() {
+		return new Spalten(anzahl, Arrays.copyOf(ids, anzahl), Arrays.copyOf(themaIds, anzahl),
+				Arrays.copyOf(frageIds, anzahl), Arrays.copyOf(zeitpunkte, anzahl),
+				Arrays.copyOf(antwortZeiten, anzahl), Arrays.copyOf(punkte, anzahl),
+				richtig.get(0, anzahl), gezeigt.get(0, anzahl));
+	}
+
+	int getAnzahl() {
+		return anzahl;
+	}
+
+	long maxId() {
+		long max = 0;
+		for (int zeile = 0; zeile < anzahl; zeile++) {
+			max = Math.max(max, ids[zeile]);
+		}
+		return max;
+	}
+
+	private void summiere(Zeilen zeilen, Aggregat aggregat) {
+		if (zeilen == null) {
+			return;
+		}
+		int[] werte = zeilen.werte;
+		for (int i = 0; i < zeilen.anzahl; i++) {
+			int zeile = werte[i];
+			aggregat.addiere(richtig.get(zeile), antwortZeiten[zeile], punkte[zeile]);
+		}
+	}
+
+	/**
+	 * Sucht binär die erste Zeile, die nicht mehr vor dem Cursor liegt, und geht von
+	 * dort rückwärts.
+	 */
+	private void seite(Zeilen zeilen, long vorZeitpunkt, long vorId, int limit, List<QuizErgebnisDTO> ziel) {
+		if (zeilen == null) {
+			return;
+		}
+		int[] werte = sortiere(zeilen);
+		int links = 0;
+		int rechts = zeilen.anzahl;
+		while (links < rechts) {
+			int mitte = (links + rechts) >>> 1;
+			int zeile = werte[mitte];
+			if (vergleiche(zeitpunkte[zeile], ids[zeile], vorZeitpunkt, vorId) < 0) {
+				links = mitte + 1;
+			} else {
+				rechts = mitte;
+			}
+		}
+		for (int i = links - 1; i >= 0 && ziel.size() < limit; i--) {
+			ziel.add(materialisiere(werte[i]));
+		}
+	}
+
+	/**
+	 * Hängt eine Zeile an und merkt sich, wenn sie die Reihenfolge nach Zeitpunkt und
+	 * ID bricht (Ergebnisse kommen fast immer in zeitlicher Reihenfolge).
+	 */
+	private void fuegeEin(Zeilen zeilen, int zeile) {
+		if (zeilen.anzahl > 0) {
+			int letzte = zeilen.werte[zeilen.anzahl - 1];
+			if (vergleiche(zeitpunkte[letzte], ids[letzte], zeitpunkte[zeile], ids[zeile]) > 0) {
+				zeilen.sortiert = false;
+			}
+		}
+		zeilen.hinzufuegen(zeile);
+	}
+
+	/**
+	 * Sortiert die Zeilen nach Zeitpunkt und ID, falls nötig. Läuft unter dem Lese-Lock,
+	 * daher synchronisiert auf die Zeilen; sortiert wird eine Kopie, die erst fertig
+	 * über das volatile {@code werte} veröffentlicht wird, sodass gleichzeitige Leser
+	 * immer ein vollständiges Array sehen.
+	 *
+	 * @return Das sortierte Array
+	 */
+	private int[] sortiere(Zeilen zeilen) {
+		synchronized (zeilen) {
+			if (!zeilen.sortiert) {
+				int[] werte = zeilen.werte.clone();
+				sortiere(werte, new int[zeilen.anzahl], 0, zeilen.anzahl);
+				zeilen.werte = werte;
+				zeilen.sortiert = true;
+			}
+			return zeilen.werte;
+		}
+	}
+
+	/**
+	 * Stabiles Mergesort über Zeilennummern ohne Boxing; bereits geordnete Hälften
+	 * werden nicht gemischt, fast sortierte Listen kosten daher kaum mehr als ein
+	 * Durchlauf.
+	 */
+	private void sortiere(int[] werte, int[] puffer, int von, int bis) {
+		if (bis - von < 2) {
+			return;
+		}
+		int mitte = (von + bis) >>> 1;
+		sortiere(werte, puffer, von, mitte);
+		sortiere(werte, puffer, mitte, bis);
+		if (!istVor(werte[mitte], werte[mitte - 1])) {
+			return;
+		}
+		System.arraycopy(werte, von, puffer, von, bis - von);
+		int links = von;
+		int rechts = mitte;
+		for (int i = von; i < bis; i++) {
+			if (rechts >= bis || links < mitte && !istVor(puffer[rechts], puffer[links])) {
+				werte[i] = puffer[links++];
+			} else {
+				werte[i] = puffer[rechts++];
+			}
+		}
+	}
+
+	private boolean istVor(int zeileA, int zeileB) {
+		return vergleiche(zeitpunkte[zeileA], ids[zeileA], zeitpunkte[zeileB], ids[zeileB]) < 0;
+	}
+
+	private static int vergleiche(long zeitpunktA, long idA, long zeitpunktB, long idB) {
+		int vergleich = Long.compare(zeitpunktA, zeitpunktB);
+		return vergleich != 0 ? vergleich : Long.compare(idA, idB);
+	}
+
+	private List<QuizErgebnisDTO> materialisiere(Zeilen zeilen) {
+		if (zeilen == null) {
+			return new ArrayList<>();
+		}
+		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>(zeilen.anzahl);
+		int[] werte = zeilen.werte;
+		for (int i = 0; i < zeilen.anzahl; i++) {
+			ergebnisse.add(materialisiere(werte[i]));
+		}
+		return ergebnisse;
+	}
+
+	private QuizErgebnisDTO materialisiere(int zeile) {
+		QuizErgebnisDTO ergebnis = new QuizErgebnisDTO();
+		ergebnis.setId(ids[zeile]);
+		ergebnis.setThemaId(themaIds[zeile]);
+		ergebnis.setFrageId(frageIds[zeile]);
+		ergebnis.setZeitpunkt(LokalSnapshot.zuZeitpunkt(zeitpunkte[zeile]));
+		ergebnis.setAntwortZeitSekunden(antwortZeiten[zeile]);
+		ergebnis.setPunkte(punkte[zeile]);
+		ergebnis.setAntwortRichtig(richtig.get(zeile));
+		ergebnis.setAntwortVorherGezeigt(gezeigt.get(zeile));
+		return ergebnis;
+	}
+
+	private void sichereKapazitaet(int benoetigt) {
+		if (benoetigt <= ids.length) {
+			return;
+		}
+		int kapazitaet = Math.max(benoetigt, ids.length + (ids.length >> 1));
+		ids = Arrays.copyOf(ids, kapazitaet);
+		themaIds = Arrays.copyOf(themaIds, kapazitaet);
+		frageIds = Arrays.copyOf(frageIds, kapazitaet);
+		zeitpunkte = Arrays.copyOf(zeitpunkte, kapazitaet);
+		antwortZeiten = Arrays.copyOf(antwortZeiten, kapazitaet);
+		punkte = Arrays.copyOf(punkte, kapazitaet);
+	}
+
+	private Zeilen zeilenDerFrage(long frageId) {
+		return zeilenNachFrageId.computeIfAbsent(frageId, k -> new Zeilen());
+	}
+
+	private Zeilen zeilenDesThemas(long themaId) {
+		return zeilenNachThemaId.computeIfAbsent(themaId, k -> new Zeilen());
+	}
+
+	/**
+	 * Summen über eine Menge von Ergebnissen.
+	 */
+	static final class Aggregat {
+		int versuche;
+		int richtig;
+		long zeitSumme;
+		long punkteSumme;
+		int bestePunkte = Integer.MIN_VALUE;
+
+		void addiere(boolean istRichtig, int antwortZeit, int punkteWert) {
+			versuche++;
+			if (istRichtig) {
+				richtig++;
+			}
+			zeitSumme += antwortZeit;
+			punkteSumme += punkteWert;
+			bestePunkte = Math.max(bestePunkte, punkteWert);
+		}
+
+		void addiere(Aggregat anderes) {
+			versuche += anderes.versuche;
+			richtig += anderes.richtig;
+			zeitSumme += anderes.zeitSumme;
+			punkteSumme += anderes.punkteSumme;
+			bestePunkte = Math.max(bestePunkte, anderes.bestePunkte);
+		}
+
+		/**
+		 * Überträgt die Summen als Anzahl, Durchschnitte und Bestwert auf eine Statistik.
+		 *
+		 * @param statistik Die zu füllende Statistik
+		 * @return Die übergebene Statistik
+		 */
+		StatistikDTO uebertrageAuf(StatistikDTO statistik) {
+			if (versuche == 0) {
+				return statistik;
+			}
+			statistik.setAnzahlVersuche(versuche);
+			statistik.setAnzahlRichtig(richtig);
+			statistik.setAnzahlFalsch(versuche - richtig);
+			statistik.setDurchschnittlicheAntwortZeit((double) zeitSumme / versuche);
+			statistik.setDurchschnittlichePunkte((int) ((double) punkteSumme / versuche));
+			statistik.setBestePunkte(bestePunkte);
+			statistik.berechneErfolgsRate();
+			return statistik;
+		}
+	}
+
+	/**
+	 * Unveränderliche Kopie der Spalten, wie sie im Snapshot stehen.
+	 */
+	static final class Spalten {
+		final int anzahl;
+		final long[] ids;
+		final long[] themaIds;
+		final long[] frageIds;
+		final long[] zeitpunkte;
+		final int[] antwortZeiten;
+		final int[] punkte;
+		final BitSet richtig;
+		final BitSet gezeigt;
+
+		Spalten(int anzahl, long[] ids, long[] themaIds, long[] frageIds, long[] zeitpunkte, int[] antwortZeiten,
+				int[] punkte, BitSet richtig, BitSet gezeigt) {
+			this.anzahl = anzahl;
+			this.ids = ids;
+			this.themaIds = themaIds;
+			this.frageIds = frageIds;
+			this.zeitpunkte = zeitpunkte;
+			this.antwortZeiten = antwortZeiten;
+			this.punkte = punkte;
+			this.richtig = richtig;
+			this.gezeigt = gezeigt;
+		}
+	}
+
+	/**
+	 * Index Ergebnis-ID -&gt; Zeile als offene Hashtabelle mit linearer Sondierung, damit
+	 * nicht je Ergebnis ein {@code Long} und ein {@code Integer} entstehen. Einträge
+	 * werden nie entfernt, da Zeilen nur hinzukommen oder überschrieben werden.
+	 */
+	private static final class IdIndex {
+		private long[] schluessel;
+		// Zeile + 1, 0 markiert einen freien Platz
+		private int[] zeilen;
+		private int anzahl;
+
+		IdIndex(int erwartet) {
+			int kapazitaet = Integer.highestOneBit(Math.max(16, erwartet * 2 - 1)) << 1;
+			schluessel = new long[kapazitaet];
+			zeilen = new int[kapazitaet];
+		}
+
+		/**
+		 * @return Die Zeile zur ID oder -1
+		 */
+		int get(long id) {
+			int maske = zeilen.length - 1;
+			for (int i = platz(id, maske); zeilen[i] != 0; i = (i + 1) & maske) {
+				if (schluessel[i] == id) {
+					return zeilen[i] - 1;
+				}
+			}
+			return -1;
+		}
+
+		void put(long id, int zeile) {
+			if ((anzahl + 1) * 2 > zeilen.length) {
+				vergroessere();
+			}
+			int maske = zeilen.length - 1;
+			int i = platz(id, maske);
+			while (zeilen[i] != 0 && schluessel[i] != id) {
+				i = (i + 1) & maske;
+			}
+			if (zeilen[i] == 0) {
+				anzahl++;
+			}
+			schluessel[i] = id;
+			zeilen[i] = zeile + 1;
+		}
+
+		private void vergroessere() {
+			long[] alteSchluessel = schluessel;
+			int[] alteZeilen = zeilen;
+			schluessel = new long[alteZeilen.length * 2];
+			zeilen = new int[alteZeilen.length * 2];
+			int maske = zeilen.length - 1;
+			for (int j = 0; j < alteZeilen.length; j++) {
+				if (alteZeilen[j] != 0) {
+					int i = platz(alteSchluessel[j], maske);
+					while (zeilen[i] != 0) {
+						i = (i + 1) & maske;
+					}
+					schluessel[i] = alteSchluessel[j];
+					zeilen[i] = alteZeilen[j];
+				}
+			}
+		}
+
+		private static int platz(long id, int maske) {
+			long h = id * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32)) & maske;
+		}
+	}
+
+	/**
+	 * Wachsende Liste von Zeilennummern ohne Boxing; {@code sortiert} gibt an, ob sie
+	 * aufsteigend nach Zeitpunkt und ID geordnet ist. Geändert wird nur unter dem
+	 * Schreib-Lock, {@code werte} ist volatile, weil Leser es beim Sortieren ersetzen.
+	 */
+	private static final class Zeilen {
+		volatile int[] werte = new int[4];
+		int anzahl;
+		boolean sortiert = true;
+
+		void hinzufuegen(int zeile) {
+			if (anzahl == werte.length) {
+				werte = Arrays.copyOf(werte, anzahl * 2);
+			}
+			werte[anzahl++] = zeile;
+		}
+
+		void entfernen(int zeile) {
+			for (int i = 0; i < anzahl; i++) {
+				if (werte[i] == zeile) {
+					System.arraycopy(werte, i + 1, werte, i, anzahl - i - 1);
+					anzahl--;
+					return;
+				}
+			}
+		}
+	}
+}
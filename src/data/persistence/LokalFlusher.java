@@ -0,0 +1,111 @@
+package data.persistence;
+
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import config.PropertiesLoader;
+import exception.PersistenceException;
+
+/**
+ * Hintergrund-Flusher (Write-Behind) für das {@link LokalRepository}.
+ *
+ * <p>Je nach Haltbarkeits-Strategie ({@code quiz.database.lokal.durability}) schreibt das
+ * Repository Änderungen sofort oder merkt sie nur vor. Vorgemerkte Änderungen werden
+ * von diesem Flusher gesammelt im Hintergrund geschrieben, sodass der aufrufende
+ * Thread (z.B. der Swing-EDT beim Speichern eines Quiz-Ergebnisses) nicht auf die
+ * Festplatte wartet.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalRepository
+ */
+class LokalFlusher implements AutoCloseable {
+
+	/**
+	 * Haltbarkeits-Strategie für lokale Änderungen.
+	 */
+	enum Strategie {
+		/** Jede Änderung wird im aufrufenden Thread geschrieben. */
+		WRITE,
+		/** Änderungen werden alle {@code quiz.database.lokal.flush.interval.ms} gesammelt geschrieben. */
+		INTERVAL,
+		/** Änderungen werden nur bei {@link LokalRepository#flush()} bzw. beim Beenden geschrieben. */
+		SHUTDOWN;
+
+		static Strategie ausProperties() {
+			String wert = PropertiesLoader.getProperty("quiz.database.lokal.durability", "write");
+			try {
+				return valueOf(wert.trim().toUpperCase(Locale.ROOT));
+			} catch (IllegalArgumentException e) {
+				System.err.println("LokalFlusher: Unbekannte Strategie '" + wert + "', verwende 'write'");
+				return WRITE;
+			}
+		}
+	}
+
+	private final Strategie strategie;
+	private final ScheduledExecutorService ausfuehrer;
+
+	/**
+	 * Erstellt den Flusher und startet bei {@link Strategie#INTERVAL} den Hintergrund-Thread.
+	 *
+	 * @param strategie Die Haltbarkeits-Strategie
+	 * @param intervallMs Abstand zwischen zwei Flush-Läufen in Millisekunden
+	 * @param aufgabe Schreibt alle vorgemerkten Änderungen
+	 */
+	LokalFlusher(Strategie strategie, long intervallMs, Runnable aufgabe) {
+		this.strategie = strategie;
+		if (strategie == Strategie.INTERVAL) {
+			this.ausfuehrer = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "LokalRepository-Flusher");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long intervall = Math.max(1, intervallMs);
+			ausfuehrer.scheduleWithFixedDelay(() -> {
+				try {
+					aufgabe.run();
+				} catch (PersistenceException e) {
+					// Nicht geschriebene Änderungen bleiben vorgemerkt und werden erneut versucht
+					System.err.println("LokalFlusher: " + e.getMessage());
+				}
+			}, intervall, intervall, TimeUnit.MILLISECONDS);
+		} else {
+			this.ausfuehrer = null;
+		}
+	}
+
+	/**
+	 * Gibt an, ob Änderungen sofort im aufrufenden Thread geschrieben werden.
+	 *
+	 * @return {@code true} bei {@link Strategie#WRITE}
+	 */
+	boolean schreibtSofort() {
+		return strategie == Strategie.WRITE;
+	}
+
+	Strategie getStrategie() {
+		return strategie;
+	}
+
+	/**
+	 * Beendet den Hintergrund-Thread und wartet auf einen laufenden Flush.
+	 */
+	@Override
+	public void close() {
+		if (ausfuehrer == null) {
+			return;
+		}
+		ausfuehrer.shutdown();
+		try {
+			if (!ausfuehrer.awaitTermination(10, TimeUnit.SECONDS)) {
+				System.err.println("LokalFlusher: Hintergrund-Thread wurde nicht rechtzeitig beendet");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
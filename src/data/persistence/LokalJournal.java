@@ -0,0 +1,452 @@
+package data.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+import exception.PersistenceException;
+
+/**
+ * Write-Ahead-Journal für das {@link LokalRepository}.
+ *
+ * <p>Jede Änderung wird als kompakter Datensatz an das Journal angehängt, statt die
+ * komplette Liste neu zu serialisieren. Die Schreibkosten pro Änderung sind damit
+ * unabhängig von der Datenmenge. Die Snapshots werden nur noch bei
+ * Checkpoints neu geschrieben, danach wird das Journal geleert.</p>
+ *
+ * <p>Aufbau eines Datensatzes:</p>
+ * <pre>
+ * [int Länge][int CRC32][byte Operation][Nutzdaten ...]
+ * </pre>
+ *
+ * <p>Ein unvollständiger oder beschädigter Datensatz am Dateiende (z.B. nach einem
+ * Absturz während des Schreibens) beendet das Einlesen; alle vorherigen Datensätze
+ * bleiben gültig. Schlägt ein Anhängen im laufenden Betrieb fehl, wird das Journal
+ * auf das Ende des letzten vollständigen Datensatzes zurückgeschnitten, damit spätere
+ * Datensätze nicht hinter einem halb geschriebenen landen.</p>
+ *
+ * <p>{@link #anhaengen(List)} schreibt nur in den Dateipuffer des Betriebssystems.
+ * Wer Haltbarkeit gegen Stromausfall braucht, ruft danach {@link #synchronisiere(long)}
+ * auf; gleichzeitige Aufrufer teilen sich dabei ein {@code force} (Group Commit).</p>
+ *
+ * <p>Texte werden als {@code int}-Länge (-1 für {@code null}) mit UTF-8-Bytes kodiert
+ * wie im {@link LokalSnapshot} und sind damit nicht auf 64 KB begrenzt.</p>
+ *
+ * <p>Für die Kompaktierung wird das aktive Journal mit {@link #rotiere()} zu einem
+ * versiegelten Segment ({@code <datei>.<nummer>}) umbenannt und neu begonnen. Nachdem
+ * der Snapshot geschrieben ist, werden die versiegelten Segmente gelöscht. Beim
+ * Einlesen werden zuerst die versiegelten Segmente, dann das aktive Journal
+ * eingespielt.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalRepository
+ */
+class LokalJournal implements AutoCloseable {
+
+	// Operationen im Journal
+	static final byte THEMA = 1;
+	static final byte THEMA_LOESCHEN = 2;
+	static final byte FRAGE = 3;
+	static final byte FRAGE_LOESCHEN = 4;
+	static final byte ANTWORT = 5;
+	static final byte ANTWORT_LOESCHEN = 6;
+	static final byte ERGEBNIS = 7;
+
+	private static final int KOPF_GROESSE = 8;
+
+	/**
+	 * Schreibt die Nutzdaten eines Journal-Datensatzes.
+	 */
+	@FunctionalInterface
+	interface Eintrag {
+		void schreibe(DataOutputStream out) throws IOException;
+	}
+
+	/**
+	 * Verarbeitet einen eingelesenen Journal-Datensatz beim Wiedereinspielen.
+	 */
+	@FunctionalInterface
+	interface Verarbeiter {
+		void verarbeite(byte operation, DataInputStream in) throws IOException;
+	}
+
+	private final Path datei;
+	private FileChannel kanal;
+	private int anzahlEintraege;
+	private long groesse;
+	// Nach einem fehlgeschlagenen Zurückschneiden steht hinter groesse noch ein Rest
+	private boolean rueckschnittAusstehend;
+	// Seit dem Öffnen angehängte bzw. auf den Datenträger geschriebene Bytes (über Rotationen hinweg)
+	private volatile long geschrieben;
+	private volatile long synchronisiert;
+	// Serialisiert force und den Austausch des Kanals beim Rotieren und Schließen
+	private final Object syncSperre = new Object();
+
+	/**
+	 * Öffnet (oder erstellt) das Journal im Anhänge-Modus.
+	 *
+	 * @param datei Pfad der Journal-Datei
+	 */
+	LokalJournal(Path datei) {
+		this.datei = datei;
+		oeffne();
+	}
+
+	/**
+	 * Spielt alle gültigen Datensätze der versiegelten Segmente und des aktiven
+	 * Journals in Schreibreihenfolge ein.
+	 *
+	 * @param verarbeiter Callback, der jeden Datensatz auf den Speicher anwendet
+	 * @return Anzahl der eingespielten Datensätze
+	 */
+	int wiedereinspielen(Verarbeiter verarbeiter) {
+		int gelesen = 0;
+		for (Path segment : versiegelteSegmente().values()) {
+			gelesen += spieleDateiEin(segment, verarbeiter, false);
+		}
+		int aktiv = spieleDateiEin(datei, verarbeiter, true);
+		anzahlEintraege = gelesen + aktiv;
+		return gelesen + aktiv;
+	}
+
+	private int spieleDateiEin(Path quelle, Verarbeiter verarbeiter, boolean aktiv) {
+		int gelesen = 0;
+		long gueltigBis = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(quelle)))) {
+			long dateigroesse = Files.size(quelle);
+			while (true) {
+				int laenge;
+				int pruefsumme;
+				byte[] nutzdaten;
+				try {
+					laenge = in.readInt();
+					pruefsumme = in.readInt();
+					if (laenge <= 0 || laenge > dateigroesse - gueltigBis - KOPF_GROESSE) {
+						// Länge passt nicht in den Rest der Datei: Kopf eines abgeschnittenen Datensatzes
+						break;
+					}
+					nutzdaten = new byte[laenge];
+					in.readFully(nutzdaten);
+				} catch (EOFException e) {
+					// Abgeschnittener Datensatz am Ende: wurde nie vollständig geschrieben
+					break;
+				}
+
+				CRC32 crc = new CRC32();
+				crc.update(nutzdaten);
+				if ((int) crc.getValue() != pruefsumme) {
+					System.err.println("LokalJournal: Beschädigter Datensatz in " + quelle
+							+ " - Einlesen wird nach " + gelesen + " Datensätzen beendet");
+					break;
+				}
+
+				DataInputStream datensatz = new DataInputStream(new ByteArrayInputStream(nutzdaten));
+				verarbeiter.verarbeite(datensatz.readByte(), datensatz);
+				gueltigBis += KOPF_GROESSE + laenge;
+				gelesen++;
+			}
+
+			// Ungültigen Rest abschneiden, damit neue Datensätze wieder lesbar angehängt werden
+			if (aktiv && kanal.size() > gueltigBis) {
+				kanal.truncate(gueltigBis);
+			}
+			if (aktiv) {
+				groesse = gueltigBis;
+			}
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Einlesen des Journals " + quelle, e);
+		}
+		return gelesen;
+	}
+
+	/**
+	 * Hängt einen Datensatz an das Journal an.
+	 *
+	 * @param operation Die Operation des Datensatzes
+	 * @param eintrag Schreibt die Nutzdaten der Operation
+	 */
+	void anhaengen(byte operation, Eintrag eintrag) {
+		anhaengen(List.of(kodiere(operation, eintrag)));
+	}
+
+	/**
+	 * Hängt mehrere bereits kodierte Datensätze mit einem Schreibvorgang an das Journal an.
+	 *
+	 * @param datensaetze Mit {@link #kodiere(byte, Eintrag)} erzeugte Datensätze in Schreibreihenfolge
+	 */
+	void anhaengen(List<byte[]> datensaetze) {
+		if (datensaetze.isEmpty()) {
+			return;
+		}
+		int gesamt = 0;
+		for (byte[] datensatz : datensaetze) {
+			gesamt += datensatz.length;
+		}
+		ByteBuffer puffer = ByteBuffer.allocate(gesamt);
+		for (byte[] datensatz : datensaetze) {
+			puffer.put(datensatz);
+		}
+		puffer.flip();
+		try {
+			if (rueckschnittAusstehend) {
+				kanal.truncate(groesse);
+				rueckschnittAusstehend = false;
+			}
+			while (puffer.hasRemaining()) {
+				kanal.write(puffer);
+			}
+			anzahlEintraege += datensaetze.size();
+			groesse += gesamt;
+			geschrieben += gesamt;
+		} catch (IOException e) {
+			PersistenceException fehler = new PersistenceException("Fehler beim Schreiben in das Journal " + datei, e);
+			schneideZurueck(fehler);
+			throw fehler;
+		}
+	}
+
+	/**
+	 * Schreibt alle bis zur angegebenen Position angehängten Datensätze auf den
+	 * Datenträger. Ein {@code force} deckt alle bis dahin angehängten Datensätze ab;
+	 * gleichzeitige Aufrufer warten auf dasselbe {@code force}, statt jeweils ein
+	 * eigenes auszulösen (Group Commit). Darf ohne die Sperre des Anhängens aufgerufen
+	 * werden.
+	 *
+	 * @param bis Position aus {@link #getGeschrieben()} nach dem eigenen Anhängen
+	 */
+	void synchronisiere(long bis) {
+		if (synchronisiert >= bis) {
+			return;
+		}
+		synchronized (syncSperre) {
+			if (synchronisiert >= bis) {
+				return;
+			}
+			// Alles bis zu diesem Stand ist vollständig im Kanal
+			long stand = geschrieben;
+			try {
+				kanal.force(false);
+			} catch (IOException e) {
+				throw new PersistenceException("Journal " + datei + " kann nicht synchronisiert werden", e);
+			}
+			synchronisiert = stand;
+		}
+	}
+
+	/**
+	 * Gibt die seit dem Öffnen angehängten Bytes zurück; der Wert wächst auch über
+	 * Rotationen hinweg und dient als Position für {@link #synchronisiere(long)}.
+	 *
+	 * @return Angehängte Bytes
+	 */
+	long getGeschrieben() {
+		return geschrieben;
+	}
+
+	/**
+	 * Entfernt die Bytes eines teilweise geschriebenen Anhängens, damit das Journal
+	 * wieder mit einem vollständigen Datensatz endet. Gelingt das nicht, wird es vor
+	 * dem nächsten Anhängen erneut versucht.
+	 */
+	private void schneideZurueck(PersistenceException fehler) {
+		try {
+			if (kanal.size() > groesse) {
+				kanal.truncate(groesse);
+			}
+			rueckschnittAusstehend = false;
+		} catch (IOException e) {
+			rueckschnittAusstehend = true;
+			fehler.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Kodiert einen Datensatz inklusive Länge und Prüfsumme, ohne ihn zu schreiben.
+	 *
+	 * @param operation Die Operation des Datensatzes
+	 * @param eintrag Schreibt die Nutzdaten der Operation
+	 * @return Der vollständige Datensatz
+	 */
+	static byte[] kodiere(byte operation, Eintrag eintrag) {
+		try {
+			ByteArrayOutputStream puffer = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(puffer);
+			out.writeByte(operation);
+			eintrag.schreibe(out);
+			out.flush();
+			byte[] nutzdaten = puffer.toByteArray();
+
+			CRC32 crc = new CRC32();
+			crc.update(nutzdaten);
+
+			ByteBuffer datensatz = ByteBuffer.allocate(KOPF_GROESSE + nutzdaten.length);
+			datensatz.putInt(nutzdaten.length);
+			datensatz.putInt((int) crc.getValue());
+			datensatz.put(nutzdaten);
+			return datensatz.array();
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Kodieren eines Journal-Datensatzes", e);
+		}
+	}
+
+	/**
+	 * Versiegelt das aktive Journal als Segment und beginnt ein neues, leeres Journal.
+	 *
+	 * @return Nummer des versiegelten Segments
+	 */
+	long rotiere() {
+		synchronized (syncSperre) {
+			try {
+				kanal.force(true);
+				synchronisiert = geschrieben;
+				kanal.close();
+				long nummer = versiegelteSegmente().keySet().stream().mapToLong(Long::longValue).max().orElse(0) + 1;
+				Files.move(datei, segmentPfad(nummer), StandardCopyOption.ATOMIC_MOVE);
+				oeffne();
+				anzahlEintraege = 0;
+				groesse = 0;
+				return nummer;
+			} catch (IOException e) {
+				// Aktives Journal in jedem Fall wieder öffnen, damit weiter angehängt werden kann
+				if (!kanal.isOpen()) {
+					oeffne();
+				}
+				throw new PersistenceException("Journal " + datei + " kann nicht rotiert werden", e);
+			}
+		}
+	}
+
+	/**
+	 * Löscht alle versiegelten Segmente bis einschließlich der angegebenen Nummer.
+	 *
+	 * @param nummer Höchste zu löschende Segmentnummer
+	 * @return Anzahl der freigegebenen Bytes
+	 */
+	long entferneSegmenteBis(long nummer) {
+		long freigegeben = 0;
+		for (Map.Entry<Long, Path> segment : versiegelteSegmente().entrySet()) {
+			if (segment.getKey() > nummer) {
+				break;
+			}
+			try {
+				freigegeben += Files.size(segment.getValue());
+				Files.delete(segment.getValue());
+			} catch (IOException e) {
+				System.err.println("LokalJournal: Segment " + segment.getValue() + " kann nicht gelöscht werden: "
+						+ e.getMessage());
+			}
+		}
+		return freigegeben;
+	}
+
+	/**
+	 * Gibt die Anzahl der Datensätze seit dem letzten Checkpoint zurück.
+	 *
+	 * @return Anzahl der Journal-Datensätze
+	 */
+	int getAnzahlEintraege() {
+		return anzahlEintraege;
+	}
+
+	/**
+	 * Gibt die Größe des aktiven Journals in Bytes zurück.
+	 *
+	 * @return Größe des aktiven Journals
+	 */
+	long getGroesse() {
+		return groesse;
+	}
+
+	@Override
+	public void close() {
+		synchronized (syncSperre) {
+			try {
+				if (kanal != null && kanal.isOpen()) {
+					kanal.close();
+				}
+			} catch (IOException e) {
+				System.err.println("LokalJournal: Fehler beim Schließen von " + datei + ": " + e.getMessage());
+			}
+		}
+	}
+
+	private Path segmentPfad(long nummer) {
+		return datei.resolveSibling(datei.getFileName() + "." + nummer);
+	}
+
+	/**
+	 * Liefert die versiegelten Segmente, sortiert nach Nummer.
+	 */
+	private SortedMap<Long, Path> versiegelteSegmente() {
+		SortedMap<Long, Path> segmente = new TreeMap<>();
+		Path verzeichnis = datei.toAbsolutePath().getParent();
+		String praefix = datei.getFileName() + ".";
+		try (DirectoryStream<Path> dateien = Files.newDirectoryStream(verzeichnis, praefix + "*")) {
+			for (Path segment : dateien) {
+				String rest = segment.getFileName().toString().substring(praefix.length());
+				if (!rest.isEmpty() && rest.chars().allMatch(Character::isDigit)) {
+					segmente.put(Long.parseLong(rest), segment);
+				}
+			}
+		} catch (IOException e) {
+			throw new PersistenceException("Journal-Segmente von " + datei + " können nicht gelesen werden", e);
+		}
+		return segmente;
+	}
+
+	private void oeffne() {
+		try {
+			kanal = FileChannel.open(datei, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new PersistenceException("Journal " + datei + " kann nicht geöffnet werden", e);
+		}
+	}
+
+	// --- Kodierung ---
+	static void schreibeText(DataOutputStream out, String text) throws IOException {
+		if (text == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Liest einen Text aus einem Datensatz; {@code in} liegt immer über den vollständig
+	 * gelesenen Nutzdaten, die Länge wird daher gegen den Rest geprüft.
+	 */
+	static String leseText(DataInputStream in) throws IOException {
+		int laenge = in.readInt();
+		if (laenge < 0) {
+			return null;
+		}
+		if (laenge > in.available()) {
+			throw new IOException("Ungültige Textlänge " + laenge);
+		}
+		byte[] bytes = new byte[laenge];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
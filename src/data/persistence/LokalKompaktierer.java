@@ -0,0 +1,132 @@
+package data.persistence;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import exception.PersistenceException;
+
+/**
+ * Hintergrund-Kompaktierung des Journals für das {@link LokalRepository}.
+ *
+ * <p>Sobald das aktive Journal eine der Schwellen erreicht
+ * ({@code quiz.database.lokal.checkpoint.records} Datensätze oder
+ * {@code quiz.database.lokal.checkpoint.bytes} Bytes), wird ein Checkpoint im
+ * Hintergrund angestoßen: Das Journal wird rotiert, der Snapshot neu geschrieben und
+ * die versiegelten Segmente werden gelöscht. Leser und Schreiber laufen währenddessen
+ * weiter.</p>
+ *
+ * <p>Dauer und freigegebene Bytes jeder Kompaktierung werden mitgezählt.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalRepository#checkpoint()
+ */
+class LokalKompaktierer implements AutoCloseable {
+
+	private final int maxEintraege;
+	private final long maxBytes;
+	private final ExecutorService ausfuehrer;
+	private final AtomicBoolean angestossen = new AtomicBoolean();
+
+	// Metriken
+	private final AtomicLong anzahlKompaktierungen = new AtomicLong();
+	private final AtomicLong letzteDauerMs = new AtomicLong();
+	private final AtomicLong gesamtDauerMs = new AtomicLong();
+	private final AtomicLong freigegebeneBytes = new AtomicLong();
+
+	/**
+	 * Erstellt den Kompaktierer mit eigenem Hintergrund-Thread.
+	 *
+	 * @param maxEintraege Schwelle für die Anzahl Journal-Datensätze
+	 * @param maxBytes Schwelle für die Größe des aktiven Journals in Bytes
+	 */
+	LokalKompaktierer(int maxEintraege, long maxBytes) {
+		this.maxEintraege = Math.max(1, maxEintraege);
+		this.maxBytes = Math.max(1, maxBytes);
+		this.ausfuehrer = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "LokalRepository-Kompaktierer");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Prüft, ob das Journal eine der Schwellen erreicht hat.
+	 *
+	 * @param eintraege Anzahl Datensätze im aktiven Journal
+	 * @param bytes Größe des aktiven Journals
+	 * @return {@code true}, wenn kompaktiert werden sollte
+	 */
+	boolean istFaellig(int eintraege, long bytes) {
+		return eintraege >= maxEintraege || bytes >= maxBytes;
+	}
+
+	/**
+	 * Stößt die Kompaktierung im Hintergrund an. Ist bereits eine angestoßen, die noch
+	 * nicht begonnen hat, passiert nichts.
+	 *
+	 * @param kompaktierung Führt den Checkpoint aus
+	 */
+	void anstossen(Runnable kompaktierung) {
+		if (ausfuehrer.isShutdown() || !angestossen.compareAndSet(false, true)) {
+			return;
+		}
+		ausfuehrer.execute(() -> {
+			angestossen.set(false);
+			try {
+				kompaktierung.run();
+			} catch (PersistenceException e) {
+				// Das Journal bleibt vollständig erhalten, der nächste Anstoß versucht es erneut
+				System.err.println("LokalKompaktierer: " + e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Zählt eine abgeschlossene Kompaktierung.
+	 *
+	 * @param dauerMs Dauer in Millisekunden
+	 * @param bytes Durch gelöschte Journal-Segmente freigegebene Bytes
+	 */
+	void protokolliere(long dauerMs, long bytes) {
+		anzahlKompaktierungen.incrementAndGet();
+		letzteDauerMs.set(dauerMs);
+		gesamtDauerMs.addAndGet(dauerMs);
+		freigegebeneBytes.addAndGet(bytes);
+	}
+
+	long getAnzahlKompaktierungen() {
+		return anzahlKompaktierungen.get();
+	}
+
+	long getLetzteDauerMs() {
+		return letzteDauerMs.get();
+	}
+
+	long getGesamtDauerMs() {
+		return gesamtDauerMs.get();
+	}
+
+	long getFreigegebeneBytes() {
+		return freigegebeneBytes.get();
+	}
+
+	/**
+	 * Beendet den Hintergrund-Thread und wartet auf eine laufende Kompaktierung.
+	 */
+	@Override
+	public void close() {
+		ausfuehrer.shutdown();
+		try {
+			if (!ausfuehrer.awaitTermination(30, TimeUnit.SECONDS)) {
+				System.err.println("LokalKompaktierer: Hintergrund-Thread wurde nicht rechtzeitig beendet");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,19 +1,39 @@
 package data.persistence;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+import config.PropertiesLoader;
 import data.dto.AntwortDTO;
 import data.dto.FrageDTO;
 import data.dto.QuizErgebnisDTO;
@@ -25,24 +45,101 @@ import exception.PersistenceException;
 /**
  * Repository-Implementierung für lokale Speicherung von Quiz-Daten.
  * Vollständig implementiert mit Thread-Sicherheit und optimierter Datenstruktur.
+ *
+ * <p>Persistierungs-Modi ({@code quiz.database.lokal.mode}):</p>
+ * <ul>
+ *   <li>{@code snapshot} - jede Änderung schreibt die betroffenen Snapshot-Dateien neu</li>
+ *   <li>{@code journal} - jede Änderung wird an das {@link LokalJournal} angehängt; die
+ *       Snapshots werden nur bei Checkpoints neu geschrieben</li>
+ * </ul>
+ *
+ * <p>Die Haltbarkeits-Strategie ({@code quiz.database.lokal.durability}) legt fest, ob
+ * Änderungen im aufrufenden Thread ({@code write}), gesammelt im Hintergrund
+ * ({@code interval}) oder erst beim Beenden ({@code shutdown}) geschrieben werden,
+ * siehe {@link LokalFlusher}. {@link #flush()} schreibt alle vorgemerkten Änderungen.</p>
+ *
+ * <p>Die Snapshots liegen im Binärformat des {@link LokalSnapshot} vor. Vorhandene
+ * {@code .ser}-Dateien älterer Versionen werden beim ersten Start konvertiert.</p>
+ *
+ * <p>Neben den nach ID geordneten Primär-Maps werden Sekundär-Indizes gepflegt
+ * (Titel, Themen-ID → Fragen, Frage/Thema → Ergebnisse). Fragen sind über die
+ * Themen-ID verknüpft, eine Umbenennung des Themas lässt sie daher nicht verwaisen. Sie werden ausschließlich unter
+ * dem Schreib-Lock verändert, sodass Punktabfragen O(1) und Statistiken linear sind.</p>
+ *
+ * <p>Quiz-Ergebnisse liegen in primitiven Spalten im {@link LokalErgebnisSpeicher};
+ * DTOs werden erst bei Abfragen erzeugt, Aggregationen lesen die Spalten direkt.
+ * Die Spalten sind in Monats-Segmente aufgeteilt ({@link LokalErgebnisSegmente}), von
+ * denen beim Start nur die Zusammenfassungen gelesen werden.</p>
+ *
+ * <p>Katalog-Leser arbeiten ohne Lock auf einem atomar veröffentlichten Stand.
+ * Gespeicherte Themen, Fragen und Antworten werden eingefroren (Setter werfen eine
+ * {@link UnsupportedOperationException}); Listen-Abfragen liefern unveränderliche
+ * Sichten darauf ohne Kopie. Punktabfragen nach ID oder Titel liefern dagegen eine
+ * änderbare Kopie, die zum Bearbeiten und erneuten Speichern gedacht ist. Eine
+ * Änderung ersetzt nur die betroffenen Einträge und die Fragenliste ihres Themas.</p>
+ *
+ * <p>Katalog (Themen, Fragen, Antworten) und Quiz-Ergebnisse haben getrennte Locks,
+ * sodass das Speichern eines Ergebnisses keine Katalog-Leser blockiert. Unter den
+ * Locks werden Änderungen nur übernommen und vorgemerkt; Datei-I/O findet
+ * ausschließlich außerhalb der Locks statt.</p>
  */
-public class LokalRepository implements QuizRepository {
-
-	// Separate Listen für bessere Performance und einfachere Verwaltung
-	private List<ThemaDTO> themenListe;
-	private List<FrageDTO> fragenListe;
-	private List<AntwortDTO> antwortenListe;
-	private List<QuizErgebnisDTO> ergebnisseListe;
-	
-	// Thread-sichere Implementierung
-	private final ReadWriteLock lock = new ReentrantReadWriteLock();
-	
+public class LokalRepository implements QuizRepository, AutoCloseable {
+
+	// Primärspeicher: ID → Objekt in Einfügereihenfolge (wird als Liste serialisiert)
+	private final Map<Long, ThemaDTO> themen = new LinkedHashMap<>();
+	private final Map<Long, FrageDTO> fragen = new LinkedHashMap<>();
+
+	// Quiz-Ergebnisse spaltenweise in Monats-Segmenten, bei Bedarf nachgeladen
+	private final LokalErgebnisSegmente ergebnisse;
+
+	// Antworten liegen nur in ihrer Frage; Primär-Index Antwort-ID → Frage-ID
+	private final Map<Long, Long> frageIdNachAntwortId = new HashMap<>();
+
+	// Sekundär-Indizes
+	private final Map<String, ThemaDTO> themenNachTitel = new HashMap<>();
+	private final Map<Long, String> indexierterThemaTitel = new HashMap<>();
+	private final Map<Long, Set<Long>> frageIdsNachThemaId = new HashMap<>();
+	private final Map<Long, Long> themaIdNachFrageId = new HashMap<>();
+
+	// Veröffentlichter Katalog-Stand für Leser ohne Lock
+	private volatile KatalogStand katalog = KatalogStand.LEER;
+	// Veröffentlichte Fragen für Punktabfragen; wird eintragsweise ersetzt statt kopiert
+	private final Map<Long, FrageDTO> veroeffentlichteFragen = new ConcurrentHashMap<>();
+	// Seit der letzten Veröffentlichung geänderte Themen bzw. Fragenlisten (unter dem Schreib-Lock)
+	private boolean themenGeaendert;
+	private final Set<Long> geaenderteFragenlisten = new HashSet<>();
+
+	// Thread-sichere Implementierung: getrennte Locks für Katalog und Ergebnisse
+	private final ReadWriteLock katalogLock = new ReentrantReadWriteLock();
+	private final ReadWriteLock ergebnisLock = new ReentrantReadWriteLock();
+
 	// Dateinamen für verschiedene Datentypen
-	private final String THEMEN_DATEINAME = "quiz_themen.ser";
-	private final String FRAGEN_DATEINAME = "quiz_fragen.ser";
-	private final String ANTWORTEN_DATEINAME = "quiz_antworten.ser";
-	private final String ERGEBNISSE_DATEINAME = "quiz_ergebnisse.ser";
-	
+	private final String THEMEN_DATEINAME = "quiz_themen.bin";
+	private final String FRAGEN_DATEINAME = "quiz_fragen.bin";
+	private final String ANTWORTEN_ALT_DATEINAME = "quiz_antworten.bin";
+	private final String ERGEBNISSE_DATEINAME = "quiz_ergebnisse.bin";
+	private final String ERGEBNISSE_VERZEICHNIS = "quiz_ergebnisse";
+	private final String ALT_ENDUNG = ".ser";
+	private final String JOURNAL_DATEINAME = "quiz_journal.log";
+
+	// Ergebnisse je Block bei saveQuizErgebnisse (ein Journal-Anhängen je Block)
+	private static final int ERGEBNIS_BLOCK = 10000;
+
+	// Write-Ahead-Journal (nur im Journal-Modus, sonst null)
+	private final LokalJournal journal;
+	private final LokalKompaktierer kompaktierer;
+	// Serialisiert Checkpoints; wird vor ioSperre genommen
+	private final Object kompaktierSperre = new Object();
+
+	// Write-Behind: vorgemerkte Journal-Datensätze bzw. Snapshot-Dateien
+	private final LokalFlusher flusher;
+	private final List<byte[]> ausstehendeEintraege = new ArrayList<>();
+	private final Set<String> ausstehendeDateien = new LinkedHashSet<>();
+	private final Object ausstehendSperre = new Object();
+	// Sperr-Reihenfolge: flushSperre bzw. kompaktierSperre -> ioSperre -> katalogLock -> ergebnisLock -> ausstehendSperre
+	private final Object ioSperre = new Object();
+	private final Object flushSperre = new Object();
+
 	// ID-Counter für eindeutige Identifikation
 	private final AtomicLong themaIdCounter;
 	private final AtomicLong frageIdCounter;
@@ -50,448 +147,1290 @@ public class LokalRepository implements QuizRepository {
 	private final AtomicLong ergebnisIdCounter;
 
 	public LokalRepository() {
-		// Daten aus Dateien laden
-		this.themenListe = ladeDatenAusDatei(THEMEN_DATEINAME, new ArrayList<>());
-		this.fragenListe = ladeDatenAusDatei(FRAGEN_DATEINAME, new ArrayList<>());
-		this.antwortenListe = ladeDatenAusDatei(ANTWORTEN_DATEINAME, new ArrayList<>());
-		this.ergebnisseListe = ladeDatenAusDatei(ERGEBNISSE_DATEINAME, new ArrayList<>());
+		this((schritt, prozent) -> {
+		});
+	}
+
+	/**
+	 * Lädt die lokalen Daten und meldet dabei den Fortschritt.
+	 *
+	 * <p>Themen, Fragen und Ergebnis-Segmente werden parallel eingelesen; der
+	 * Katalog-Index wird aufgebaut, während die Ergebnis-Segmente noch laden.
+	 * Danach wird das Journal eingespielt.</p>
+	 *
+	 * @param fortschritt Erhält Beschreibung und Fortschritt in Prozent des aktuellen Schritts
+	 */
+	public LokalRepository(ObjIntConsumer<String> fortschritt) {
+		// Unabhängige Dateien parallel laden
+		fortschritt.accept("Lade Themen, Fragen und Ergebnisse", 0);
+		CompletableFuture<List<ThemaDTO>> themenLaden = CompletableFuture.supplyAsync(
+			() -> ladeDatenAusDatei(THEMEN_DATEINAME, LokalSnapshot.THEMEN, LokalSnapshot::leseThemen, ArrayList::new));
+		Map<Long, Long> themaIdsDerFragen = new HashMap<>();
+		CompletableFuture<List<FrageDTO>> fragenLaden = CompletableFuture.supplyAsync(
+			() -> ladeDatenAusDatei(FRAGEN_DATEINAME, LokalSnapshot.FRAGEN,
+				datei -> LokalSnapshot.leseFragen(datei, themaIdsDerFragen), ArrayList::new));
+		CompletableFuture<LokalErgebnisSegmente> ergebnisseLaden =
+			CompletableFuture.supplyAsync(this::ladeErgebnisSegmente);
+
+		// Katalog-Indizes aufbauen, während die Ergebnis-Segmente noch laden
+		List<ThemaDTO> themenListe = warte(themenLaden);
+		List<FrageDTO> fragenListe = warte(fragenLaden);
+		fortschritt.accept("Baue Katalog-Index auf", 40);
+		for (ThemaDTO thema : themenListe) {
+			indexiereThema(new GespeichertesThema(thema, 0));
+		}
+		boolean fragenMigriert = verknuepfeGeladeneFragen(fragenListe, themaIdsDerFragen);
+		for (ThemaDTO thema : new ArrayList<>(themen.values())) {
+			aktualisiereAnzahlFragen(thema, anzahlFragen(thema.getId())); // wird nicht gespeichert
+		}
+		if (fragenMigriert) {
+			snapshotSchreiber(FRAGEN_DATEINAME).run();
+			System.out.println("LokalRepository: " + FRAGEN_DATEINAME + " auf Verknüpfung über Themen-ID migriert");
+		}
+		entferneAlteAntwortenDatei();
+		fortschritt.accept("Lade Ergebnis-Segmente", 60);
+		this.ergebnisse = warte(ergebnisseLaden);
+
+		// Im Journal-Modus die Änderungen seit dem letzten Checkpoint einspielen
+		if ("journal".equalsIgnoreCase(PropertiesLoader.getProperty("quiz.database.lokal.mode", "snapshot"))) {
+			fortschritt.accept("Spiele Journal ein", 80);
+			this.journal = new LokalJournal(Paths.get(JOURNAL_DATEINAME));
+			int eingespielt = journal.wiedereinspielen(this::spieleEin);
+			if (eingespielt > 0) {
+				System.out.println("LokalRepository: " + eingespielt + " Journal-Einträge eingespielt");
+			}
+			this.kompaktierer = new LokalKompaktierer(
+				PropertiesLoader.getIntProperty("quiz.database.lokal.checkpoint.records", 1000),
+				PropertiesLoader.getLongProperty("quiz.database.lokal.checkpoint.bytes", 4L * 1024 * 1024));
+		} else {
+			this.journal = null;
+			this.kompaktierer = null;
+			if (Files.exists(Paths.get(JOURNAL_DATEINAME))) {
+				System.err.println("LokalRepository: " + JOURNAL_DATEINAME + " wird im Snapshot-Modus nicht eingespielt;"
+						+ " für die darin enthaltenen Änderungen einmal mit quiz.database.lokal.mode=journal starten");
+			}
+		}
+
+		publiziereKatalog();
 
 		// ID-Counter initialisieren
-		this.themaIdCounter = new AtomicLong(
-			themenListe.stream().mapToLong(ThemaDTO::getId).max().orElse(0));
-		this.frageIdCounter = new AtomicLong(
-			fragenListe.stream().mapToLong(FrageDTO::getId).max().orElse(0));
-		this.antwortIdCounter = new AtomicLong(
-			antwortenListe.stream().mapToLong(AntwortDTO::getId).max().orElse(0));
-		this.ergebnisIdCounter = new AtomicLong(
-			ergebnisseListe.stream().mapToLong(QuizErgebnisDTO::getId).max().orElse(0));
+		this.themaIdCounter = new AtomicLong(maxId(themen.keySet()));
+		this.frageIdCounter = new AtomicLong(maxId(fragen.keySet()));
+		this.antwortIdCounter = new AtomicLong(maxId(frageIdNachAntwortId.keySet()));
+		this.ergebnisIdCounter = new AtomicLong(ergebnisse.maxId());
+
+		this.flusher = new LokalFlusher(LokalFlusher.Strategie.ausProperties(),
+			PropertiesLoader.getIntProperty("quiz.database.lokal.flush.interval.ms", 500), this::flush);
+		fortschritt.accept("Lokale Daten geladen", 100);
 	}
 
 	// --- Themen-Operationen ---
 	@Override
 	public List<ThemaDTO> findAllThemen() {
-		lock.readLock().lock();
-		try {
-			return new ArrayList<>(themenListe);
-		} finally {
-			lock.readLock().unlock();
-		}
+		return katalog.themen;
 	}
 
 	@Override
 	public Optional<ThemaDTO> findThemaById(long id) {
-		lock.readLock().lock();
-		try {
-			return themenListe.stream().filter(t -> t.getId() == id).findFirst();
-		} finally {
-			lock.readLock().unlock();
-		}
+		return Optional.ofNullable(katalog.themenNachId.get(id)).map(LokalRepository::kopie);
 	}
 
 	@Override
 	public Optional<ThemaDTO> findThemaByTitel(String titel) {
-		lock.readLock().lock();
-		try {
-			return themenListe.stream().filter(t -> t.getTitel().equalsIgnoreCase(titel)).findFirst();
-		} finally {
-			lock.readLock().unlock();
-		}
+		return Optional.ofNullable(katalog.themenNachTitel.get(titelSchluessel(titel))).map(LokalRepository::kopie);
 	}
 
 	@Override
 	public ThemaDTO saveThema(ThemaDTO thema) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
 			if (thema.getId() <= 0) {
 				// Neues Thema
 				thema.setId(themaIdCounter.incrementAndGet());
-				themenListe.add(thema);
-			} else {
-				// Bestehendes Thema aktualisieren
-				for (int i = 0; i < themenListe.size(); i++) {
-					if (themenListe.get(i).getId() == thema.getId()) {
-						themenListe.set(i, thema);
-						break;
-					}
-				}
 			}
-
-			// Anzahl Fragen aktualisieren
-			long anzahlFragen = fragenListe.stream()
-				.filter(f -> f.getThemaName() != null && 
-					f.getThemaName().equals(thema.getTitel())).count();
-			thema.setAnzahlFragen((int) anzahlFragen);
-
-			speichereDatenInDatei(THEMEN_DATEINAME, themenListe);
-			return thema;
+			// Vor der Änderung kodieren: schlägt das fehl, bleibt der Stand unverändert
+			byte[] datensatz = kodiere(LokalJournal.THEMA, out -> {
+				out.writeLong(thema.getId());
+				LokalJournal.schreibeText(out, thema.getTitel());
+				LokalJournal.schreibeText(out, thema.getInformation());
+			});
+			ThemaDTO gespeichert = uebernehmeThema(thema);
+			publiziereKatalog();
+			thema.setAnzahlFragen(gespeichert.getAnzahlFragen());
+			vormerken(datensatz, THEMEN_DATEINAME);
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
+		return thema;
 	}
 
 	@Override
 	public void deleteThema(long id) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
-			// Alle Fragen und Antworten des Themas löschen
-			Optional<ThemaDTO> thema = findThemaById(id);
-			if (thema.isPresent()) {
-				String themaName = thema.get().getTitel();
-				
-				// Fragen des Themas finden und löschen
-				List<FrageDTO> fragenZuLoeschen = fragenListe.stream()
-					.filter(f -> themaName.equals(f.getThemaName()))
-					.collect(Collectors.toList());
-				
-				for (FrageDTO frage : fragenZuLoeschen) {
-					// Antworten der Frage löschen
-					antwortenListe.removeIf(a -> frage.getAntworten().stream()
-						.anyMatch(fa -> fa.getId() == a.getId()));
-				}
-				
-				// Fragen löschen
-				fragenListe.removeAll(fragenZuLoeschen);
-				
-				// Thema löschen
-				themenListe.removeIf(t -> t.getId() == id);
-				
-				// Alle Dateien aktualisieren
-				speichereDatenInDatei(THEMEN_DATEINAME, themenListe);
-				speichereDatenInDatei(FRAGEN_DATEINAME, fragenListe);
-				speichereDatenInDatei(ANTWORTEN_DATEINAME, antwortenListe);
+			if (entferneThema(id)) {
+				publiziereKatalog();
+				vormerken(LokalJournal.THEMA_LOESCHEN, out -> out.writeLong(id),
+					THEMEN_DATEINAME, FRAGEN_DATEINAME);
 			}
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
 	}
 
 	@Override
 	public boolean existsThemaWithTitel(String titel) {
-		lock.readLock().lock();
-		try {
-			return themenListe.stream().anyMatch(t -> t.getTitel().equalsIgnoreCase(titel));
-		} finally {
-			lock.readLock().unlock();
-		}
+		return katalog.themenNachTitel.containsKey(titelSchluessel(titel));
 	}
 
 	// --- Fragen-Operationen ---
 	@Override
 	public List<FrageDTO> findFragenByThemaId(long themaId) {
-		lock.readLock().lock();
-		try {
-			Optional<ThemaDTO> thema = findThemaById(themaId);
-			if (thema.isPresent()) {
-				return fragenListe.stream()
-					.filter(f -> thema.get().getTitel().equals(f.getThemaName()))
-					.collect(Collectors.toList());
-			}
-			return new ArrayList<>();
-		} finally {
-			lock.readLock().unlock();
-		}
+		return katalog.fragenDesThemas(themaId);
 	}
 
 	@Override
 	public List<FrageDTO> findFragenByThemaName(String themaName) {
-		lock.readLock().lock();
-		try {
-			return fragenListe.stream()
-				.filter(f -> themaName.equals(f.getThemaName()))
-				.collect(Collectors.toList());
-		} finally {
-			lock.readLock().unlock();
+		KatalogStand stand = katalog;
+		ThemaDTO thema = stand.themenNachTitel.get(titelSchluessel(themaName));
+		if (thema != null) {
+			return stand.fragenDesThemas(thema.getId());
 		}
+		return List.of();
 	}
 
 	@Override
 	public Optional<FrageDTO> findFrageById(long id) {
-		lock.readLock().lock();
-		try {
-			return fragenListe.stream().filter(f -> f.getId() == id).findFirst();
-		} finally {
-			lock.readLock().unlock();
-		}
+		return Optional.ofNullable(veroeffentlichteFragen.get(id)).map(LokalRepository::kopie);
 	}
 
 	@Override
 	public Optional<FrageDTO> findFrageByTitel(String titel, long themaId) {
-		lock.readLock().lock();
-		try {
-			Optional<ThemaDTO> thema = findThemaById(themaId);
-			if (thema.isPresent()) {
-				return fragenListe.stream()
-					.filter(f -> thema.get().getTitel().equals(f.getThemaName()) && 
-						titel.equalsIgnoreCase(f.getTitel()))
-					.findFirst();
-			}
-			return Optional.empty();
-		} finally {
-			lock.readLock().unlock();
-		}
+		return katalog.sucheFrageNachTitel(titel, themaId).map(LokalRepository::kopie);
 	}
 
 	@Override
 	public FrageDTO saveFrage(FrageDTO frage, long themaId) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
-			Optional<ThemaDTO> thema = findThemaById(themaId);
-			if (thema.isEmpty()) {
+			if (!themen.containsKey(themaId)) {
 				throw new PersistenceException("Thema mit ID " + themaId + " nicht gefunden");
 			}
-			
-			// Thema-Name setzen
-			frage.setThemaName(thema.get().getTitel());
-			
+
 			if (frage.getId() <= 0) {
 				// Neue Frage
 				frage.setId(frageIdCounter.incrementAndGet());
-				fragenListe.add(frage);
-			} else {
-				// Bestehende Frage aktualisieren
-				for (int i = 0; i < fragenListe.size(); i++) {
-					if (fragenListe.get(i).getId() == frage.getId()) {
-						fragenListe.set(i, frage);
-						break;
-					}
-				}
 			}
 
-			// Antworten-IDs setzen und speichern
+			// Antworten-IDs vergeben, damit das Journal vollständige Datensätze enthält
 			for (AntwortDTO antwort : frage.getAntworten()) {
 				if (antwort.getId() <= 0) {
 					antwort.setId(antwortIdCounter.incrementAndGet());
 				}
-				saveAntwort(antwort, frage.getId());
 			}
-
-			// Themen-Anzahl aktualisieren
-			thema.get().setAnzahlFragen(findFragenByThemaId(themaId).size());
-
-			speichereDatenInDatei(FRAGEN_DATEINAME, fragenListe);
-			speichereDatenInDatei(THEMEN_DATEINAME, themenListe);
-			
-			return frage;
+			byte[] datensatz = kodiere(LokalJournal.FRAGE, out -> {
+				out.writeLong(themaId);
+				out.writeLong(frage.getId());
+				LokalJournal.schreibeText(out, frage.getTitel());
+				LokalJournal.schreibeText(out, frage.getText());
+				out.writeInt(frage.getAntworten().size());
+				for (AntwortDTO antwort : frage.getAntworten()) {
+					schreibeAntwort(out, antwort);
+				}
+			});
+			FrageDTO gespeichert = uebernehmeFrage(frage, themaId);
+			publiziereKatalog();
+			frage.setThemaName(gespeichert.getThemaName());
+			vormerken(datensatz, FRAGEN_DATEINAME, THEMEN_DATEINAME);
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
+		return frage;
 	}
 
 	@Override
 	public void deleteFrage(long id) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
-			Optional<FrageDTO> frage = findFrageById(id);
-			if (frage.isPresent()) {
-				// Antworten der Frage löschen
-				antwortenListe.removeIf(a -> frage.get().getAntworten().stream()
-					.anyMatch(fa -> fa.getId() == a.getId()));
-				
-				// Frage löschen
-				fragenListe.removeIf(f -> f.getId() == id);
-				
-				// Themen-Anzahl aktualisieren
-				String themaName = frage.get().getThemaName();
-				themenListe.stream()
-					.filter(t -> themaName.equals(t.getTitel()))
-					.findFirst()
-					.ifPresent(t -> t.setAnzahlFragen(findFragenByThemaName(themaName).size()));
-				
-				// Alle Dateien aktualisieren
-				speichereDatenInDatei(FRAGEN_DATEINAME, fragenListe);
-				speichereDatenInDatei(ANTWORTEN_DATEINAME, antwortenListe);
-				speichereDatenInDatei(THEMEN_DATEINAME, themenListe);
+			if (entferneFrage(id)) {
+				publiziereKatalog();
+				vormerken(LokalJournal.FRAGE_LOESCHEN, out -> out.writeLong(id),
+					FRAGEN_DATEINAME, THEMEN_DATEINAME);
 			}
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
 	}
 
 	@Override
 	public boolean existsFrageWithTitel(String titel, long themaId) {
-		lock.readLock().lock();
-		try {
-			Optional<ThemaDTO> thema = findThemaById(themaId);
-			if (thema.isPresent()) {
-				return fragenListe.stream()
-					.anyMatch(f -> thema.get().getTitel().equals(f.getThemaName()) && 
-						titel.equalsIgnoreCase(f.getTitel()));
-			}
-			return false;
-		} finally {
-			lock.readLock().unlock();
-		}
+		return katalog.sucheFrageNachTitel(titel, themaId).isPresent();
 	}
 
 	// --- Antworten-Operationen ---
 	@Override
 	public List<AntwortDTO> findAntwortenByFrageId(long frageId) {
-		lock.readLock().lock();
-		try {
-			Optional<FrageDTO> frage = findFrageById(frageId);
-			if (frage.isPresent()) {
-				return frage.get().getAntworten();
-			}
-			return new ArrayList<>();
-		} finally {
-			lock.readLock().unlock();
+		FrageDTO frage = veroeffentlichteFragen.get(frageId);
+		if (frage != null) {
+			return frage.getAntworten();
 		}
+		return List.of();
 	}
 
 	@Override
 	public AntwortDTO saveAntwort(AntwortDTO antwort, long frageId) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
+			if (!fragen.containsKey(frageId)) {
+				throw new PersistenceException("Frage mit ID " + frageId + " nicht gefunden");
+			}
 			if (antwort.getId() <= 0) {
 				// Neue Antwort
 				antwort.setId(antwortIdCounter.incrementAndGet());
-				antwortenListe.add(antwort);
-			} else {
-				// Bestehende Antwort aktualisieren
-				for (int i = 0; i < antwortenListe.size(); i++) {
-					if (antwortenListe.get(i).getId() == antwort.getId()) {
-						antwortenListe.set(i, antwort);
-						break;
-					}
-				}
 			}
-
-			speichereDatenInDatei(ANTWORTEN_DATEINAME, antwortenListe);
-			return antwort;
+			byte[] datensatz = kodiere(LokalJournal.ANTWORT, out -> {
+				out.writeLong(frageId);
+				schreibeAntwort(out, antwort);
+			});
+			uebernehmeAntwort(frageId, antwort);
+			publiziereKatalog();
+			vormerken(datensatz, FRAGEN_DATEINAME);
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
+		return antwort;
 	}
 
 	@Override
 	public void deleteAntwort(long id) {
-		lock.writeLock().lock();
+		katalogLock.writeLock().lock();
 		try {
-			antwortenListe.removeIf(a -> a.getId() == id);
-			speichereDatenInDatei(ANTWORTEN_DATEINAME, antwortenListe);
+			if (entferneAntwort(id)) {
+				publiziereKatalog();
+				vormerken(LokalJournal.ANTWORT_LOESCHEN, out -> out.writeLong(id), FRAGEN_DATEINAME);
+			}
 		} finally {
-			lock.writeLock().unlock();
+			katalogLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
 	}
 
 	// --- Quiz-Statistik-Operationen ---
 	@Override
 	public void saveQuizErgebnis(QuizErgebnisDTO ergebnis) {
-		lock.writeLock().lock();
+		ergebnisLock.writeLock().lock();
 		try {
-			if (ergebnis.getId() <= 0) {
-				// Neues Ergebnis
-				ergebnis.setId(ergebnisIdCounter.incrementAndGet());
-				ergebnisseListe.add(ergebnis);
-			} else {
-				// Bestehendes Ergebnis aktualisieren
-				for (int i = 0; i < ergebnisseListe.size(); i++) {
-					if (ergebnisseListe.get(i).getId() == ergebnis.getId()) {
-						ergebnisseListe.set(i, ergebnis);
-						break;
-					}
-				}
+			speichereErgebnis(ergebnis);
+		} finally {
+			ergebnisLock.writeLock().unlock();
+		}
+		schreibeFallsSofort();
+	}
+
+	@Override
+	public void saveQuizErgebnisse(Collection<QuizErgebnisDTO> neueErgebnisse) {
+		// In Blöcken: je Block ein Lock und ein gemeinsames Anhängen an das Journal
+		List<QuizErgebnisDTO> block = new ArrayList<>(ERGEBNIS_BLOCK);
+		for (QuizErgebnisDTO ergebnis : neueErgebnisse) {
+			block.add(ergebnis);
+			if (block.size() == ERGEBNIS_BLOCK) {
+				speichereErgebnisBlock(block);
+				block.clear();
+			}
+		}
+		if (!block.isEmpty()) {
+			speichereErgebnisBlock(block);
+		}
+	}
+
+	private void speichereErgebnisBlock(List<QuizErgebnisDTO> block) {
+		ergebnisLock.writeLock().lock();
+		try {
+			for (QuizErgebnisDTO ergebnis : block) {
+				speichereErgebnis(ergebnis);
 			}
-			
-			speichereDatenInDatei(ERGEBNISSE_DATEINAME, ergebnisseListe);
 		} finally {
-			lock.writeLock().unlock();
+			ergebnisLock.writeLock().unlock();
 		}
+		schreibeFallsSofort();
+	}
+
+	/**
+	 * Speichert ein Ergebnis im Speicher und merkt es für das Journal vor.
+	 * Erwartet den Schreib-Lock für Ergebnisse.
+	 */
+	private void speichereErgebnis(QuizErgebnisDTO ergebnis) {
+		if (ergebnis.getId() <= 0) {
+			// Neues Ergebnis
+			ergebnis.setId(ergebnisIdCounter.incrementAndGet());
+		}
+		byte[] datensatz = kodiere(LokalJournal.ERGEBNIS, out -> {
+			out.writeLong(ergebnis.getId());
+			out.writeLong(ergebnis.getThemaId());
+			out.writeLong(ergebnis.getFrageId());
+			out.writeBoolean(ergebnis.isAntwortRichtig());
+			out.writeBoolean(ergebnis.isAntwortVorherGezeigt());
+			out.writeInt(ergebnis.getAntwortZeitSekunden());
+			out.writeInt(ergebnis.getPunkte());
+			LocalDateTime zeitpunkt = ergebnis.getZeitpunkt();
+			out.writeBoolean(zeitpunkt != null);
+			if (zeitpunkt != null) {
+				out.writeLong(zeitpunkt.toEpochSecond(ZoneOffset.UTC));
+				out.writeInt(zeitpunkt.getNano());
+			}
+		});
+		ergebnisse.speichere(ergebnis);
+		vormerken(datensatz, ERGEBNISSE_VERZEICHNIS);
 	}
 
 	@Override
 	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId) {
-		lock.readLock().lock();
+		ergebnisLock.readLock().lock();
 		try {
-			return ergebnisseListe.stream()
-				.filter(e -> e.getThemaId() == themaId)
-				.collect(Collectors.toList());
+			return ergebnisse.findeNachThemaId(themaId);
 		} finally {
-			lock.readLock().unlock();
+			ergebnisLock.readLock().unlock();
 		}
 	}
 
 	@Override
 	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId) {
-		lock.readLock().lock();
+		ergebnisLock.readLock().lock();
+		try {
+			return ergebnisse.findeNachFrageId(frageId);
+		} finally {
+			ergebnisLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		ergebnisLock.readLock().lock();
 		try {
-			return ergebnisseListe.stream()
-				.filter(e -> e.getFrageId() == frageId)
-				.collect(Collectors.toList());
+			return ergebnisse.seiteNachThemaId(themaId, vorZeitpunkt, vorId, limit);
 		} finally {
-			lock.readLock().unlock();
+			ergebnisLock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		ergebnisLock.readLock().lock();
+		try {
+			return ergebnisse.seiteNachFrageId(frageId, vorZeitpunkt, vorId, limit);
+		} finally {
+			ergebnisLock.readLock().unlock();
 		}
 	}
 
 	@Override
 	public List<StatistikDTO> findStatistikenByThemaId(long themaId) {
-		lock.readLock().lock();
+		ergebnisLock.readLock().lock();
 		try {
 			List<StatistikDTO> statistiken = new ArrayList<>();
-			
+
 			// Alle Fragen des Themas laden
 			List<FrageDTO> fragen = findFragenByThemaId(themaId);
-			
+
 			for (FrageDTO frage : fragen) {
-				StatistikDTO statistik = new StatistikDTO(themaId, "", frage.getId(), frage.getTitel());
-				
-				// Quiz-Ergebnisse für diese Frage laden
-				List<QuizErgebnisDTO> ergebnisse = findQuizErgebnisseByFrageId(frage.getId());
-				
-				for (QuizErgebnisDTO ergebnis : ergebnisse) {
-					statistik.addErgebnis(ergebnis.isAntwortRichtig(), 
-						ergebnis.getAntwortZeitSekunden(), ergebnis.getPunkte());
-				}
-				
+				// Summen je Segment aus den Spalten bzw. der Segment-Zusammenfassung
+				LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+				ergebnisse.summiereFrage(frage.getId(), aggregat);
+				StatistikDTO statistik = aggregat.uebertrageAuf(
+					new StatistikDTO(themaId, "", frage.getId(), frage.getTitel()));
+
 				statistiken.add(statistik);
 			}
-			
+
 			return statistiken;
 		} finally {
-			lock.readLock().unlock();
+			ergebnisLock.readLock().unlock();
 		}
 	}
 
 	@Override
 	public List<StatistikDTO> findAlleStatistiken() {
-		lock.readLock().lock();
+		List<StatistikDTO> alleStatistiken = new ArrayList<>();
+
+		// Alle Themen des aktuellen Katalog-Stands
+		for (ThemaDTO thema : katalog.themen) {
+			List<StatistikDTO> themaStatistiken = findStatistikenByThemaId(thema.getId());
+			alleStatistiken.addAll(themaStatistiken);
+		}
+
+		return alleStatistiken;
+	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByThemaId(long themaId) {
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		ergebnisLock.readLock().lock();
+		try {
+			ergebnisse.summiereThema(themaId, aggregat);
+		} finally {
+			ergebnisLock.readLock().unlock();
+		}
+		return aggregat.uebertrageAuf(new StatistikDTO(themaId, "", 0, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByFrageId(long frageId) {
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		ergebnisLock.readLock().lock();
 		try {
-			List<StatistikDTO> alleStatistiken = new ArrayList<>();
-			
-			// Alle Themen laden
-			List<ThemaDTO> themen = findAllThemen();
-			
-			for (ThemaDTO thema : themen) {
-				List<StatistikDTO> themaStatistiken = findStatistikenByThemaId(thema.getId());
-				alleStatistiken.addAll(themaStatistiken);
-			}
-			
-			return alleStatistiken;
+			ergebnisse.summiereFrage(frageId, aggregat);
 		} finally {
-			lock.readLock().unlock();
+			ergebnisLock.readLock().unlock();
+		}
+		return aggregat.uebertrageAuf(new StatistikDTO(0, "", frageId, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereAlleErgebnisse() {
+		// Nur Ergebnisse zu Fragen des aktuellen Katalog-Stands, wie findAlleStatistiken()
+		KatalogStand stand = katalog;
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		ergebnisLock.readLock().lock();
+		try {
+			for (ThemaDTO thema : stand.themen) {
+				for (FrageDTO frage : stand.fragenDesThemas(thema.getId())) {
+					ergebnisse.summiereFrage(frage.getId(), aggregat);
+				}
+			}
+		} finally {
+			ergebnisLock.readLock().unlock();
+		}
+		return aggregat.uebertrageAuf(new StatistikDTO(0, "", 0, ""));
+	}
+
+	// --- Checkpoint und Lebenszyklus ---
+
+	/**
+	 * Kompaktiert das Journal: Schreibt alle Listen als Snapshots und löscht
+	 * anschließend die darin enthaltenen Journal-Segmente.
+	 *
+	 * <p>Nur das Rotieren des Journals geschieht unter den Schreibsperren. Die
+	 * Snapshots werden danach aus Kopien geschrieben, während Leser und Schreiber
+	 * weiterlaufen; neue Änderungen landen im frischen Journal. Bricht der Vorgang
+	 * ab, werden die versiegelten Segmente beim nächsten Start erneut eingespielt.</p>
+	 *
+	 * <p>Im Snapshot-Modus sind die Dateien bereits aktuell, die Methode hat dann
+	 * keine Wirkung.</p>
+	 */
+	public void checkpoint() {
+		if (journal == null) {
+			return;
+		}
+		synchronized (kompaktierSperre) {
+			long start = System.nanoTime();
+			List<Runnable> schreiber = new ArrayList<>();
+			long segment;
+			synchronized (ioSperre) {
+				if (journal.getAnzahlEintraege() == 0 && !hatAusstehendeEintraege()) {
+					return;
+				}
+
+				// Konsistenten Stand kopieren und das Journal an genau dieser Stelle versiegeln
+				katalogLock.writeLock().lock();
+				ergebnisLock.writeLock().lock();
+				try {
+					schreiber.add(snapshotSchreiber(THEMEN_DATEINAME));
+					schreiber.add(snapshotSchreiber(FRAGEN_DATEINAME));
+					schreiber.add(snapshotSchreiber(ERGEBNISSE_VERZEICHNIS));
+					synchronized (ausstehendSperre) {
+						journal.anhaengen(ausstehendeEintraege);
+						ausstehendeEintraege.clear();
+					}
+					segment = journal.rotiere();
+				} finally {
+					ergebnisLock.writeLock().unlock();
+					katalogLock.writeLock().unlock();
+				}
+			}
+
+			schreiber.forEach(Runnable::run);
+			long freigegeben = journal.entferneSegmenteBis(segment);
+
+			long dauerMs = (System.nanoTime() - start) / 1_000_000;
+			kompaktierer.protokolliere(dauerMs, freigegeben);
+			System.out.println("LokalRepository: Journal kompaktiert in " + dauerMs + " ms, "
+				+ freigegeben + " Bytes freigegeben");
+		}
+	}
+
+	/**
+	 * Gibt die Anzahl der bisherigen Journal-Kompaktierungen zurück.
+	 *
+	 * @return Anzahl Kompaktierungen (0 im Snapshot-Modus)
+	 */
+	public long getAnzahlKompaktierungen() {
+		return kompaktierer != null ? kompaktierer.getAnzahlKompaktierungen() : 0;
+	}
+
+	/**
+	 * Gibt die Dauer der letzten Journal-Kompaktierung zurück.
+	 *
+	 * @return Dauer in Millisekunden
+	 */
+	public long getLetzteKompaktierungsdauerMs() {
+		return kompaktierer != null ? kompaktierer.getLetzteDauerMs() : 0;
+	}
+
+	/**
+	 * Gibt die summierte Dauer aller Journal-Kompaktierungen zurück.
+	 *
+	 * @return Dauer in Millisekunden
+	 */
+	public long getGesamteKompaktierungsdauerMs() {
+		return kompaktierer != null ? kompaktierer.getGesamtDauerMs() : 0;
+	}
+
+	/**
+	 * Gibt die durch Kompaktierungen insgesamt freigegebenen Journal-Bytes zurück.
+	 *
+	 * @return Freigegebene Bytes
+	 */
+	public long getFreigegebeneJournalBytes() {
+		return kompaktierer != null ? kompaktierer.getFreigegebeneBytes() : 0;
+	}
+
+	/**
+	 * Schreibt alle vorgemerkten Änderungen (Flush-Barriere).
+	 *
+	 * <p>Nach der Rückkehr sind alle vor dem Aufruf abgeschlossenen Änderungen im
+	 * Journal bzw. in den Snapshot-Dateien. Bei der Strategie {@code write} ist nichts
+	 * vorgemerkt.</p>
+	 */
+	@Override
+	public void flush() {
+		synchronized (flushSperre) {
+			if (journal != null) {
+				flusheJournal();
+			} else {
+				flusheSnapshots();
+			}
+		}
+	}
+
+	/**
+	 * Beendet Flusher und Kompaktierer, schreibt ausstehende Änderungen, führt einen
+	 * abschließenden Checkpoint durch und schließt das Journal.
+	 */
+	@Override
+	public void close() {
+		flusher.close();
+		flush();
+		if (journal != null) {
+			kompaktierer.close();
+			checkpoint();
+			journal.close();
 		}
 	}
 
+	// --- Änderungen auf den Speicher anwenden (ohne Persistierung) ---
+	/**
+	 * Friert das Thema ein und indexiert es.
+	 *
+	 * @return Das eingefrorene, veröffentlichte Thema
+	 */
+	private ThemaDTO uebernehmeThema(ThemaDTO thema) {
+		ThemaDTO vorher = themen.get(thema.getId());
+		GespeichertesThema gespeichert = new GespeichertesThema(thema, anzahlFragen(thema.getId()));
+		indexiereThema(gespeichert);
+
+		// Umbenennung: Themenname in den Fragen des Themas nachziehen
+		if (vorher != null && !Objects.equals(vorher.getTitel(), thema.getTitel())) {
+			for (Long frageId : new ArrayList<>(frageIdsNachThemaId.getOrDefault(thema.getId(), Set.of()))) {
+				FrageDTO frage = fragen.get(frageId);
+				indexiereFrage(new GespeicherteFrage(frage, thema.getTitel(), frage.getAntworten()), thema.getId());
+			}
+		}
+		return gespeichert;
+	}
+
+	private boolean entferneThema(long id) {
+		ThemaDTO thema = themen.remove(id);
+		if (thema == null) {
+			return false;
+		}
+		themenNachTitel.remove(indexierterThemaTitel.remove(id));
+		themenGeaendert = true;
+		geaenderteFragenlisten.add(id);
+
+		// Alle Fragen und Antworten des Themas löschen
+		Set<Long> frageIds = frageIdsNachThemaId.remove(id);
+		if (frageIds != null) {
+			for (Long frageId : frageIds) {
+				FrageDTO frage = fragen.remove(frageId);
+				veroeffentlichteFragen.remove(frageId);
+				themaIdNachFrageId.remove(frageId);
+				entferneAntwortenDerFrage(frage);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Friert die Frage samt Antworten ein und indexiert sie beim Thema.
+	 *
+	 * @return Die eingefrorene, veröffentlichte Frage oder {@code null}, wenn das Thema fehlt
+	 */
+	private FrageDTO uebernehmeFrage(FrageDTO frage, long themaId) {
+		ThemaDTO thema = themen.get(themaId);
+		if (thema == null) {
+			return null;
+		}
+
+		// Thema-Name setzen
+		GespeicherteFrage gespeichert = new GespeicherteFrage(frage, thema.getTitel(), frage.getAntworten());
+		Long alteThemaId = themaIdNachFrageId.get(frage.getId());
+		indexiereFrage(gespeichert, themaId);
+
+		// Themen-Anzahl aktualisieren (auch beim bisherigen Thema, falls die Frage verschoben wurde)
+		aktualisiereAnzahlFragen(thema, anzahlFragen(themaId));
+		if (alteThemaId != null && alteThemaId != themaId && themen.containsKey(alteThemaId)) {
+			aktualisiereAnzahlFragen(themen.get(alteThemaId), anzahlFragen(alteThemaId));
+		}
+		return gespeichert;
+	}
+
+	private boolean entferneFrage(long id) {
+		FrageDTO frage = fragen.remove(id);
+		if (frage == null) {
+			return false;
+		}
+		veroeffentlichteFragen.remove(id);
+		entferneAntwortenDerFrage(frage);
+
+		Long themaId = themaIdNachFrageId.remove(id);
+		if (themaId != null) {
+			geaenderteFragenlisten.add(themaId);
+			Set<Long> frageIds = frageIdsNachThemaId.get(themaId);
+			if (frageIds != null) {
+				frageIds.remove(id);
+			}
+
+			// Themen-Anzahl aktualisieren
+			ThemaDTO thema = themen.get(themaId);
+			if (thema != null) {
+				aktualisiereAnzahlFragen(thema, anzahlFragen(themaId));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Verknüpft die geladenen Fragen mit ihren Themen. Dateien älterer Versionen
+	 * enthalten keine Themen-ID, dort wird über den Themennamen zugeordnet.
+	 *
+	 * @return {@code true}, wenn mindestens eine Frage über den Namen zugeordnet wurde
+	 */
+	private boolean verknuepfeGeladeneFragen(List<FrageDTO> fragenListe, Map<Long, Long> themaIdsDerFragen) {
+		boolean migriert = false;
+		int ohneThema = 0;
+		for (FrageDTO frage : fragenListe) {
+			long themaId = themaIdsDerFragen.getOrDefault(frage.getId(), 0L);
+			if (!themen.containsKey(themaId)) {
+				ThemaDTO thema = themenNachTitel.get(titelSchluessel(frage.getThemaName()));
+				themaId = thema != null ? thema.getId() : 0;
+				migriert |= thema != null;
+			}
+			String themaName = frage.getThemaName();
+			if (themaId > 0) {
+				themaName = themen.get(themaId).getTitel();
+			} else {
+				ohneThema++;
+			}
+			indexiereFrage(new GespeicherteFrage(frage, themaName, frage.getAntworten()), themaId);
+		}
+		if (ohneThema > 0) {
+			System.err.println("LokalRepository: " + ohneThema + " Fragen ohne zugehöriges Thema gefunden");
+		}
+		return migriert;
+	}
+
+	/**
+	 * Veröffentlichte Themen werden nicht verändert, sondern durch ein neues ersetzt.
+	 */
+	private void aktualisiereAnzahlFragen(ThemaDTO thema, int anzahl) {
+		if (thema.getAnzahlFragen() != anzahl) {
+			indexiereThema(new GespeichertesThema(thema, anzahl));
+		}
+	}
+
+	/**
+	 * Fügt eine Antwort in ihre Frage ein bzw. ersetzt sie dort. Die veröffentlichte
+	 * Frage wird dabei durch eine neue ersetzt.
+	 */
+	private void uebernehmeAntwort(long frageId, AntwortDTO antwort) {
+		if (!fragen.containsKey(frageId)) {
+			return;
+		}
+		Long bisherigeFrageId = frageIdNachAntwortId.get(antwort.getId());
+		if (bisherigeFrageId != null && bisherigeFrageId != frageId) {
+			entferneAntwort(antwort.getId());
+		}
+
+		FrageDTO frage = fragen.get(frageId);
+		AntwortDTO gespeichert = eingefroren(antwort);
+		List<AntwortDTO> neueAntworten = new ArrayList<>(frage.getAntworten());
+		boolean ersetzt = false;
+		for (int i = 0; i < neueAntworten.size(); i++) {
+			if (neueAntworten.get(i).getId() == antwort.getId()) {
+				neueAntworten.set(i, gespeichert);
+				ersetzt = true;
+			}
+		}
+		if (!ersetzt) {
+			neueAntworten.add(gespeichert);
+		}
+		indexiereFrage(new GespeicherteFrage(frage, frage.getThemaName(), neueAntworten),
+			themaIdNachFrageId.getOrDefault(frageId, 0L));
+	}
+
+	private boolean entferneAntwort(long id) {
+		Long frageId = frageIdNachAntwortId.get(id);
+		if (frageId == null) {
+			return false;
+		}
+		FrageDTO frage = fragen.get(frageId);
+		List<AntwortDTO> neueAntworten = new ArrayList<>(frage.getAntworten());
+		neueAntworten.removeIf(antwort -> antwort.getId() == id);
+		indexiereFrage(new GespeicherteFrage(frage, frage.getThemaName(), neueAntworten),
+			themaIdNachFrageId.getOrDefault(frageId, 0L));
+		return true;
+	}
+
+	private void entferneAntwortenDerFrage(FrageDTO frage) {
+		if (frage != null) {
+			for (AntwortDTO antwort : frage.getAntworten()) {
+				frageIdNachAntwortId.remove(antwort.getId());
+			}
+		}
+	}
+
+	// --- Index-Pflege ---
+	// Indexiert werden nur eingefrorene Objekte, nie die des Aufrufers
+	private void indexiereThema(GespeichertesThema thema) {
+		themen.put(thema.getId(), thema);
+		String alterSchluessel = indexierterThemaTitel.put(thema.getId(), titelSchluessel(thema.getTitel()));
+		if (alterSchluessel != null) {
+			themenNachTitel.remove(alterSchluessel);
+		}
+		themenNachTitel.put(titelSchluessel(thema.getTitel()), thema);
+		themenGeaendert = true;
+	}
+
+	private void indexiereFrage(GespeicherteFrage frage, long themaId) {
+		entferneAntwortenDerFrage(fragen.put(frage.getId(), frage));
+		veroeffentlichteFragen.put(frage.getId(), frage);
+		for (AntwortDTO antwort : frage.getAntworten()) {
+			frageIdNachAntwortId.put(antwort.getId(), frage.getId());
+		}
+		Long alteThemaId = themaIdNachFrageId.put(frage.getId(), themaId);
+		if (alteThemaId != null && alteThemaId != themaId) {
+			Set<Long> alteIds = frageIdsNachThemaId.get(alteThemaId);
+			if (alteIds != null) {
+				alteIds.remove(frage.getId());
+			}
+			geaenderteFragenlisten.add(alteThemaId);
+		}
+		frageIdsNachThemaId.computeIfAbsent(themaId, k -> new LinkedHashSet<>()).add(frage.getId());
+		geaenderteFragenlisten.add(themaId);
+	}
+
+	private int anzahlFragen(long themaId) {
+		return frageIdsNachThemaId.getOrDefault(themaId, Set.of()).size();
+	}
+
+	/**
+	 * Veröffentlicht einen neuen Katalog-Stand. Übernommen werden nur die seit der
+	 * letzten Veröffentlichung geänderten Teile: die Themen-Indizes (wenige Einträge)
+	 * bei Themen-Änderungen und die Fragenliste der betroffenen Themen; alle übrigen
+	 * Listen teilt der neue Stand mit dem bisherigen.
+	 * Muss unter dem Katalog-Schreib-Lock aufgerufen werden.
+	 */
+	private void publiziereKatalog() {
+		KatalogStand bisher = katalog;
+		List<ThemaDTO> themenListe = bisher.themen;
+		Map<Long, ThemaDTO> themenNachId = bisher.themenNachId;
+		Map<String, ThemaDTO> themenNachTitelStand = bisher.themenNachTitel;
+		if (themenGeaendert) {
+			themenListe = Collections.unmodifiableList(new ArrayList<>(themen.values()));
+			themenNachId = Collections.unmodifiableMap(new HashMap<>(themen));
+			themenNachTitelStand = Collections.unmodifiableMap(new HashMap<>(themenNachTitel));
+			themenGeaendert = false;
+		}
+		Map<Long, List<FrageDTO>> fragenNachThemaId = bisher.fragenNachThemaId;
+		if (!geaenderteFragenlisten.isEmpty()) {
+			Map<Long, List<FrageDTO>> neu = new HashMap<>(fragenNachThemaId);
+			for (Long themaId : geaenderteFragenlisten) {
+				Set<Long> frageIds = frageIdsNachThemaId.get(themaId);
+				if (frageIds == null || frageIds.isEmpty()) {
+					neu.remove(themaId);
+					continue;
+				}
+				List<FrageDTO> fragenDesThemas = new ArrayList<>(frageIds.size());
+				for (Long frageId : frageIds) {
+					fragenDesThemas.add(fragen.get(frageId));
+				}
+				neu.put(themaId, Collections.unmodifiableList(fragenDesThemas));
+			}
+			fragenNachThemaId = Collections.unmodifiableMap(neu);
+			geaenderteFragenlisten.clear();
+		}
+		katalog = new KatalogStand(themenListe, themenNachId, themenNachTitelStand, fragenNachThemaId);
+	}
+
+	private static ThemaDTO kopie(ThemaDTO thema) {
+		return new ThemaDTO(thema.getId(), thema.getTitel(), thema.getInformation(), thema.getAnzahlFragen());
+	}
+
+	private static FrageDTO kopie(FrageDTO frage) {
+		FrageDTO kopie = new FrageDTO(frage.getId(), frage.getTitel(), frage.getText(), frage.getThemaName());
+		for (AntwortDTO antwort : frage.getAntworten()) {
+			kopie.addAntwort(new AntwortDTO(antwort.getId(), antwort.getText(), antwort.istRichtig()));
+		}
+		return kopie;
+	}
+
+	private static AntwortDTO eingefroren(AntwortDTO antwort) {
+		return antwort instanceof GespeicherteAntwort ? antwort : new GespeicherteAntwort(antwort);
+	}
+
+	private static UnsupportedOperationException eingefroren() {
+		return new UnsupportedOperationException(
+			"Gespeicherte Katalog-Objekte sind unveränderlich, zum Bearbeiten findXxxById verwenden");
+	}
+
+	/**
+	 * Wartet auf einen Ladeschritt und gibt dessen Laufzeitfehler unverpackt weiter.
+	 */
+	private static <T> T warte(CompletableFuture<T> schritt) {
+		try {
+			return schritt.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	private static String titelSchluessel(String titel) {
+		return titel == null ? "" : titel.toLowerCase(Locale.ROOT);
+	}
+
+	private static long maxId(Collection<Long> ids) {
+		long max = 0;
+		for (long id : ids) {
+			max = Math.max(max, id);
+		}
+		return max;
+	}
+
+	// --- Journal ---
+
+	/**
+	 * Kodiert den Journal-Datensatz einer Änderung, bevor sie übernommen wird.
+	 *
+	 * @return Der Datensatz oder {@code null} im Snapshot-Modus
+	 */
+	private byte[] kodiere(byte operation, LokalJournal.Eintrag eintrag) {
+		return journal != null ? LokalJournal.kodiere(operation, eintrag) : null;
+	}
+
+	private void vormerken(byte operation, LokalJournal.Eintrag eintrag, String... betroffeneDateien) {
+		vormerken(kodiere(operation, eintrag), betroffeneDateien);
+	}
+
+	/**
+	 * Merkt eine Änderung zum Schreiben vor: im Journal-Modus den kodierten Datensatz,
+	 * sonst die betroffenen Snapshot-Dateien. Wird unter dem Schreib-Lock aufgerufen,
+	 * damit die Reihenfolge der Datensätze der Reihenfolge der Änderungen entspricht.
+	 */
+	private void vormerken(byte[] datensatz, String... betroffeneDateien) {
+		if (journal != null) {
+			synchronized (ausstehendSperre) {
+				ausstehendeEintraege.add(datensatz);
+			}
+		} else {
+			synchronized (ausstehendSperre) {
+				Collections.addAll(ausstehendeDateien, betroffeneDateien);
+			}
+		}
+	}
+
+	/**
+	 * Schreibt bei der Strategie {@code write} die vorgemerkten Änderungen im
+	 * aufrufenden Thread. Darf nur außerhalb der Locks aufgerufen werden.
+	 */
+	private void schreibeFallsSofort() {
+		if (flusher.schreibtSofort()) {
+			flush();
+		}
+	}
+
+	private void flusheJournal() {
+		boolean kompaktierungFaellig;
+		synchronized (ioSperre) {
+			List<byte[]> gruppe;
+			synchronized (ausstehendSperre) {
+				gruppe = new ArrayList<>(ausstehendeEintraege);
+				ausstehendeEintraege.clear();
+			}
+			try {
+				journal.anhaengen(gruppe);
+			} catch (PersistenceException e) {
+				synchronized (ausstehendSperre) {
+					ausstehendeEintraege.addAll(0, gruppe);
+				}
+				throw e;
+			}
+			kompaktierungFaellig = kompaktierer.istFaellig(journal.getAnzahlEintraege(), journal.getGroesse());
+		}
+		if (kompaktierungFaellig) {
+			kompaktierer.anstossen(this::checkpoint);
+		}
+	}
+
+	private void flusheSnapshots() {
+		// Betroffene Listen unter dem Lese-Lock kopieren, geschrieben wird außerhalb
+		Set<String> dateien;
+		List<Runnable> schreiber = new ArrayList<>();
+		katalogLock.readLock().lock();
+		ergebnisLock.readLock().lock();
+		try {
+			synchronized (ausstehendSperre) {
+				dateien = new LinkedHashSet<>(ausstehendeDateien);
+				ausstehendeDateien.clear();
+			}
+			for (String dateiname : dateien) {
+				schreiber.add(snapshotSchreiber(dateiname));
+			}
+		} finally {
+			ergebnisLock.readLock().unlock();
+			katalogLock.readLock().unlock();
+		}
+
+		synchronized (ioSperre) {
+			try {
+				schreiber.forEach(Runnable::run);
+			} catch (PersistenceException e) {
+				synchronized (ausstehendSperre) {
+					ausstehendeDateien.addAll(dateien);
+				}
+				throw e;
+			}
+		}
+	}
+
+	private boolean hatAusstehendeEintraege() {
+		synchronized (ausstehendSperre) {
+			return !ausstehendeEintraege.isEmpty();
+		}
+	}
+
+	/**
+	 * Wendet einen eingelesenen Journal-Datensatz auf die Listen an.
+	 * Alle Operationen sind idempotent, da sie explizite IDs enthalten.
+	 */
+	private void spieleEin(byte operation, DataInputStream in) throws IOException {
+		switch (operation) {
+		case LokalJournal.THEMA:
+			uebernehmeThema(new ThemaDTO(in.readLong(), LokalJournal.leseText(in), LokalJournal.leseText(in), 0));
+			break;
+		case LokalJournal.THEMA_LOESCHEN:
+			entferneThema(in.readLong());
+			break;
+		case LokalJournal.FRAGE: {
+			long themaId = in.readLong();
+			FrageDTO frage = new FrageDTO(in.readLong(), LokalJournal.leseText(in), LokalJournal.leseText(in), "");
+			int anzahlAntworten = in.readInt();
+			for (int i = 0; i < anzahlAntworten; i++) {
+				frage.addAntwort(leseAntwort(in));
+			}
+			uebernehmeFrage(frage, themaId);
+			break;
+		}
+		case LokalJournal.FRAGE_LOESCHEN:
+			entferneFrage(in.readLong());
+			break;
+		case LokalJournal.ANTWORT: {
+			long frageId = in.readLong();
+			uebernehmeAntwort(frageId, leseAntwort(in));
+			break;
+		}
+		case LokalJournal.ANTWORT_LOESCHEN:
+			entferneAntwort(in.readLong());
+			break;
+		case LokalJournal.ERGEBNIS: {
+			QuizErgebnisDTO ergebnis = new QuizErgebnisDTO();
+			ergebnis.setId(in.readLong());
+			ergebnis.setThemaId(in.readLong());
+			ergebnis.setFrageId(in.readLong());
+			ergebnis.setAntwortRichtig(in.readBoolean());
+			ergebnis.setAntwortVorherGezeigt(in.readBoolean());
+			ergebnis.setAntwortZeitSekunden(in.readInt());
+			ergebnis.setPunkte(in.readInt());
+			if (in.readBoolean()) {
+				ergebnis.setZeitpunkt(LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC));
+			}
+			ergebnisse.speichere(ergebnis);
+			break;
+		}
+		default:
+			throw new IOException("Unbekannte Journal-Operation: " + operation);
+		}
+	}
+
+	private static void schreibeAntwort(DataOutputStream out, AntwortDTO antwort) throws IOException {
+		out.writeLong(antwort.getId());
+		LokalJournal.schreibeText(out, antwort.getText());
+		out.writeBoolean(antwort.istRichtig());
+	}
+
+	private static AntwortDTO leseAntwort(DataInputStream in) throws IOException {
+		return new AntwortDTO(in.readLong(), LokalJournal.leseText(in), in.readBoolean());
+	}
+
 	// --- Private Hilfsmethoden ---
-	private <T> void speichereDatenInDatei(String dateiname, List<T> daten) {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dateiname))) {
-			oos.writeObject(daten);
+	/**
+	 * Kopiert die Liste zur Datei und gibt eine Aktion zurück, die die Kopie schreibt.
+	 * Muss unter dem zugehörigen Lese- oder Schreib-Lock aufgerufen werden.
+	 */
+	private Runnable snapshotSchreiber(String dateiname) {
+		Path datei = Paths.get(dateiname);
+		switch (dateiname) {
+		case THEMEN_DATEINAME: {
+			List<ThemaDTO> kopie = new ArrayList<>(themen.values());
+			return () -> LokalSnapshot.schreibeThemen(datei, kopie);
+		}
+		case FRAGEN_DATEINAME: {
+			List<FrageDTO> kopie = new ArrayList<>(fragen.values());
+			Map<Long, Long> themaIds = new HashMap<>(themaIdNachFrageId);
+			return () -> LokalSnapshot.schreibeFragen(datei, kopie, frage -> themaIds.getOrDefault(frage.getId(), 0L));
+		}
+		default:
+			// Nur geänderte Ergebnis-Segmente
+			return ergebnisse.schreiber();
+		}
+	}
+
+	/**
+	 * Antworten werden nur noch mit ihrer Frage gespeichert. Die frühere separate
+	 * Antworten-Datei enthält dieselben Antworten ein zweites Mal und wird entfernt.
+	 */
+	private void entferneAlteAntwortenDatei() {
+		try {
+			if (Files.deleteIfExists(Paths.get(ANTWORTEN_ALT_DATEINAME))) {
+				System.out.println("LokalRepository: " + ANTWORTEN_ALT_DATEINAME
+						+ " entfernt, Antworten werden mit ihrer Frage gespeichert");
+			}
 		} catch (IOException e) {
-			throw new PersistenceException("Fehler beim Speichern der lokalen Daten in " + dateiname, e);
+			System.err.println("LokalRepository: " + ANTWORTEN_ALT_DATEINAME + " konnte nicht entfernt werden: "
+					+ e.getMessage());
+		}
+	}
+
+	/**
+	 * Liest die Ergebnis-Segmente ein. Der frühere Einzel-Snapshot (bzw. dessen
+	 * {@code .ser}-Vorgänger) wird beim ersten Start auf Monats-Segmente verteilt.
+	 */
+	private LokalErgebnisSegmente ladeErgebnisSegmente() {
+		LokalErgebnisSegmente segmente = new LokalErgebnisSegmente(Paths.get(ERGEBNISSE_VERZEICHNIS),
+			PropertiesLoader.getIntProperty("quiz.database.lokal.segments.max.loaded", 12));
+		if (!segmente.istLeer()) {
+			return segmente;
+		}
+		LokalErgebnisSpeicher.Spalten alt = ladeDatenAusDatei(ERGEBNISSE_DATEINAME, LokalSnapshot.ERGEBNISSE,
+				LokalSnapshot::leseErgebnisse, () -> null);
+		if (alt != null) {
+			segmente.uebernehme(alt);
+			segmente.schreiber().run();
+			try {
+				Files.delete(Paths.get(ERGEBNISSE_DATEINAME));
+			} catch (IOException e) {
+				System.err.println("LokalRepository: " + ERGEBNISSE_DATEINAME + " konnte nicht entfernt werden: "
+						+ e.getMessage());
+			}
+			System.out.println("LokalRepository: " + alt.anzahl + " Ergebnisse aus " + ERGEBNISSE_DATEINAME
+					+ " auf Monats-Segmente in " + ERGEBNISSE_VERZEICHNIS + " verteilt");
+		}
+		return segmente;
+	}
+
+	private <T> T ladeDatenAusDatei(String dateiname, byte typ, Function<Path, T> leser, Supplier<T> leer) {
+		Path datei = Paths.get(dateiname);
+		try {
+			// Altbestand aus Java-Serialisierung einmalig übernehmen
+			Path altDatei = Paths.get(dateiname.replace(".bin", ALT_ENDUNG));
+			if (!Files.exists(datei) && Files.exists(altDatei)) {
+				int anzahl = LokalSnapshot.konvertiere(altDatei, datei, typ);
+				System.out.println("LokalRepository: " + altDatei + " in das Binärformat konvertiert ("
+						+ anzahl + " Einträge)");
+			}
+			if (Files.exists(datei)) {
+				return leser.apply(datei);
+			}
+		} catch (PersistenceException | BufferUnderflowException e) {
+			System.err.println("Fehler beim Laden der lokalen Daten aus " + dateiname
+					+ ". Eine neue Datei wird beim Speichern erstellt.");
+		}
+		return leer.get();
+	}
+
+	/**
+	 * Veröffentlichter Stand des Katalogs (MVCC). Schreiber veröffentlichen nach jeder
+	 * Änderung einen neuen Stand über eine volatile Referenz; Leser arbeiten ohne Lock
+	 * auf dem Stand, der beim Aufruf aktuell war, und erhalten dessen unveränderliche
+	 * Listen direkt. Aufeinanderfolgende Stände teilen sich alle unveränderten Listen
+	 * und eingefrorenen Objekte.
+	 */
+	private static final class KatalogStand {
+
+		private static final KatalogStand LEER = new KatalogStand(List.of(), Map.of(), Map.of(), Map.of());
+
+		private final List<ThemaDTO> themen;
+		private final Map<Long, ThemaDTO> themenNachId;
+		private final Map<String, ThemaDTO> themenNachTitel;
+		private final Map<Long, List<FrageDTO>> fragenNachThemaId;
+
+		private KatalogStand(List<ThemaDTO> themen, Map<Long, ThemaDTO> themenNachId,
+				Map<String, ThemaDTO> themenNachTitel, Map<Long, List<FrageDTO>> fragenNachThemaId) {
+			this.themen = themen;
+			this.themenNachId = themenNachId;
+			this.themenNachTitel = themenNachTitel;
+			this.fragenNachThemaId = fragenNachThemaId;
+		}
+
+		private List<FrageDTO> fragenDesThemas(long themaId) {
+			if (!themenNachId.containsKey(themaId)) {
+				return List.of();
+			}
+			return fragenNachThemaId.getOrDefault(themaId, List.of());
+		}
+
+		private Optional<FrageDTO> sucheFrageNachTitel(String titel, long themaId) {
+			for (FrageDTO frage : fragenDesThemas(themaId)) {
+				if (titel.equalsIgnoreCase(frage.getTitel())) {
+					return Optional.of(frage);
+				}
+			}
+			return Optional.empty();
 		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> List<T> ladeDatenAusDatei(String dateiname, List<T> defaultValue) {
-		File datei = new File(dateiname);
-		if (datei.exists()) {
-			try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(datei))) {
-				return (List<T>) ois.readObject();
-			} catch (IOException | ClassNotFoundException e) {
-				System.err.println("Fehler beim Laden der lokalen Daten aus " + dateiname
-						+ ". Eine neue Datei wird beim Speichern erstellt.");
+	/**
+	 * Eingefrorenes Thema im veröffentlichten Katalog; Änderungen ersetzen das Objekt.
+	 */
+	private static final class GespeichertesThema extends ThemaDTO {
+
+		private static final long serialVersionUID = 1L;
+
+		private GespeichertesThema(ThemaDTO thema, int anzahlFragen) {
+			super(thema.getId(), thema.getTitel(), thema.getInformation(), anzahlFragen);
+		}
+
+		@Override
+		public void setId(long id) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setTitel(String titel) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setInformation(String information) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setAnzahlFragen(int anzahlFragen) {
+			throw eingefroren();
+		}
+	}
+
+	/**
+	 * Eingefrorene Frage im veröffentlichten Katalog mit unveränderlicher Antwortliste.
+	 */
+	private static final class GespeicherteFrage extends FrageDTO {
+
+		private static final long serialVersionUID = 1L;
+
+		private GespeicherteFrage(FrageDTO frage, String themaName, List<AntwortDTO> antworten) {
+			super(frage.getId(), frage.getTitel(), frage.getText(), themaName);
+			List<AntwortDTO> eingefroreneAntworten = new ArrayList<>(antworten.size());
+			for (AntwortDTO antwort : antworten) {
+				eingefroreneAntworten.add(eingefroren(antwort));
 			}
+			super.setAntworten(Collections.unmodifiableList(eingefroreneAntworten));
+		}
+
+		@Override
+		public void setId(long id) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setTitel(String titel) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setText(String text) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setThemaName(String themaName) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setAntworten(List<AntwortDTO> antworten) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void addAntwort(AntwortDTO antwort) {
+			throw eingefroren();
+		}
+	}
+
+	/**
+	 * Eingefrorene Antwort innerhalb einer {@link GespeicherteFrage}.
+	 */
+	private static final class GespeicherteAntwort extends AntwortDTO {
+
+		private static final long serialVersionUID = 1L;
+
+		private GespeicherteAntwort(AntwortDTO antwort) {
+			super(antwort.getId(), antwort.getText(), antwort.istRichtig());
+		}
+
+		@Override
+		public void setId(long id) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setText(String text) {
+			throw eingefroren();
+		}
+
+		@Override
+		public void setIstRichtig(boolean istRichtig) {
+			throw eingefroren();
 		}
-		return defaultValue;
 	}
 }
@@ -0,0 +1,529 @@
+package data.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+import config.PropertiesLoader;
+import data.dto.AntwortDTO;
+import data.dto.FrageDTO;
+import data.dto.QuizErgebnisDTO;
+import data.dto.ThemaDTO;
+import exception.PersistenceException;
+
+/**
+ * Versioniertes Binärformat für die Snapshots des {@link LokalRepository}.
+ *
+ * <p>Die Dateien werden in einem Zug in einen Puffer gelesen (nicht gemappt, damit
+ * sie unter Windows danach ersetzt werden können). Quiz-Ergebnisse
+ * liegen als primitive Spalten mit fester Breite vor und werden spaltenweise im
+ * Block dekodiert; Themen und Fragen (mit ihren Antworten) als Datensätze mit
+ * längenpräfixierten UTF-8-Texten.</p>
+ *
+ * <p>Dateiaufbau:</p>
+ * <pre>
+ * Kopf:        [int Magic "QZSN"][short Version][byte Typ][byte Flags][int Anzahl]
+ * Ergebnisse:  long[] id | long[] themaId | long[] frageId | long[] zeitpunkt (Epoch-ms, UTC)
+ *              | int[] antwortZeit | int[] punkte | byte[] Flags (1 = richtig, 2 = vorher gezeigt)
+ * Segment:     [long minId][long maxId][int nFragen][nFragen × (long frageId, Summen)]
+ *              [int nThemen][nThemen × (long themaId, Summen)] | Spalten wie Ergebnisse
+ * Summen:      [int versuche][int richtig][long zeitSumme][long punkteSumme][int bestePunkte]
+ * Katalog:     Datensätze je Typ, Texte als [int Länge (-1 = null)][UTF-8]
+ * Frage:       [long id][long themaId][Titel][Text][Themenname][int n][n × Antwort]
+ * </pre>
+ *
+ * <p>Version 1 speicherte Fragen ohne Themen-ID; beim Lesen solcher Dateien bleibt
+ * die Zuordnung leer und wird vom {@link LokalRepository} über den Themennamen
+ * hergestellt.</p>
+ *
+ * <p>Ab Version 3 zeigt das Flag {@link #KOMPRIMIERT} an, dass alles nach Kopf (und bei
+ * Segmenten nach der Zusammenfassung) Deflate-komprimiert ist; gesteuert über
+ * {@code quiz.database.lokal.compression} ({@code none} oder {@code deflate}).</p>
+ *
+ * <p>Monats-Segmente der Quiz-Ergebnisse ({@link LokalErgebnisSegmente}) beginnen mit
+ * einer Zusammenfassung, damit beim Start nur dieser Teil der Datei gelesen wird.</p>
+ *
+ * <p>Bestehende {@code .ser}-Dateien werden mit {@link #konvertiere(Path, Path, byte)}
+ * übernommen; das {@link LokalRepository} erledigt das beim ersten Start automatisch.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LokalRepository
+ */
+final class LokalSnapshot {
+
+	static final int MAGIC = 0x515A534E; // "QZSN"
+	static final short VERSION = 3;
+
+	// Flags im Kopf (ab Version 3)
+	static final byte KOMPRIMIERT = 1;
+
+	// Snapshot-Typen
+	static final byte THEMEN = 1;
+	static final byte FRAGEN = 2;
+	// 3 war die separate Antworten-Liste; Antworten werden mit ihrer Frage gespeichert
+	static final byte ERGEBNISSE = 4;
+	static final byte ERGEBNIS_SEGMENT = 5;
+
+	private static final int KOPF_GROESSE = 12;
+	private static final long KEIN_ZEITPUNKT = Long.MIN_VALUE;
+	// Schlüssel + Summen eines Aggregats in der Segment-Zusammenfassung
+	private static final int SUMMEN_GROESSE = 3 * Long.BYTES + 3 * Integer.BYTES;
+
+	private LokalSnapshot() {
+	}
+
+	// --- Lesen ---
+	static List<ThemaDTO> leseThemen(Path datei) {
+		ByteBuffer kopf = oeffne(datei, THEMEN);
+		int anzahl = kopf.getInt(8);
+		ByteBuffer puffer = nutzdaten(kopf, datei);
+		List<ThemaDTO> themen = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			themen.add(new ThemaDTO(puffer.getLong(), leseText(puffer), leseText(puffer), 0));
+		}
+		return themen;
+	}
+
+	/**
+	 * Liest die Fragen samt Antworten.
+	 *
+	 * @param datei Die Snapshot-Datei
+	 * @param themaIds Wird mit Frage-ID → Themen-ID gefüllt (nur ab Version 2 und für bekannte Themen-IDs)
+	 * @return Die gelesenen Fragen
+	 */
+	static List<FrageDTO> leseFragen(Path datei, Map<Long, Long> themaIds) {
+		ByteBuffer kopf = oeffne(datei, FRAGEN);
+		boolean mitThemaId = kopf.getShort(4) >= 2;
+		int anzahl = kopf.getInt(8);
+		ByteBuffer puffer = nutzdaten(kopf, datei);
+		List<FrageDTO> fragen = new ArrayList<>(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			long id = puffer.getLong();
+			long themaId = mitThemaId ? puffer.getLong() : 0;
+			FrageDTO frage = new FrageDTO(id, leseText(puffer), leseText(puffer), leseText(puffer));
+			if (themaId > 0) {
+				themaIds.put(id, themaId);
+			}
+			int anzahlAntworten = puffer.getInt();
+			for (int j = 0; j < anzahlAntworten; j++) {
+				frage.addAntwort(leseAntwort(puffer));
+			}
+			fragen.add(frage);
+		}
+		return fragen;
+	}
+
+	static LokalErgebnisSpeicher.Spalten leseErgebnisse(Path datei) {
+		ByteBuffer kopf = oeffne(datei, ERGEBNISSE);
+		return leseSpalten(nutzdaten(kopf, datei), kopf.getInt(8));
+	}
+
+	/**
+	 * Liest nur die Zusammenfassung am Anfang eines Ergebnis-Segments.
+	 */
+	static LokalErgebnisSegmente.Zusammenfassung leseErgebnisZusammenfassung(Path datei) {
+		ByteBuffer puffer = oeffne(datei, ERGEBNIS_SEGMENT);
+		long minId = puffer.getLong();
+		long maxId = puffer.getLong();
+		Map<Long, LokalErgebnisSpeicher.Aggregat> nachFrageId = leseSummen(puffer);
+		Map<Long, LokalErgebnisSpeicher.Aggregat> nachThemaId = leseSummen(puffer);
+		return new LokalErgebnisSegmente.Zusammenfassung(minId, maxId, nachFrageId, nachThemaId);
+	}
+
+	static LokalErgebnisSpeicher.Spalten leseErgebnisSegment(Path datei) {
+		ByteBuffer puffer = oeffne(datei, ERGEBNIS_SEGMENT);
+		// Zusammenfassung überspringen
+		puffer.position(puffer.position() + 2 * Long.BYTES);
+		for (int i = 0; i < 2; i++) {
+			int anzahlSummen = puffer.getInt();
+			puffer.position(puffer.position() + anzahlSummen * SUMMEN_GROESSE);
+		}
+		return leseSpalten(nutzdaten(puffer, datei), puffer.getInt(8));
+	}
+
+	private static Map<Long, LokalErgebnisSpeicher.Aggregat> leseSummen(ByteBuffer puffer) {
+		int anzahl = puffer.getInt();
+		Map<Long, LokalErgebnisSpeicher.Aggregat> summen = new HashMap<>(anzahl * 2);
+		for (int i = 0; i < anzahl; i++) {
+			long id = puffer.getLong();
+			LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+			aggregat.versuche = puffer.getInt();
+			aggregat.richtig = puffer.getInt();
+			aggregat.zeitSumme = puffer.getLong();
+			aggregat.punkteSumme = puffer.getLong();
+			aggregat.bestePunkte = puffer.getInt();
+			summen.put(id, aggregat);
+		}
+		return summen;
+	}
+
+	private static LokalErgebnisSpeicher.Spalten leseSpalten(ByteBuffer puffer, int anzahl) {
+		// Spalten im Block dekodieren
+		long[] ids = new long[anzahl];
+		long[] themaIds = new long[anzahl];
+		long[] frageIds = new long[anzahl];
+		long[] zeitpunkte = new long[anzahl];
+		int[] antwortZeiten = new int[anzahl];
+		int[] punkte = new int[anzahl];
+		puffer.asLongBuffer().get(ids).get(themaIds).get(frageIds).get(zeitpunkte);
+		puffer.position(puffer.position() + anzahl * 4 * Long.BYTES);
+		puffer.asIntBuffer().get(antwortZeiten).get(punkte);
+		puffer.position(puffer.position() + anzahl * 2 * Integer.BYTES);
+		BitSet richtig = new BitSet(anzahl);
+		BitSet gezeigt = new BitSet(anzahl);
+		for (int i = 0; i < anzahl; i++) {
+			byte flags = puffer.get();
+			richtig.set(i, (flags & 1) != 0);
+			gezeigt.set(i, (flags & 2) != 0);
+		}
+		return new LokalErgebnisSpeicher.Spalten(anzahl, ids, themaIds, frageIds, zeitpunkte, antwortZeiten, punkte,
+				richtig, gezeigt);
+	}
+
+	// --- Schreiben ---
+	static void schreibeThemen(Path datei, Collection<ThemaDTO> themen) {
+		schreibe(datei, THEMEN, themen.size(), out -> {
+			for (ThemaDTO thema : themen) {
+				out.writeLong(thema.getId());
+				schreibeText(out, thema.getTitel());
+				schreibeText(out, thema.getInformation());
+			}
+		});
+	}
+
+	static void schreibeFragen(Path datei, Collection<FrageDTO> fragen, ToLongFunction<FrageDTO> themaIdVon) {
+		schreibe(datei, FRAGEN, fragen.size(), out -> {
+			for (FrageDTO frage : fragen) {
+				out.writeLong(frage.getId());
+				out.writeLong(themaIdVon.applyAsLong(frage));
+				schreibeText(out, frage.getTitel());
+				schreibeText(out, frage.getText());
+				schreibeText(out, frage.getThemaName());
+				out.writeInt(frage.getAntworten().size());
+				for (AntwortDTO antwort : frage.getAntworten()) {
+					schreibeAntwort(out, antwort);
+				}
+			}
+		});
+	}
+
+	static void schreibeErgebnisse(Path datei, LokalErgebnisSpeicher.Spalten spalten) {
+		schreibe(datei, ERGEBNISSE, spalten.anzahl, out -> schreibeSpalten(out, spalten));
+	}
+
+	static void schreibeErgebnisSegment(Path datei, LokalErgebnisSpeicher.Spalten spalten) {
+		schreibeErgebnisSegment(datei, spalten, komprimieren());
+	}
+
+	/**
+	 * Schreibt ein Ergebnis-Segment unabhängig von {@code quiz.database.lokal.compression}
+	 * komprimiert oder unkomprimiert (für Messungen).
+	 */
+	static void schreibeErgebnisSegment(Path datei, LokalErgebnisSpeicher.Spalten spalten, boolean komprimieren) {
+		LokalErgebnisSegmente.Zusammenfassung zusammenfassung = LokalErgebnisSegmente.Zusammenfassung.aus(spalten);
+		// Die Zusammenfassung bleibt unkomprimiert, damit sie ohne die Spalten gelesen werden kann
+		schreibe(datei, ERGEBNIS_SEGMENT, spalten.anzahl, komprimieren, out -> {
+			out.writeLong(zusammenfassung.minId);
+			out.writeLong(zusammenfassung.maxId);
+			schreibeSummen(out, zusammenfassung.nachFrageId);
+			schreibeSummen(out, zusammenfassung.nachThemaId);
+		}, out -> schreibeSpalten(out, spalten));
+	}
+
+	private static void schreibeSummen(DataOutputStream out, Map<Long, LokalErgebnisSpeicher.Aggregat> summen)
+			throws IOException {
+		out.writeInt(summen.size());
+		for (Map.Entry<Long, LokalErgebnisSpeicher.Aggregat> eintrag : summen.entrySet()) {
+			LokalErgebnisSpeicher.Aggregat aggregat = eintrag.getValue();
+			out.writeLong(eintrag.getKey());
+			out.writeInt(aggregat.versuche);
+			out.writeInt(aggregat.richtig);
+			out.writeLong(aggregat.zeitSumme);
+			out.writeLong(aggregat.punkteSumme);
+			out.writeInt(aggregat.bestePunkte);
+		}
+	}
+
+	private static void schreibeSpalten(DataOutputStream out, LokalErgebnisSpeicher.Spalten spalten)
+			throws IOException {
+		// Spaltenweise schreiben
+		for (long[] spalte : new long[][] { spalten.ids, spalten.themaIds, spalten.frageIds, spalten.zeitpunkte }) {
+			for (int i = 0; i < spalten.anzahl; i++) {
+				out.writeLong(spalte[i]);
+			}
+		}
+		for (int[] spalte : new int[][] { spalten.antwortZeiten, spalten.punkte }) {
+			for (int i = 0; i < spalten.anzahl; i++) {
+				out.writeInt(spalte[i]);
+			}
+		}
+		for (int i = 0; i < spalten.anzahl; i++) {
+			out.writeByte((spalten.richtig.get(i) ? 1 : 0) | (spalten.gezeigt.get(i) ? 2 : 0));
+		}
+	}
+
+	// --- Konvertierung ---
+
+	/**
+	 * Konvertiert eine Java-serialisierte {@code .ser}-Liste in das Binärformat.
+	 *
+	 * @param serDatei Die bestehende {@code .ser}-Datei
+	 * @param binDatei Die zu schreibende Binärdatei
+	 * @param typ Der Snapshot-Typ ({@link #THEMEN}, {@link #FRAGEN}, ...)
+	 * @return Anzahl der übernommenen Einträge
+	 */
+	@SuppressWarnings("unchecked")
+	static int konvertiere(Path serDatei, Path binDatei, byte typ) {
+		List<?> daten;
+		try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(serDatei))) {
+			daten = (List<?>) ois.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new PersistenceException("Fehler beim Lesen der Altdatei " + serDatei, e);
+		}
+
+		switch (typ) {
+		case THEMEN:
+			schreibeThemen(binDatei, (List<ThemaDTO>) daten);
+			break;
+		case FRAGEN:
+			// Themen-ID unbekannt, die Zuordnung erfolgt beim Laden über den Themennamen
+			schreibeFragen(binDatei, (List<FrageDTO>) daten, frage -> 0);
+			break;
+		case ERGEBNISSE:
+			schreibeErgebnisse(binDatei, LokalErgebnisSpeicher.aus((List<QuizErgebnisDTO>) daten).spalten());
+			break;
+		default:
+			throw new IllegalArgumentException("Unbekannter Snapshot-Typ: " + typ);
+		}
+		return daten.size();
+	}
+
+	/**
+	 * Konvertiert die {@code .ser}-Dateien im aktuellen Verzeichnis manuell.
+	 *
+	 * <p>Aufruf: {@code java -cp quizgame.jar data.persistence.LokalSnapshot}</p>
+	 *
+	 * @param args Kommandozeilenargumente (werden nicht verwendet)
+	 */
+	public static void main(String[] args) {
+		String[] namen = { "quiz_themen", "quiz_fragen", "quiz_ergebnisse" };
+		byte[] typen = { THEMEN, FRAGEN, ERGEBNISSE };
+		for (int i = 0; i < namen.length; i++) {
+			Path ser = Paths.get(namen[i] + ".ser");
+			if (Files.exists(ser)) {
+				int anzahl = konvertiere(ser, Paths.get(namen[i] + ".bin"), typen[i]);
+				System.out.println(ser + ": " + anzahl + " Einträge konvertiert");
+			}
+		}
+	}
+
+	// --- Hilfsmethoden ---
+	@FunctionalInterface
+	private interface Inhalt {
+		void schreibe(DataOutputStream out) throws IOException;
+	}
+
+	private static void schreibe(Path datei, byte typ, int anzahl, Inhalt inhalt) {
+		schreibe(datei, typ, anzahl, komprimieren(), out -> {
+		}, inhalt);
+	}
+
+	private static boolean komprimieren() {
+		return "deflate".equalsIgnoreCase(
+				PropertiesLoader.getProperty("quiz.database.lokal.compression", "none").trim());
+	}
+
+	/**
+	 * Schreibt Kopf, unkomprimierten Vorspann und Inhalt; mit {@code komprimieren}
+	 * wird der Inhalt beim Schreiben Deflate-komprimiert.
+	 */
+	private static void schreibe(Path datei, byte typ, int anzahl, boolean komprimieren, Inhalt vorspann,
+			Inhalt inhalt) {
+		// Erst in eine temporäre Datei schreiben, damit ein Abbruch den alten Stand nicht zerstört
+		Path temp = datei.resolveSibling(datei.getFileName() + ".tmp");
+		try (FileChannel kanal = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			OutputStream strom = new BufferedOutputStream(Channels.newOutputStream(kanal), 1 << 16);
+			DataOutputStream out = new DataOutputStream(strom);
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeByte(typ);
+			out.writeByte(komprimieren ? KOMPRIMIERT : 0);
+			out.writeInt(anzahl);
+			vorspann.schreibe(out);
+			out.flush();
+			if (komprimieren) {
+				Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+				try {
+					DeflaterOutputStream komprimiert = new DeflaterOutputStream(strom, deflater, 1 << 16);
+					DataOutputStream zout = new DataOutputStream(new BufferedOutputStream(komprimiert, 1 << 16));
+					inhalt.schreibe(zout);
+					zout.flush();
+					komprimiert.finish();
+				} finally {
+					deflater.end();
+				}
+			} else {
+				inhalt.schreibe(out);
+			}
+			strom.flush();
+			// Der Inhalt muss auf dem Datenträger sein, bevor er die alte Datei ersetzt;
+			// danach entfernt der Checkpoint die Journal-Segmente, die ihn noch enthalten
+			kanal.force(true);
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Speichern der lokalen Daten in " + datei, e);
+		}
+		try {
+			Files.move(temp, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Ersetzen der lokalen Datei " + datei, e);
+		}
+		synchronisiereVerzeichnis(datei);
+	}
+
+	/**
+	 * Schreibt den Verzeichniseintrag einer umbenannten Datei auf den Datenträger.
+	 * Nicht jedes System erlaubt das (Windows kann Verzeichnisse nicht öffnen), dort
+	 * bleibt es beim Umbenennen.
+	 *
+	 * @param datei Die umbenannte Datei
+	 */
+	static void synchronisiereVerzeichnis(Path datei) {
+		Path verzeichnis = datei.toAbsolutePath().getParent();
+		if (verzeichnis == null) {
+			return;
+		}
+		try (FileChannel kanal = FileChannel.open(verzeichnis, StandardOpenOption.READ)) {
+			kanal.force(true);
+		} catch (IOException | UnsupportedOperationException e) {
+			// Nicht unterstützt
+		}
+	}
+
+	/**
+	 * Liefert die Nutzdaten ab der aktuellen Position; komprimierte Dateien werden
+	 * dazu entpackt.
+	 */
+	private static ByteBuffer nutzdaten(ByteBuffer puffer, Path datei) {
+		if ((puffer.get(7) & KOMPRIMIERT) == 0) {
+			return puffer;
+		}
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(puffer);
+			ByteArrayOutputStream entpackt = new ByteArrayOutputStream(Math.max(1 << 10, puffer.remaining() * 4));
+			byte[] block = new byte[1 << 16];
+			while (!inflater.finished()) {
+				int gelesen = inflater.inflate(block);
+				if (gelesen == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new PersistenceException("Komprimierte Snapshot-Datei " + datei + " ist unvollständig");
+				}
+				entpackt.write(block, 0, gelesen);
+			}
+			return ByteBuffer.wrap(entpackt.toByteArray());
+		} catch (DataFormatException e) {
+			throw new PersistenceException("Komprimierte Snapshot-Datei " + datei + " ist beschädigt", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+	private static ByteBuffer oeffne(Path datei, byte erwarteterTyp) {
+		try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+			long groesse = kanal.size();
+			if (groesse > Integer.MAX_VALUE) {
+				throw new PersistenceException("Snapshot-Datei " + datei + " ist zu groß");
+			}
+			ByteBuffer puffer = ByteBuffer.allocate((int) groesse);
+			while (puffer.hasRemaining() && kanal.read(puffer) >= 0) {
+				// Weiterlesen, bis der Puffer voll ist
+			}
+			puffer.flip();
+			if (puffer.remaining() < KOPF_GROESSE || puffer.getInt() != MAGIC) {
+				throw new PersistenceException("Keine gültige Snapshot-Datei: " + datei);
+			}
+			short version = puffer.getShort();
+			if (version > VERSION) {
+				throw new PersistenceException("Snapshot-Version " + version + " von " + datei + " wird nicht unterstützt");
+			}
+			byte typ = puffer.get();
+			if (typ != erwarteterTyp) {
+				throw new PersistenceException("Unerwarteter Snapshot-Typ " + typ + " in " + datei);
+			}
+			puffer.get(); // Flags
+			puffer.getInt(); // Anzahl, wird über getInt(8) gelesen
+			return puffer;
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Lesen der Snapshot-Datei " + datei, e);
+		}
+	}
+
+	private static void schreibeAntwort(DataOutputStream out, AntwortDTO antwort) throws IOException {
+		out.writeLong(antwort.getId());
+		schreibeText(out, antwort.getText());
+		out.writeBoolean(antwort.istRichtig());
+	}
+
+	private static AntwortDTO leseAntwort(ByteBuffer puffer) {
+		return new AntwortDTO(puffer.getLong(), leseText(puffer), puffer.get() != 0);
+	}
+
+	private static void schreibeText(DataOutputStream out, String text) throws IOException {
+		if (text == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String leseText(ByteBuffer puffer) {
+		int laenge = puffer.getInt();
+		if (laenge < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[laenge];
+		puffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	static long zuEpochMillis(LocalDateTime zeitpunkt) {
+		return zeitpunkt == null ? KEIN_ZEITPUNKT : zeitpunkt.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	static LocalDateTime zuZeitpunkt(long epochMillis) {
+		if (epochMillis == KEIN_ZEITPUNKT) {
+			return null;
+		}
+		return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+				Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+	}
+}
@@ -0,0 +1,685 @@
+package data.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import config.PropertiesLoader;
+import data.dto.AntwortDTO;
+import data.dto.FrageDTO;
+import data.dto.QuizErgebnisDTO;
+import data.dto.StatistikDTO;
+import data.dto.ThemaDTO;
+import data.repository.QuizRepository;
+import exception.PersistenceException;
+
+/**
+ * Repository-Implementierung auf dem eingebetteten, log-strukturierten
+ * {@link LsmSpeicher}.
+ *
+ * <p>Jede Änderung wird als ein Stapel von Schlüssel-Wert-Paaren an das Journal des
+ * Speichers angehängt; Dateien werden nie vollständig neu geschrieben. Das eignet
+ * sich besonders für viele Quiz-Ergebnisse ohne externe Datenbank.</p>
+ *
+ * <p>Schlüssel bestehen aus einem Typ-Byte und den IDs in Big-Endian, sodass die
+ * Sortierung der IDs erhalten bleibt:</p>
+ * <pre>
+ * T id            → Thema [Titel][Information]
+ * t Titel         → Themen-ID (Titel in Kleinbuchstaben)
+ * F id            → Frage [long themaId][Titel][Text]
+ * f themaId id    → (Index Fragen eines Themas)
+ * A id            → Antwort [long frageId][Text][boolean richtig]
+ * a frageId id    → Antwort (abdeckender Index)
+ * E id            → Ergebnis [long themaId][long frageId][byte Flags][int Zeit][int Punkte][long Zeitpunkt]
+ * v frageId ~zeitpunkt ~id → Ergebnis (abdeckender Index, neueste zuerst)
+ * w themaId ~zeitpunkt ~id → Ergebnis (abdeckender Index, neueste zuerst)
+ * Z typ           → zuletzt vergebene ID des Typs
+ * </pre>
+ *
+ * <p>Statistiken lesen die abdeckenden Indizes als zusammenhängende Bereiche, ohne
+ * einzelne Datensätze nachzuschlagen. In den Ergebnis-Indizes sind Zeitpunkt (Epoch-ms)
+ * und ID invertiert ({@code ~}), sodass eine Seite der Ergebnis-Historie ab einem
+ * Cursor ein Bereich in Schlüsselreihenfolge ist. Wie im {@link LokalRepository} bleiben
+ * Quiz-Ergebnisse beim Löschen von Themen und Fragen erhalten.</p>
+ *
+ * <p>Konfiguration: {@code quiz.database.lsm.directory},
+ * {@code quiz.database.lsm.memtable.bytes}, {@code quiz.database.lsm.merge.segments}
+ * und {@code quiz.database.lsm.sync}.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LsmSpeicher
+ * @see data.repository.QuizRepository
+ */
+public class LsmRepository implements QuizRepository, AutoCloseable {
+
+	// Schlüssel-Typen
+	private static final byte THEMA = 'T';
+	private static final byte THEMA_TITEL = 't';
+	private static final byte FRAGE = 'F';
+	private static final byte FRAGE_NACH_THEMA = 'f';
+	private static final byte ANTWORT = 'A';
+	private static final byte ANTWORT_NACH_FRAGE = 'a';
+	private static final byte ERGEBNIS = 'E';
+	private static final byte ERGEBNIS_NACH_FRAGE = 'v';
+	private static final byte ERGEBNIS_NACH_THEMA = 'w';
+	private static final byte ZAEHLER = 'Z';
+
+	private static final byte[] INDEX = new byte[0];
+
+	// Flags eines Ergebnisses
+	private static final byte RICHTIG = 1;
+	private static final byte GEZEIGT = 2;
+
+	// Ergebnisse je Stapel bei saveQuizErgebnisse
+	private static final int ERGEBNIS_BLOCK = 10000;
+
+	private final LsmSpeicher speicher;
+
+	// Lesen-Ändern-Schreiben von Katalog bzw. Ergebnissen; Leser arbeiten ohne Sperre
+	private final Object katalogSperre = new Object();
+	private final Object ergebnisSperre = new Object();
+
+	private final AtomicLong themaIdCounter;
+	private final AtomicLong frageIdCounter;
+	private final AtomicLong antwortIdCounter;
+	private final AtomicLong ergebnisIdCounter;
+
+	/**
+	 * Öffnet den Speicher im konfigurierten Verzeichnis.
+	 */
+	public LsmRepository() {
+		this.speicher = new LsmSpeicher(
+			Paths.get(PropertiesLoader.getProperty("quiz.database.lsm.directory", "quiz_lsm")),
+			PropertiesLoader.getLongProperty("quiz.database.lsm.memtable.bytes", 4L * 1024 * 1024),
+			PropertiesLoader.getIntProperty("quiz.database.lsm.merge.segments", 4),
+			!"none".equalsIgnoreCase(PropertiesLoader.getProperty("quiz.database.lsm.sync", "batch")));
+		this.themaIdCounter = new AtomicLong(leseZaehler(THEMA));
+		this.frageIdCounter = new AtomicLong(leseZaehler(FRAGE));
+		this.antwortIdCounter = new AtomicLong(leseZaehler(ANTWORT));
+		this.ergebnisIdCounter = new AtomicLong(leseZaehler(ERGEBNIS));
+	}
+
+	// --- Themen-Operationen ---
+	@Override
+	public List<ThemaDTO> findAllThemen() {
+		List<ThemaDTO> themen = new ArrayList<>();
+		for (Map.Entry<byte[], byte[]> eintrag : speicher.bereich(new byte[] { THEMA }, new byte[] { THEMA + 1 })) {
+			themen.add(dekodiereThema(id(eintrag.getKey()), eintrag.getValue()));
+		}
+		return themen;
+	}
+
+	@Override
+	public Optional<ThemaDTO> findThemaById(long id) {
+		byte[] wert = speicher.lese(schluessel(THEMA, id));
+		return wert == null ? Optional.empty() : Optional.of(dekodiereThema(id, wert));
+	}
+
+	@Override
+	public Optional<ThemaDTO> findThemaByTitel(String titel) {
+		byte[] id = speicher.lese(titelSchluessel(titel));
+		return id == null ? Optional.empty() : findThemaById(ByteBuffer.wrap(id).getLong());
+	}
+
+	@Override
+	public ThemaDTO saveThema(ThemaDTO thema) {
+		synchronized (katalogSperre) {
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			if (thema.getId() <= 0) {
+				// Neues Thema
+				thema.setId(vergebeId(THEMA, themaIdCounter, stapel));
+			} else {
+				merkeId(THEMA, themaIdCounter, thema.getId(), stapel);
+				findThemaById(thema.getId()).ifPresent(vorher -> entferneTitel(vorher, stapel));
+			}
+			stapel.setze(schluessel(THEMA, thema.getId()), kodiere(out -> {
+				LokalJournal.schreibeText(out, thema.getTitel());
+				LokalJournal.schreibeText(out, thema.getInformation());
+			}));
+			stapel.setze(titelSchluessel(thema.getTitel()), zahl(thema.getId()));
+			speicher.schreibe(stapel);
+			thema.setAnzahlFragen(anzahlFragen(thema.getId()));
+		}
+		return thema;
+	}
+
+	@Override
+	public void deleteThema(long id) {
+		synchronized (katalogSperre) {
+			Optional<ThemaDTO> thema = findThemaById(id);
+			if (thema.isEmpty()) {
+				return;
+			}
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			stapel.loesche(schluessel(THEMA, id));
+			entferneTitel(thema.get(), stapel);
+
+			// Alle Fragen und Antworten des Themas löschen
+			for (long frageId : frageIds(id)) {
+				stapel.loesche(schluessel(FRAGE, frageId));
+				stapel.loesche(schluessel(FRAGE_NACH_THEMA, id, frageId));
+				entferneAntworten(frageId, Set.of(), stapel);
+			}
+			speicher.schreibe(stapel);
+		}
+	}
+
+	@Override
+	public boolean existsThemaWithTitel(String titel) {
+		return findThemaByTitel(titel).isPresent();
+	}
+
+	// --- Fragen-Operationen ---
+	@Override
+	public List<FrageDTO> findFragenByThemaId(long themaId) {
+		Optional<ThemaDTO> thema = findThemaById(themaId);
+		if (thema.isEmpty()) {
+			return List.of();
+		}
+		List<FrageDTO> fragen = new ArrayList<>();
+		for (long frageId : frageIds(themaId)) {
+			findFrageById(frageId).ifPresent(fragen::add);
+		}
+		return fragen;
+	}
+
+	@Override
+	public List<FrageDTO> findFragenByThemaName(String themaName) {
+		return findThemaByTitel(themaName).map(thema -> findFragenByThemaId(thema.getId())).orElse(List.of());
+	}
+
+	@Override
+	public Optional<FrageDTO> findFrageById(long id) {
+		byte[] wert = speicher.lese(schluessel(FRAGE, id));
+		if (wert == null) {
+			return Optional.empty();
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(wert))) {
+			long themaId = in.readLong();
+			String titel = LokalJournal.leseText(in);
+			String text = LokalJournal.leseText(in);
+			String themaName = findThemaById(themaId).map(ThemaDTO::getTitel).orElse(null);
+			FrageDTO frage = new FrageDTO(id, titel, text, themaName);
+			for (AntwortDTO antwort : findAntwortenByFrageId(id)) {
+				frage.addAntwort(antwort);
+			}
+			return Optional.of(frage);
+		} catch (IOException e) {
+			throw new PersistenceException("Frage " + id + " kann nicht gelesen werden", e);
+		}
+	}
+
+	@Override
+	public Optional<FrageDTO> findFrageByTitel(String titel, long themaId) {
+		for (FrageDTO frage : findFragenByThemaId(themaId)) {
+			if (titel.equalsIgnoreCase(frage.getTitel())) {
+				return Optional.of(frage);
+			}
+		}
+		return Optional.empty();
+	}
+
+	@Override
+	public FrageDTO saveFrage(FrageDTO frage, long themaId) {
+		synchronized (katalogSperre) {
+			ThemaDTO thema = findThemaById(themaId)
+					.orElseThrow(() -> new PersistenceException("Thema mit ID " + themaId + " nicht gefunden"));
+
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			if (frage.getId() <= 0) {
+				// Neue Frage
+				frage.setId(vergebeId(FRAGE, frageIdCounter, stapel));
+			} else {
+				merkeId(FRAGE, frageIdCounter, frage.getId(), stapel);
+				long alteThemaId = themaIdDerFrage(frage.getId());
+				if (alteThemaId > 0 && alteThemaId != themaId) {
+					stapel.loesche(schluessel(FRAGE_NACH_THEMA, alteThemaId, frage.getId()));
+				}
+			}
+			stapel.setze(schluessel(FRAGE, frage.getId()), kodiere(out -> {
+				out.writeLong(themaId);
+				LokalJournal.schreibeText(out, frage.getTitel());
+				LokalJournal.schreibeText(out, frage.getText());
+			}));
+			stapel.setze(schluessel(FRAGE_NACH_THEMA, themaId, frage.getId()), INDEX);
+
+			// Die Antwortliste ersetzt die bisherigen Antworten der Frage
+			Set<Long> behalten = new HashSet<>();
+			for (AntwortDTO antwort : frage.getAntworten()) {
+				setzeAntwort(antwort, frage.getId(), stapel);
+				behalten.add(antwort.getId());
+			}
+			entferneAntworten(frage.getId(), behalten, stapel);
+
+			speicher.schreibe(stapel);
+			frage.setThemaName(thema.getTitel());
+		}
+		return frage;
+	}
+
+	@Override
+	public void deleteFrage(long id) {
+		synchronized (katalogSperre) {
+			long themaId = themaIdDerFrage(id);
+			if (themaId < 0) {
+				return;
+			}
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			stapel.loesche(schluessel(FRAGE, id));
+			stapel.loesche(schluessel(FRAGE_NACH_THEMA, themaId, id));
+			entferneAntworten(id, Set.of(), stapel);
+			speicher.schreibe(stapel);
+		}
+	}
+
+	@Override
+	public boolean existsFrageWithTitel(String titel, long themaId) {
+		return findFrageByTitel(titel, themaId).isPresent();
+	}
+
+	// --- Antworten-Operationen ---
+	@Override
+	public List<AntwortDTO> findAntwortenByFrageId(long frageId) {
+		List<AntwortDTO> antworten = new ArrayList<>();
+		for (Map.Entry<byte[], byte[]> eintrag : speicher.bereich(schluessel(ANTWORT_NACH_FRAGE, frageId),
+				schluessel(ANTWORT_NACH_FRAGE, frageId + 1))) {
+			antworten.add(dekodiereAntwort(zweiteId(eintrag.getKey()), eintrag.getValue()));
+		}
+		return antworten;
+	}
+
+	@Override
+	public AntwortDTO saveAntwort(AntwortDTO antwort, long frageId) {
+		synchronized (katalogSperre) {
+			if (themaIdDerFrage(frageId) < 0) {
+				throw new PersistenceException("Frage mit ID " + frageId + " nicht gefunden");
+			}
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			setzeAntwort(antwort, frageId, stapel);
+			speicher.schreibe(stapel);
+		}
+		return antwort;
+	}
+
+	@Override
+	public void deleteAntwort(long id) {
+		synchronized (katalogSperre) {
+			byte[] wert = speicher.lese(schluessel(ANTWORT, id));
+			if (wert == null) {
+				return;
+			}
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			stapel.loesche(schluessel(ANTWORT, id));
+			stapel.loesche(schluessel(ANTWORT_NACH_FRAGE, ByteBuffer.wrap(wert).getLong(), id));
+			speicher.schreibe(stapel);
+		}
+	}
+
+	// --- Quiz-Statistik-Operationen ---
+	@Override
+	public void saveQuizErgebnis(QuizErgebnisDTO ergebnis) {
+		synchronized (ergebnisSperre) {
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			fuegeErgebnisHinzu(ergebnis, stapel);
+			speicher.schreibe(stapel);
+		}
+	}
+
+	@Override
+	public void saveQuizErgebnisse(Collection<QuizErgebnisDTO> ergebnisse) {
+		// Ein Stapel (ein Journal-Eintrag) je Block
+		synchronized (ergebnisSperre) {
+			LsmSpeicher.Stapel stapel = new LsmSpeicher.Stapel();
+			int imStapel = 0;
+			for (QuizErgebnisDTO ergebnis : ergebnisse) {
+				fuegeErgebnisHinzu(ergebnis, stapel);
+				if (++imStapel == ERGEBNIS_BLOCK) {
+					speicher.schreibe(stapel);
+					stapel = new LsmSpeicher.Stapel();
+					imStapel = 0;
+				}
+			}
+			speicher.schreibe(stapel);
+		}
+	}
+
+	private void fuegeErgebnisHinzu(QuizErgebnisDTO ergebnis, LsmSpeicher.Stapel stapel) {
+		if (ergebnis.getId() <= 0) {
+			// Neues Ergebnis
+			ergebnis.setId(vergebeId(ERGEBNIS, ergebnisIdCounter, stapel));
+		} else {
+			merkeId(ERGEBNIS, ergebnisIdCounter, ergebnis.getId(), stapel);
+			byte[] vorher = speicher.lese(schluessel(ERGEBNIS, ergebnis.getId()));
+			if (vorher != null) {
+				ByteBuffer alt = ByteBuffer.wrap(vorher);
+				stapel.loesche(ergebnisSchluessel(ERGEBNIS_NACH_THEMA, alt.getLong(0), alt.getLong(25), ergebnis.getId()));
+				stapel.loesche(ergebnisSchluessel(ERGEBNIS_NACH_FRAGE, alt.getLong(8), alt.getLong(25), ergebnis.getId()));
+			}
+		}
+		long zeitpunkt = LokalSnapshot.zuEpochMillis(ergebnis.getZeitpunkt());
+		byte[] wert = ByteBuffer.allocate(33)
+				.putLong(ergebnis.getThemaId())
+				.putLong(ergebnis.getFrageId())
+				.put((byte) ((ergebnis.isAntwortRichtig() ? RICHTIG : 0)
+						| (ergebnis.isAntwortVorherGezeigt() ? GEZEIGT : 0)))
+				.putInt(ergebnis.getAntwortZeitSekunden())
+				.putInt(ergebnis.getPunkte())
+				.putLong(zeitpunkt)
+				.array();
+		stapel.setze(schluessel(ERGEBNIS, ergebnis.getId()), wert);
+		stapel.setze(ergebnisSchluessel(ERGEBNIS_NACH_FRAGE, ergebnis.getFrageId(), zeitpunkt, ergebnis.getId()), wert);
+		stapel.setze(ergebnisSchluessel(ERGEBNIS_NACH_THEMA, ergebnis.getThemaId(), zeitpunkt, ergebnis.getId()), wert);
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId) {
+		return ergebnisse(ERGEBNIS_NACH_THEMA, themaId);
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId) {
+		return ergebnisse(ERGEBNIS_NACH_FRAGE, frageId);
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return ergebnisse(ERGEBNIS_NACH_THEMA, themaId, vorZeitpunkt, vorId, limit);
+	}
+
+	@Override
+	public List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return ergebnisse(ERGEBNIS_NACH_FRAGE, frageId, vorZeitpunkt, vorId, limit);
+	}
+
+	@Override
+	public List<StatistikDTO> findStatistikenByThemaId(long themaId) {
+		List<StatistikDTO> statistiken = new ArrayList<>();
+		for (FrageDTO frage : findFragenByThemaId(themaId)) {
+			LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+			summiere(ERGEBNIS_NACH_FRAGE, frage.getId(), aggregat);
+			statistiken.add(aggregat.uebertrageAuf(new StatistikDTO(themaId, "", frage.getId(), frage.getTitel())));
+		}
+		return statistiken;
+	}
+
+	@Override
+	public List<StatistikDTO> findAlleStatistiken() {
+		List<StatistikDTO> alleStatistiken = new ArrayList<>();
+		for (ThemaDTO thema : findAllThemen()) {
+			alleStatistiken.addAll(findStatistikenByThemaId(thema.getId()));
+		}
+		return alleStatistiken;
+	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByThemaId(long themaId) {
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		summiere(ERGEBNIS_NACH_THEMA, themaId, aggregat);
+		return aggregat.uebertrageAuf(new StatistikDTO(themaId, "", 0, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereErgebnisseByFrageId(long frageId) {
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		summiere(ERGEBNIS_NACH_FRAGE, frageId, aggregat);
+		return aggregat.uebertrageAuf(new StatistikDTO(0, "", frageId, ""));
+	}
+
+	@Override
+	public StatistikDTO aggregiereAlleErgebnisse() {
+		// Nur Ergebnisse zu vorhandenen Fragen, wie findAlleStatistiken()
+		LokalErgebnisSpeicher.Aggregat aggregat = new LokalErgebnisSpeicher.Aggregat();
+		for (Map.Entry<byte[], byte[]> eintrag : speicher.bereich(new byte[] { FRAGE }, new byte[] { FRAGE + 1 })) {
+			summiere(ERGEBNIS_NACH_FRAGE, id(eintrag.getKey()), aggregat);
+		}
+		return aggregat.uebertrageAuf(new StatistikDTO(0, "", 0, ""));
+	}
+
+	// --- Lebenszyklus ---
+
+	/**
+	 * Gibt die Anzahl der Segment-Dateien zurück.
+	 *
+	 * @return Anzahl der Segmente
+	 */
+	public int getAnzahlSegmente() {
+		return speicher.getAnzahlSegmente();
+	}
+
+	/**
+	 * Gibt zurück, wie oft eine Memtable als Segment geschrieben wurde.
+	 *
+	 * @return Anzahl der Flushes seit dem Start
+	 */
+	public long getAnzahlFlushes() {
+		return speicher.getAnzahlFlushes();
+	}
+
+	/**
+	 * Gibt zurück, wie oft Segmente zusammengeführt wurden.
+	 *
+	 * @return Anzahl der Zusammenführungen seit dem Start
+	 */
+	public long getAnzahlZusammenfuehrungen() {
+		return speicher.getAnzahlZusammenfuehrungen();
+	}
+
+	/**
+	 * Schreibt die Memtable als Segment und schließt den Speicher.
+	 */
+	@Override
+	public void close() {
+		speicher.close();
+	}
+
+	// --- Hilfsmethoden ---
+	private void setzeAntwort(AntwortDTO antwort, long frageId, LsmSpeicher.Stapel stapel) {
+		if (antwort.getId() <= 0) {
+			// Neue Antwort
+			antwort.setId(vergebeId(ANTWORT, antwortIdCounter, stapel));
+		} else {
+			merkeId(ANTWORT, antwortIdCounter, antwort.getId(), stapel);
+			byte[] vorher = speicher.lese(schluessel(ANTWORT, antwort.getId()));
+			if (vorher != null && ByteBuffer.wrap(vorher).getLong() != frageId) {
+				stapel.loesche(schluessel(ANTWORT_NACH_FRAGE, ByteBuffer.wrap(vorher).getLong(), antwort.getId()));
+			}
+		}
+		byte[] wert = kodiere(out -> {
+			out.writeLong(frageId);
+			LokalJournal.schreibeText(out, antwort.getText());
+			out.writeBoolean(antwort.istRichtig());
+		});
+		stapel.setze(schluessel(ANTWORT, antwort.getId()), wert);
+		stapel.setze(schluessel(ANTWORT_NACH_FRAGE, frageId, antwort.getId()), wert);
+	}
+
+	private void entferneAntworten(long frageId, Set<Long> behalten, LsmSpeicher.Stapel stapel) {
+		for (AntwortDTO antwort : findAntwortenByFrageId(frageId)) {
+			if (!behalten.contains(antwort.getId())) {
+				stapel.loesche(schluessel(ANTWORT, antwort.getId()));
+				stapel.loesche(schluessel(ANTWORT_NACH_FRAGE, frageId, antwort.getId()));
+			}
+		}
+	}
+
+	/**
+	 * Löscht den Titel-Index eines Themas, sofern er noch auf dieses Thema zeigt.
+	 */
+	private void entferneTitel(ThemaDTO thema, LsmSpeicher.Stapel stapel) {
+		byte[] schluessel = titelSchluessel(thema.getTitel());
+		byte[] id = speicher.lese(schluessel);
+		if (id != null && ByteBuffer.wrap(id).getLong() == thema.getId()) {
+			stapel.loesche(schluessel);
+		}
+	}
+
+	/**
+	 * @return Die Themen-ID der Frage oder {@code -1}, wenn die Frage nicht existiert
+	 */
+	private long themaIdDerFrage(long frageId) {
+		byte[] wert = speicher.lese(schluessel(FRAGE, frageId));
+		return wert == null ? -1 : ByteBuffer.wrap(wert).getLong();
+	}
+
+	private List<Long> frageIds(long themaId) {
+		List<Long> ids = new ArrayList<>();
+		for (Map.Entry<byte[], byte[]> eintrag : speicher.bereich(schluessel(FRAGE_NACH_THEMA, themaId),
+				schluessel(FRAGE_NACH_THEMA, themaId + 1))) {
+			ids.add(zweiteId(eintrag.getKey()));
+		}
+		return ids;
+	}
+
+	private int anzahlFragen(long themaId) {
+		return speicher.bereich(schluessel(FRAGE_NACH_THEMA, themaId), schluessel(FRAGE_NACH_THEMA, themaId + 1))
+				.size();
+	}
+
+	private List<QuizErgebnisDTO> ergebnisse(byte index, long id) {
+		return ergebnisse(speicher.bereich(schluessel(index, id), schluessel(index, id + 1)));
+	}
+
+	/**
+	 * Liest eine Seite ab dem Cursor: der Bereich beginnt beim ersten Schlüssel nach
+	 * (Zeitpunkt, ID) des Cursors und endet nach {@code limit} Einträgen.
+	 */
+	private List<QuizErgebnisDTO> ergebnisse(byte index, long id, LocalDateTime vorZeitpunkt, long vorId, int limit) {
+		// Invertierte ID: der nächste Schlüssel nach dem Cursor hat die ID vorId - 1
+		byte[] von = vorId <= 0 ? schluessel(index, id)
+				: ergebnisSchluessel(index, id, LokalSnapshot.zuEpochMillis(vorZeitpunkt), vorId - 1);
+		return ergebnisse(speicher.bereich(von, schluessel(index, id + 1), Math.max(0, limit)));
+	}
+
+	private static List<QuizErgebnisDTO> ergebnisse(List<Map.Entry<byte[], byte[]>> eintraege) {
+		List<QuizErgebnisDTO> ergebnisse = new ArrayList<>(eintraege.size());
+		for (Map.Entry<byte[], byte[]> eintrag : eintraege) {
+			ByteBuffer wert = ByteBuffer.wrap(eintrag.getValue());
+			byte flags = wert.get(16);
+			QuizErgebnisDTO ergebnis = new QuizErgebnisDTO(wert.getLong(0), wert.getLong(8),
+					(flags & RICHTIG) != 0, (flags & GEZEIGT) != 0, wert.getInt(17), wert.getInt(21));
+			ergebnis.setId(ergebnisId(eintrag.getKey()));
+			ergebnis.setZeitpunkt(LokalSnapshot.zuZeitpunkt(wert.getLong(25)));
+			ergebnisse.add(ergebnis);
+		}
+		return ergebnisse;
+	}
+
+	/**
+	 * Summiert die Ergebnisse eines Index-Bereichs direkt aus den gespeicherten Bytes.
+	 */
+	private void summiere(byte index, long id, LokalErgebnisSpeicher.Aggregat aggregat) {
+		for (Map.Entry<byte[], byte[]> eintrag : speicher.bereich(schluessel(index, id), schluessel(index, id + 1))) {
+			ByteBuffer wert = ByteBuffer.wrap(eintrag.getValue());
+			aggregat.addiere((wert.get(16) & RICHTIG) != 0, wert.getInt(17), wert.getInt(21));
+		}
+	}
+
+	private long vergebeId(byte typ, AtomicLong zaehler, LsmSpeicher.Stapel stapel) {
+		long id = zaehler.incrementAndGet();
+		stapel.setze(schluessel(ZAEHLER, typ), zahl(id));
+		return id;
+	}
+
+	/**
+	 * Zieht den Zähler nach, wenn eine ID von außen vorgegeben wird.
+	 */
+	private void merkeId(byte typ, AtomicLong zaehler, long id, LsmSpeicher.Stapel stapel) {
+		if (id > zaehler.get()) {
+			zaehler.set(id);
+			stapel.setze(schluessel(ZAEHLER, typ), zahl(id));
+		}
+	}
+
+	private long leseZaehler(byte typ) {
+		byte[] wert = speicher.lese(schluessel(ZAEHLER, typ));
+		return wert == null ? 0 : ByteBuffer.wrap(wert).getLong();
+	}
+
+	private ThemaDTO dekodiereThema(long id, byte[] wert) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(wert))) {
+			return new ThemaDTO(id, LokalJournal.leseText(in), LokalJournal.leseText(in), anzahlFragen(id));
+		} catch (IOException e) {
+			throw new PersistenceException("Thema " + id + " kann nicht gelesen werden", e);
+		}
+	}
+
+	private static AntwortDTO dekodiereAntwort(long id, byte[] wert) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(wert))) {
+			in.readLong();
+			String text = LokalJournal.leseText(in);
+			return new AntwortDTO(id, text, in.readBoolean());
+		} catch (IOException e) {
+			throw new PersistenceException("Antwort " + id + " kann nicht gelesen werden", e);
+		}
+	}
+
+	private static byte[] kodiere(LokalJournal.Eintrag inhalt) {
+		try {
+			ByteArrayOutputStream puffer = new ByteArrayOutputStream(64);
+			DataOutputStream out = new DataOutputStream(puffer);
+			inhalt.schreibe(out);
+			out.flush();
+			return puffer.toByteArray();
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Kodieren eines Datensatzes", e);
+		}
+	}
+
+	// --- Schlüssel ---
+	private static byte[] schluessel(byte typ, long id) {
+		return ByteBuffer.allocate(9).put(typ).putLong(id).array();
+	}
+
+	private static byte[] schluessel(byte typ, long id, long zweiteId) {
+		return ByteBuffer.allocate(17).put(typ).putLong(id).putLong(zweiteId).array();
+	}
+
+	/**
+	 * Schlüssel eines Ergebnis-Index; Zeitpunkt und ID werden invertiert, damit neuere
+	 * Ergebnisse vorne stehen (vorzeichenlos absteigend).
+	 */
+	private static byte[] ergebnisSchluessel(byte index, long id, long zeitpunkt, long ergebnisId) {
+		return ByteBuffer.allocate(25).put(index).putLong(id).putLong(zeitpunkt ^ Long.MAX_VALUE)
+				.putLong(ergebnisId ^ Long.MAX_VALUE).array();
+	}
+
+	private static long ergebnisId(byte[] schluessel) {
+		return ByteBuffer.wrap(schluessel).getLong(17) ^ Long.MAX_VALUE;
+	}
+
+	private static byte[] titelSchluessel(String titel) {
+		byte[] text = (titel == null ? "" : titel.toLowerCase(Locale.ROOT)).getBytes(StandardCharsets.UTF_8);
+		return ByteBuffer.allocate(1 + text.length).put(THEMA_TITEL).put(text).array();
+	}
+
+	private static long id(byte[] schluessel) {
+		return ByteBuffer.wrap(schluessel).getLong(1);
+	}
+
+	private static long zweiteId(byte[] schluessel) {
+		return ByteBuffer.wrap(schluessel).getLong(9);
+	}
+
+	private static byte[] zahl(long wert) {
+		return ByteBuffer.allocate(8).putLong(wert).array();
+	}
+}
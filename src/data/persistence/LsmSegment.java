@@ -0,0 +1,367 @@
+package data.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import exception.PersistenceException;
+
+/**
+ * Unveränderliche, nach Schlüssel sortierte Segment-Datei des {@link LsmSpeicher}.
+ *
+ * <p>Segmente werden in einem Durchgang aus einer sortierten Folge von Einträgen
+ * geschrieben (beim Flush einer Memtable oder beim Zusammenführen) und danach nur
+ * noch gelesen. Die Datei wird über {@link FileChannel#map} eingebunden; im Heap
+ * liegen nur die Positionen der Einträge und der Bloom-Filter.</p>
+ *
+ * <p>Dateiaufbau:</p>
+ * <pre>
+ * Kopf:     [int Magic "QZLS"][short Version][long Nummer][long abgedeckt ab]
+ * Einträge: n × ([int Schlüssellänge][Schlüssel][int Wertlänge (-1 = gelöscht)][Wert])
+ * Index:    n × [int Position]
+ * Bloom:    [int Anzahl Hashes][int Anzahl Wörter][long[] Bits]
+ * Fuß:      [int n][int Position Index][int Position Bloom]
+ * </pre>
+ *
+ * <p>Ein zusammengeführtes Segment trägt die Nummer des neuesten und deckt alle
+ * Nummern ab dem ältesten zusammengeführten Segment ab ({@code <ab>-<nummer>.sst}).
+ * Beim Start werden Segmente, die von einem anderen abgedeckt werden, verworfen.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LsmSpeicher
+ */
+final class LsmSegment {
+
+	private static final int MAGIC = 0x515A4C53; // "QZLS"
+	private static final short VERSION = 1;
+	private static final int KOPF_GROESSE = 22;
+	private static final int FUSS_GROESSE = 12;
+
+	// Bloom-Filter: ca. 1 % Fehlalarme
+	private static final int BITS_JE_SCHLUESSEL = 10;
+	private static final int ANZAHL_HASHES = 7;
+
+	private final Path datei;
+	private final long nummer;
+	private final long abgedecktAb;
+	private final ByteBuffer puffer;
+	private final int[] positionen;
+	private final long[] bloom;
+	private final int anzahlHashes;
+
+	private LsmSegment(Path datei, long nummer, long abgedecktAb, ByteBuffer puffer, int[] positionen,
+			long[] bloom, int anzahlHashes) {
+		this.datei = datei;
+		this.nummer = nummer;
+		this.abgedecktAb = abgedecktAb;
+		this.puffer = puffer;
+		this.positionen = positionen;
+		this.bloom = bloom;
+		this.anzahlHashes = anzahlHashes;
+	}
+
+	/**
+	 * Schreibt ein Segment über eine temporäre Datei und öffnet es anschließend.
+	 *
+	 * @param datei Zieldatei; eine vorhandene Datei wird atomar ersetzt
+	 * @param nummer Nummer des Segments
+	 * @param abgedecktAb Kleinste Segmentnummer, die dieses Segment enthält
+	 * @param eintraege Aufsteigend sortierte Einträge ohne doppelte Schlüssel
+	 * @return Das geöffnete Segment
+	 */
+	static LsmSegment schreibe(Path datei, long nummer, long abgedecktAb,
+			Iterator<Map.Entry<byte[], byte[]>> eintraege) {
+		Path temp = datei.resolveSibling(datei.getFileName() + ".tmp");
+		try (FileChannel kanal = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Channels.newOutputStream(kanal), 1 << 16));
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeLong(nummer);
+			out.writeLong(abgedecktAb);
+
+			int[] positionen = new int[64];
+			long[] hashes = new long[64];
+			int anzahl = 0;
+			// DataOutputStream.size() bleibt bei Integer.MAX_VALUE stehen, daher selbst zählen
+			long position = KOPF_GROESSE;
+			while (eintraege.hasNext()) {
+				Map.Entry<byte[], byte[]> eintrag = eintraege.next();
+				if (anzahl == positionen.length) {
+					positionen = Arrays.copyOf(positionen, anzahl * 2);
+					hashes = Arrays.copyOf(hashes, anzahl * 2);
+				}
+				byte[] wert = eintrag.getValue();
+				long laenge = 2L * Integer.BYTES + eintrag.getKey().length
+						+ (wert == LsmSpeicher.GELOESCHT ? 0 : wert.length);
+				pruefeGroesse(datei, position + laenge);
+				positionen[anzahl] = (int) position;
+				hashes[anzahl] = hash(eintrag.getKey());
+				anzahl++;
+				position += laenge;
+
+				out.writeInt(eintrag.getKey().length);
+				out.write(eintrag.getKey());
+				if (wert == LsmSpeicher.GELOESCHT) {
+					out.writeInt(-1);
+				} else {
+					out.writeInt(wert.length);
+					out.write(wert);
+				}
+			}
+
+			long[] bits = new long[Math.max(1, (int) (((long) anzahl * BITS_JE_SCHLUESSEL + 63) / 64))];
+			int indexPosition = (int) position;
+			int bloomPosition = (int) (position + (long) anzahl * Integer.BYTES);
+			pruefeGroesse(datei, bloomPosition + 2L * Integer.BYTES + (long) bits.length * Long.BYTES + FUSS_GROESSE);
+			for (int i = 0; i < anzahl; i++) {
+				out.writeInt(positionen[i]);
+			}
+			for (int i = 0; i < anzahl; i++) {
+				setzeBits(bits, hashes[i], ANZAHL_HASHES);
+			}
+			out.writeInt(ANZAHL_HASHES);
+			out.writeInt(bits.length);
+			for (long wort : bits) {
+				out.writeLong(wort);
+			}
+			out.writeInt(anzahl);
+			out.writeInt(indexPosition);
+			out.writeInt(bloomPosition);
+			out.flush();
+			// Erst dauerhaft schreiben, dann umbenennen; danach wird das Journal gelöscht
+			kanal.force(true);
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Schreiben des Segments " + datei, e);
+		}
+		try {
+			Files.move(temp, datei, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new PersistenceException("Fehler beim Ersetzen des Segments " + datei, e);
+		}
+		LokalSnapshot.synchronisiereVerzeichnis(datei);
+		return oeffne(datei);
+	}
+
+	/**
+	 * Positionen werden als {@code int} gespeichert und die Datei als Ganzes gemappt.
+	 */
+	private static void pruefeGroesse(Path datei, long groesse) {
+		if (groesse > Integer.MAX_VALUE) {
+			throw new PersistenceException("Segment " + datei + " überschreitet 2 GB");
+		}
+	}
+
+	/**
+	 * Öffnet ein Segment und liest Index und Bloom-Filter ein.
+	 *
+	 * @param datei Die Segment-Datei
+	 * @return Das geöffnete Segment
+	 * @throws PersistenceException wenn die Datei kein gültiges Segment ist
+	 */
+	static LsmSegment oeffne(Path datei) {
+		try (FileChannel kanal = FileChannel.open(datei, StandardOpenOption.READ)) {
+			long groesse = kanal.size();
+			if (groesse < KOPF_GROESSE + FUSS_GROESSE) {
+				throw new PersistenceException("Segment " + datei + " ist unvollständig");
+			}
+			ByteBuffer puffer = kanal.map(FileChannel.MapMode.READ_ONLY, 0, groesse);
+			if (puffer.getInt(0) != MAGIC) {
+				throw new PersistenceException("Datei " + datei + " ist kein Segment");
+			}
+			if (puffer.getShort(4) > VERSION) {
+				throw new PersistenceException("Segment " + datei + " hat die unbekannte Version " + puffer.getShort(4));
+			}
+			int fuss = (int) groesse - FUSS_GROESSE;
+			int anzahl = puffer.getInt(fuss);
+			int indexPosition = puffer.getInt(fuss + 4);
+			int bloomPosition = puffer.getInt(fuss + 8);
+			if (anzahl < 0 || indexPosition < KOPF_GROESSE || bloomPosition - indexPosition != anzahl * Integer.BYTES
+					|| bloomPosition > fuss) {
+				throw new PersistenceException("Segment " + datei + " ist beschädigt");
+			}
+
+			int[] positionen = new int[anzahl];
+			puffer.slice(indexPosition, anzahl * Integer.BYTES).asIntBuffer().get(positionen);
+			int anzahlHashes = puffer.getInt(bloomPosition);
+			long[] bloom = new long[puffer.getInt(bloomPosition + 4)];
+			puffer.slice(bloomPosition + 8, bloom.length * Long.BYTES).asLongBuffer().get(bloom);
+
+			return new LsmSegment(datei, puffer.getLong(6), puffer.getLong(14), puffer, positionen, bloom,
+					anzahlHashes);
+		} catch (IOException | IndexOutOfBoundsException e) {
+			throw new PersistenceException("Segment " + datei + " kann nicht gelesen werden", e);
+		}
+	}
+
+	/**
+	 * Sucht einen Schlüssel. Der Bloom-Filter erspart die Suche in den meisten
+	 * Segmenten, die den Schlüssel nicht enthalten.
+	 *
+	 * @param schluessel Der gesuchte Schlüssel
+	 * @return Der Wert, {@link LsmSpeicher#GELOESCHT} für eine Löschung oder {@code null}
+	 */
+	byte[] lese(byte[] schluessel) {
+		if (!enthaeltVielleicht(hash(schluessel))) {
+			return null;
+		}
+		int index = suche(schluessel);
+		if (index < positionen.length && vergleiche(index, schluessel) == 0) {
+			return wert(positionen[index]);
+		}
+		return null;
+	}
+
+	/**
+	 * Liefert die Einträge im Bereich {@code [von, bis)} in Schlüsselreihenfolge.
+	 *
+	 * @param von Erster Schlüssel (einschließlich), {@code null} für den Anfang
+	 * @param bis Letzter Schlüssel (ausschließlich), {@code null} für das Ende
+	 * @return Iterator über die Einträge inklusive Löschungen
+	 */
+	Iterator<Map.Entry<byte[], byte[]>> bereich(byte[] von, byte[] bis) {
+		int start = von == null ? 0 : suche(von);
+		return new Iterator<>() {
+			private int index = start;
+
+			@Override
+			public boolean hasNext() {
+				return index < positionen.length && (bis == null || vergleiche(index, bis) < 0);
+			}
+
+			@Override
+			public Map.Entry<byte[], byte[]> next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int position = positionen[index++];
+				return Map.entry(schluessel(position), wert(position));
+			}
+		};
+	}
+
+	long getNummer() {
+		return nummer;
+	}
+
+	long getAbgedecktAb() {
+		return abgedecktAb;
+	}
+
+	int getAnzahl() {
+		return positionen.length;
+	}
+
+	Path getDatei() {
+		return datei;
+	}
+
+	// --- Binärsuche auf den gemappten Schlüsseln ---
+
+	/**
+	 * Liefert den Index des ersten Eintrags, dessen Schlüssel nicht kleiner ist.
+	 */
+	private int suche(byte[] schluessel) {
+		int links = 0;
+		int rechts = positionen.length;
+		while (links < rechts) {
+			int mitte = (links + rechts) >>> 1;
+			if (vergleiche(mitte, schluessel) < 0) {
+				links = mitte + 1;
+			} else {
+				rechts = mitte;
+			}
+		}
+		return links;
+	}
+
+	/**
+	 * Vergleicht den Schlüssel eines Eintrags vorzeichenlos mit dem angegebenen.
+	 */
+	private int vergleiche(int index, byte[] schluessel) {
+		int position = positionen[index];
+		int laenge = puffer.getInt(position);
+		int gemeinsam = Math.min(laenge, schluessel.length);
+		for (int i = 0; i < gemeinsam; i++) {
+			int unterschied = Byte.toUnsignedInt(puffer.get(position + 4 + i)) - Byte.toUnsignedInt(schluessel[i]);
+			if (unterschied != 0) {
+				return unterschied;
+			}
+		}
+		return laenge - schluessel.length;
+	}
+
+	private byte[] schluessel(int position) {
+		byte[] schluessel = new byte[puffer.getInt(position)];
+		puffer.get(position + 4, schluessel);
+		return schluessel;
+	}
+
+	private byte[] wert(int position) {
+		int wertPosition = position + 4 + puffer.getInt(position);
+		int laenge = puffer.getInt(wertPosition);
+		if (laenge < 0) {
+			return LsmSpeicher.GELOESCHT;
+		}
+		byte[] wert = new byte[laenge];
+		puffer.get(wertPosition + 4, wert);
+		return wert;
+	}
+
+	// --- Bloom-Filter ---
+
+	private boolean enthaeltVielleicht(long hash) {
+		long bitAnzahl = bloom.length * 64L;
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		for (int i = 0; i < anzahlHashes; i++) {
+			long bit = Integer.toUnsignedLong(h1 + i * h2) % bitAnzahl;
+			if ((bloom[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void setzeBits(long[] bits, long hash, int anzahlHashes) {
+		long bitAnzahl = bits.length * 64L;
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32) | 1;
+		for (int i = 0; i < anzahlHashes; i++) {
+			long bit = Integer.toUnsignedLong(h1 + i * h2) % bitAnzahl;
+			bits[(int) (bit >>> 6)] |= 1L << bit;
+		}
+	}
+
+	/**
+	 * FNV-1a mit abschließender Durchmischung, da die Schlüssel überwiegend aus
+	 * kleinen Zahlen mit vielen Null-Bytes bestehen.
+	 */
+	private static long hash(byte[] schluessel) {
+		long hash = 0xcbf29ce484222325L;
+		for (byte b : schluessel) {
+			hash ^= b & 0xff;
+			hash *= 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
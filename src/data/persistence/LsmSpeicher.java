@@ -0,0 +1,585 @@
+package data.persistence;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import exception.PersistenceException;
+
+/**
+ * Eingebetteter, log-strukturierter Schlüssel-Wert-Speicher für das {@link LsmRepository}.
+ *
+ * <p>Aufbau:</p>
+ * <ul>
+ *   <li>Schreibvorgänge werden als Stapel an ein {@link LokalJournal} angehängt und in
+ *       die Memtable (eine sortierte Map im Speicher) übernommen.</li>
+ *   <li>Erreicht die Memtable {@code quiz.database.lsm.memtable.bytes}, wird sie
+ *       eingefroren, das Journal rotiert und die Memtable im Hintergrund als sortiertes
+ *       {@link LsmSegment} geschrieben. Danach wird das versiegelte Journal gelöscht.</li>
+ *   <li>Gibt es {@code quiz.database.lsm.merge.segments} neueste Segmente ähnlicher Größe,
+ *       werden sie im Hintergrund zu einem zusammengeführt.</li>
+ * </ul>
+ *
+ * <p>Leser sehen einen unveränderlichen {@link Zustand} aus aktiver Memtable,
+ * eingefrorenen Memtables und Segmenten und suchen vom neuesten zum ältesten. Schlüssel
+ * werden vorzeichenlos lexikographisch verglichen. Ein Stapel wird unter dem
+ * Schreib-Lock in die Memtable übernommen, jeder Lesevorgang hält den Lese-Lock und
+ * sieht einen Stapel daher ganz oder gar nicht.</p>
+ *
+ * <p>Nach einem Absturz werden die Segmente geöffnet und das Journal (versiegelt und
+ * aktiv) in die Memtable eingespielt.</p>
+ *
+ * <p>Synchronisierung ({@code quiz.database.lsm.sync}): Bei {@code batch} kehrt
+ * {@link #schreibe(Stapel)} erst zurück, wenn der Stapel per {@code force} auf dem
+ * Datenträger ist; gleichzeitig schreibende Threads teilen sich ein {@code force}
+ * (Group Commit). Sichtbar für Leser ist der Stapel schon vorher. Bei {@code none}
+ * liegt er nur im Dateipuffer des Betriebssystems: Ein Absturz des Programms verliert
+ * nichts, ein Stromausfall die letzten Stapel seit dem Rotieren des Journals.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see LsmRepository
+ */
+final class LsmSpeicher implements AutoCloseable {
+
+	/** Markiert einen gelöschten Schlüssel; wird über die Identität erkannt. */
+	static final byte[] GELOESCHT = new byte[0];
+
+	static final Comparator<byte[]> ORDNUNG = Arrays::compareUnsigned;
+
+	// Operation im Journal
+	private static final byte STAPEL = 1;
+
+	// Geschätzter Verwaltungsaufwand je Memtable-Eintrag
+	private static final int EINTRAG_AUFWAND = 48;
+
+	private static final String JOURNAL_DATEINAME = "lsm_journal.log";
+	private static final String SEGMENT_ENDUNG = ".sst";
+
+	private final Path verzeichnis;
+	private final long maxMemtableBytes;
+	private final int maxSegmente;
+	private final boolean synchron;
+	private final LokalJournal journal;
+	private final ExecutorService hintergrund;
+	private final AtomicLong segmentNummer;
+
+	// Schützt Journal, aktive Memtable und Zustandswechsel
+	private final Object schreibSperre = new Object();
+	// Macht Stapel für Leser atomar sichtbar; nie während Journal-I/O gehalten
+	private final ReadWriteLock stapelLock = new ReentrantReadWriteLock();
+	private volatile Zustand zustand;
+
+	// Metriken
+	private final AtomicLong anzahlFlushes = new AtomicLong();
+	private final AtomicLong anzahlZusammenfuehrungen = new AtomicLong();
+
+	/**
+	 * Öffnet (oder erstellt) den Speicher im angegebenen Verzeichnis.
+	 *
+	 * @param verzeichnis Verzeichnis für Journal und Segmente
+	 * @param maxMemtableBytes Größe, ab der die Memtable als Segment geschrieben wird
+	 * @param maxSegmente Anzahl Segmente, ab der zusammengeführt wird
+	 * @param synchron Ob jeder Stapel vor der Rückkehr auf den Datenträger geschrieben wird
+	 */
+	LsmSpeicher(Path verzeichnis, long maxMemtableBytes, int maxSegmente, boolean synchron) {
+		this.verzeichnis = verzeichnis;
+		this.maxMemtableBytes = Math.max(1, maxMemtableBytes);
+		this.maxSegmente = Math.max(2, maxSegmente);
+		this.synchron = synchron;
+		try {
+			Files.createDirectories(verzeichnis);
+		} catch (IOException e) {
+			throw new PersistenceException("Verzeichnis " + verzeichnis + " kann nicht erstellt werden", e);
+		}
+
+		List<LsmSegment> segmente = ladeSegmente();
+		this.segmentNummer = new AtomicLong(segmente.isEmpty() ? 0 : segmente.get(0).getNummer());
+
+		this.journal = new LokalJournal(verzeichnis.resolve(JOURNAL_DATEINAME));
+		Memtable memtable = new Memtable();
+		int eingespielt = journal.wiedereinspielen((operation, in) -> {
+			if (operation != STAPEL) {
+				throw new IOException("Unbekannte Operation " + operation + " im LSM-Journal");
+			}
+			int anzahl = in.readInt();
+			for (int i = 0; i < anzahl; i++) {
+				byte[] schluessel = new byte[in.readInt()];
+				in.readFully(schluessel);
+				int laenge = in.readInt();
+				byte[] wert = GELOESCHT;
+				if (laenge >= 0) {
+					wert = new byte[laenge];
+					in.readFully(wert);
+				}
+				memtable.setze(schluessel, wert);
+			}
+		});
+		if (eingespielt > 0) {
+			System.out.println("LsmSpeicher: " + eingespielt + " Journal-Einträge eingespielt");
+		}
+		this.zustand = new Zustand(memtable, List.of(), segmente);
+
+		this.hintergrund = Executors.newSingleThreadExecutor(r -> {
+			Thread thread = new Thread(r, "LsmSpeicher-Hintergrund");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Liest den aktuellen Wert eines Schlüssels.
+	 *
+	 * @param schluessel Der Schlüssel
+	 * @return Der Wert oder {@code null}, wenn der Schlüssel fehlt oder gelöscht ist
+	 */
+	byte[] lese(byte[] schluessel) {
+		stapelLock.readLock().lock();
+		try {
+			Zustand stand = zustand;
+			byte[] wert = stand.aktiv.daten.get(schluessel);
+			for (int i = 0; wert == null && i < stand.eingefroren.size(); i++) {
+				wert = stand.eingefroren.get(i).daten.get(schluessel);
+			}
+			for (int i = 0; wert == null && i < stand.segmente.size(); i++) {
+				wert = stand.segmente.get(i).lese(schluessel);
+			}
+			return wert == GELOESCHT ? null : wert;
+		} finally {
+			stapelLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Liefert alle vorhandenen Einträge im Bereich {@code [von, bis)} in Schlüsselreihenfolge.
+	 *
+	 * @param von Erster Schlüssel (einschließlich)
+	 * @param bis Letzter Schlüssel (ausschließlich)
+	 * @return Die Einträge ohne gelöschte Schlüssel
+	 */
+	List<Map.Entry<byte[], byte[]>> bereich(byte[] von, byte[] bis) {
+		return bereich(von, bis, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Liefert höchstens {@code maxAnzahl} Einträge ab {@code von}; die Quellen werden
+	 * nur so weit gelesen, wie nötig.
+	 *
+	 * @param von Erster Schlüssel (einschließlich)
+	 * @param bis Letzter Schlüssel (ausschließlich)
+	 * @param maxAnzahl Maximale Anzahl Einträge
+	 * @return Die ersten Einträge ohne gelöschte Schlüssel
+	 */
+	List<Map.Entry<byte[], byte[]>> bereich(byte[] von, byte[] bis, int maxAnzahl) {
+		stapelLock.readLock().lock();
+		try {
+			Zustand stand = zustand;
+			List<Iterator<Map.Entry<byte[], byte[]>>> quellen = new ArrayList<>();
+			quellen.add(stand.aktiv.daten.subMap(von, bis).entrySet().iterator());
+			for (Memtable memtable : stand.eingefroren) {
+				quellen.add(memtable.daten.subMap(von, bis).entrySet().iterator());
+			}
+			for (LsmSegment segment : stand.segmente) {
+				quellen.add(segment.bereich(von, bis));
+			}
+			List<Map.Entry<byte[], byte[]>> ergebnis = new ArrayList<>();
+			Mischer mischer = new Mischer(quellen, true);
+			while (ergebnis.size() < maxAnzahl && mischer.hasNext()) {
+				ergebnis.add(mischer.next());
+			}
+			return ergebnis;
+		} finally {
+			stapelLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Schreibt einen Stapel von Änderungen mit einem Journal-Datensatz, sodass er nach
+	 * einem Absturz vollständig oder gar nicht wiederhergestellt wird.
+	 *
+	 * @param stapel Die Änderungen
+	 */
+	void schreibe(Stapel stapel) {
+		if (stapel.schluessel.isEmpty()) {
+			return;
+		}
+		long position;
+		synchronized (schreibSperre) {
+			journal.anhaengen(STAPEL, out -> {
+				out.writeInt(stapel.schluessel.size());
+				for (int i = 0; i < stapel.schluessel.size(); i++) {
+					byte[] schluessel = stapel.schluessel.get(i);
+					byte[] wert = stapel.werte.get(i);
+					out.writeInt(schluessel.length);
+					out.write(schluessel);
+					if (wert == GELOESCHT) {
+						out.writeInt(-1);
+					} else {
+						out.writeInt(wert.length);
+						out.write(wert);
+					}
+				}
+			});
+			position = journal.getGeschrieben();
+			Memtable aktiv = zustand.aktiv;
+			stapelLock.writeLock().lock();
+			try {
+				for (int i = 0; i < stapel.schluessel.size(); i++) {
+					aktiv.setze(stapel.schluessel.get(i), stapel.werte.get(i));
+				}
+			} finally {
+				stapelLock.writeLock().unlock();
+			}
+			if (aktiv.bytes.get() >= maxMemtableBytes) {
+				friereEin();
+			}
+		}
+		// Außerhalb der Schreibsperre, damit weitere Stapel in dasselbe force fallen
+		if (synchron) {
+			journal.synchronisiere(position);
+		}
+	}
+
+	int getAnzahlSegmente() {
+		return zustand.segmente.size();
+	}
+
+	long getAnzahlFlushes() {
+		return anzahlFlushes.get();
+	}
+
+	long getAnzahlZusammenfuehrungen() {
+		return anzahlZusammenfuehrungen.get();
+	}
+
+	/**
+	 * Schreibt die Memtable als Segment, wartet auf laufende Hintergrundarbeit und
+	 * schließt das Journal.
+	 */
+	@Override
+	public void close() {
+		synchronized (schreibSperre) {
+			if (!zustand.aktiv.daten.isEmpty()) {
+				friereEin();
+			}
+		}
+		hintergrund.shutdown();
+		try {
+			if (!hintergrund.awaitTermination(30, TimeUnit.SECONDS)) {
+				System.err.println("LsmSpeicher: Hintergrund-Thread wurde nicht rechtzeitig beendet");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		synchronized (schreibSperre) {
+			journal.close();
+		}
+	}
+
+	// --- Flush und Zusammenführen ---
+
+	/**
+	 * Friert die aktive Memtable ein und beauftragt den Flush. Muss unter der
+	 * Schreibsperre aufgerufen werden.
+	 */
+	private void friereEin() {
+		if (hintergrund.isShutdown()) {
+			return;
+		}
+		Memtable alt = zustand.aktiv;
+		alt.journalSegment = journal.rotiere();
+		List<Memtable> eingefroren = new ArrayList<>(zustand.eingefroren.size() + 1);
+		eingefroren.add(alt);
+		eingefroren.addAll(zustand.eingefroren);
+		zustand = new Zustand(new Memtable(), List.copyOf(eingefroren), zustand.segmente);
+		hintergrund.execute(this::flusheAeltesteMemtable);
+	}
+
+	/**
+	 * Schreibt die älteste eingefrorene Memtable als Segment. Läuft nur im
+	 * Hintergrund-Thread, Flushes und Zusammenführungen sind daher nacheinander.
+	 */
+	private void flusheAeltesteMemtable() {
+		List<Memtable> eingefroren = zustand.eingefroren;
+		if (eingefroren.isEmpty()) {
+			return;
+		}
+		Memtable memtable = eingefroren.get(eingefroren.size() - 1);
+		long nummer = segmentNummer.incrementAndGet();
+		try {
+			LsmSegment segment = LsmSegment.schreibe(segmentPfad(nummer, nummer), nummer, nummer,
+					memtable.daten.entrySet().iterator());
+			synchronized (schreibSperre) {
+				List<LsmSegment> segmente = new ArrayList<>(zustand.segmente.size() + 1);
+				segmente.add(segment);
+				segmente.addAll(zustand.segmente);
+				List<Memtable> rest = new ArrayList<>(zustand.eingefroren);
+				rest.remove(memtable);
+				zustand = new Zustand(zustand.aktiv, List.copyOf(rest), List.copyOf(segmente));
+				journal.entferneSegmenteBis(memtable.journalSegment);
+			}
+			anzahlFlushes.incrementAndGet();
+		} catch (PersistenceException e) {
+			// Die Memtable bleibt eingefroren und das Journal erhalten; der nächste Flush versucht es erneut
+			System.err.println("LsmSpeicher: " + e.getMessage());
+			return;
+		}
+		fuehreZusammen();
+	}
+
+	/**
+	 * Führt die neuesten Segmente ähnlicher Größe zusammen (größenabgestuft), sobald
+	 * es {@code maxSegmente} davon gibt: Ausgehend vom neuesten Segment wird jedes ältere
+	 * aufgenommen, solange es höchstens doppelt so viele Einträge hat wie der
+	 * Durchschnitt der bisher aufgenommenen. Große, alte Segmente werden so nur selten
+	 * neu geschrieben. Nur wenn das älteste Segment beteiligt ist, entfallen Löschungen.
+	 */
+	private void fuehreZusammen() {
+		List<LsmSegment> segmente = zustand.segmente;
+		int anzahl = 1;
+		long eintraege = segmente.isEmpty() ? 0 : segmente.get(0).getAnzahl();
+		while (anzahl < segmente.size() && segmente.get(anzahl).getAnzahl() <= 2 * eintraege / anzahl + 1) {
+			eintraege += segmente.get(anzahl).getAnzahl();
+			anzahl++;
+		}
+		if (anzahl < maxSegmente) {
+			return;
+		}
+		long start = System.nanoTime();
+		List<LsmSegment> quellen = segmente.subList(0, anzahl);
+		boolean mitAeltestem = quellen.size() == segmente.size();
+
+		long nummer = quellen.get(0).getNummer();
+		long abgedecktAb = quellen.get(quellen.size() - 1).getAbgedecktAb();
+		List<Iterator<Map.Entry<byte[], byte[]>>> iteratoren = new ArrayList<>(quellen.size());
+		for (LsmSegment segment : quellen) {
+			iteratoren.add(segment.bereich(null, null));
+		}
+		LsmSegment zusammengefuehrt;
+		try {
+			zusammengefuehrt = LsmSegment.schreibe(segmentPfad(nummer, abgedecktAb), nummer, abgedecktAb,
+					new Mischer(iteratoren, mitAeltestem));
+		} catch (PersistenceException e) {
+			System.err.println("LsmSpeicher: " + e.getMessage());
+			return;
+		}
+		synchronized (schreibSperre) {
+			// Neue Segmente entstehen nur in diesem Thread, die Liste ist daher unverändert
+			List<LsmSegment> neu = new ArrayList<>(segmente.size() - quellen.size() + 1);
+			neu.add(zusammengefuehrt);
+			neu.addAll(segmente.subList(quellen.size(), segmente.size()));
+			zustand = new Zustand(zustand.aktiv, zustand.eingefroren, List.copyOf(neu));
+		}
+		for (LsmSegment segment : quellen) {
+			loesche(segment.getDatei());
+		}
+		anzahlZusammenfuehrungen.incrementAndGet();
+		System.out.println("LsmSpeicher: " + quellen.size() + " Segmente in "
+				+ (System.nanoTime() - start) / 1_000_000 + " ms zusammengeführt (" + zusammengefuehrt.getAnzahl()
+				+ " Einträge)");
+
+		// Das neue Segment kann mit gleich großen älteren wiederum eine volle Stufe bilden
+		fuehreZusammen();
+	}
+
+	// --- Dateien ---
+
+	/**
+	 * Öffnet alle Segmente, neueste zuerst, und verwirft Segmente, die bereits in einem
+	 * zusammengeführten Segment enthalten sind, sowie temporäre Dateien.
+	 */
+	private List<LsmSegment> ladeSegmente() {
+		List<LsmSegment> gefunden = new ArrayList<>();
+		try (DirectoryStream<Path> dateien = Files.newDirectoryStream(verzeichnis)) {
+			for (Path datei : dateien) {
+				String name = datei.getFileName().toString();
+				if (name.endsWith(".tmp")) {
+					loesche(datei);
+				} else if (name.endsWith(SEGMENT_ENDUNG)) {
+					gefunden.add(LsmSegment.oeffne(datei));
+				}
+			}
+		} catch (IOException e) {
+			throw new PersistenceException("Verzeichnis " + verzeichnis + " kann nicht gelesen werden", e);
+		}
+		// Bei gleicher Nummer zuerst das zusammengeführte Segment, das mehr abdeckt
+		gefunden.sort(Comparator.comparingLong(LsmSegment::getNummer).reversed()
+				.thenComparingLong(LsmSegment::getAbgedecktAb));
+
+		List<LsmSegment> segmente = new ArrayList<>();
+		long untergrenze = Long.MAX_VALUE;
+		for (LsmSegment segment : gefunden) {
+			if (segment.getNummer() >= untergrenze) {
+				loesche(segment.getDatei());
+				continue;
+			}
+			segmente.add(segment);
+			untergrenze = Math.min(untergrenze, segment.getAbgedecktAb());
+		}
+		return List.copyOf(segmente);
+	}
+
+	private Path segmentPfad(long nummer, long abgedecktAb) {
+		return verzeichnis.resolve(String.format("%010d-%010d%s", abgedecktAb, nummer, SEGMENT_ENDUNG));
+	}
+
+	private static void loesche(Path datei) {
+		try {
+			Files.deleteIfExists(datei);
+		} catch (IOException e) {
+			System.err.println("LsmSpeicher: " + datei + " kann nicht gelöscht werden: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Sammelt Änderungen, die gemeinsam geschrieben werden.
+	 */
+	static final class Stapel {
+
+		private final List<byte[]> schluessel = new ArrayList<>();
+		private final List<byte[]> werte = new ArrayList<>();
+
+		Stapel setze(byte[] schluessel, byte[] wert) {
+			this.schluessel.add(schluessel);
+			this.werte.add(wert);
+			return this;
+		}
+
+		Stapel loesche(byte[] schluessel) {
+			return setze(schluessel, GELOESCHT);
+		}
+	}
+
+	/**
+	 * Sortierte Änderungen im Speicher seit dem letzten Flush.
+	 */
+	private static final class Memtable {
+
+		private final ConcurrentNavigableMap<byte[], byte[]> daten = new ConcurrentSkipListMap<>(ORDNUNG);
+		private final AtomicLong bytes = new AtomicLong();
+		// Versiegeltes Journal-Segment, das nach dem Flush gelöscht werden kann
+		private long journalSegment;
+
+		private void setze(byte[] schluessel, byte[] wert) {
+			daten.put(schluessel, wert);
+			bytes.addAndGet(schluessel.length + wert.length + EINTRAG_AUFWAND);
+		}
+	}
+
+	/**
+	 * Unveränderlicher Lesestand; Listen sind vom neuesten zum ältesten geordnet.
+	 */
+	private static final class Zustand {
+
+		private final Memtable aktiv;
+		private final List<Memtable> eingefroren;
+		private final List<LsmSegment> segmente;
+
+		private Zustand(Memtable aktiv, List<Memtable> eingefroren, List<LsmSegment> segmente) {
+			this.aktiv = aktiv;
+			this.eingefroren = eingefroren;
+			this.segmente = segmente;
+		}
+	}
+
+	/**
+	 * Mischt sortierte Quellen zu einer sortierten Folge. Bei gleichem Schlüssel gewinnt
+	 * die Quelle mit dem kleinsten Index (die neueste).
+	 */
+	private static final class Mischer implements Iterator<Map.Entry<byte[], byte[]>> {
+
+		private final PriorityQueue<Quelle> warteschlange;
+		private final boolean ohneLoeschungen;
+		private Map.Entry<byte[], byte[]> naechster;
+
+		private Mischer(List<Iterator<Map.Entry<byte[], byte[]>>> quellen, boolean ohneLoeschungen) {
+			this.warteschlange = new PriorityQueue<>(Math.max(1, quellen.size()), (a, b) -> {
+				int vergleich = ORDNUNG.compare(a.aktuell.getKey(), b.aktuell.getKey());
+				return vergleich != 0 ? vergleich : Integer.compare(a.rang, b.rang);
+			});
+			this.ohneLoeschungen = ohneLoeschungen;
+			for (int rang = 0; rang < quellen.size(); rang++) {
+				Quelle quelle = new Quelle(quellen.get(rang), rang);
+				if (quelle.weiter()) {
+					warteschlange.add(quelle);
+				}
+			}
+			naechster = suche();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return naechster != null;
+		}
+
+		@Override
+		public Map.Entry<byte[], byte[]> next() {
+			if (naechster == null) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<byte[], byte[]> eintrag = naechster;
+			naechster = suche();
+			return eintrag;
+		}
+
+		private Map.Entry<byte[], byte[]> suche() {
+			while (!warteschlange.isEmpty()) {
+				Quelle beste = warteschlange.poll();
+				Map.Entry<byte[], byte[]> eintrag = beste.aktuell;
+				// Ältere Versionen desselben Schlüssels überspringen
+				while (!warteschlange.isEmpty()
+						&& ORDNUNG.compare(warteschlange.peek().aktuell.getKey(), eintrag.getKey()) == 0) {
+					Quelle aelter = warteschlange.poll();
+					if (aelter.weiter()) {
+						warteschlange.add(aelter);
+					}
+				}
+				if (beste.weiter()) {
+					warteschlange.add(beste);
+				}
+				if (!ohneLoeschungen || eintrag.getValue() != GELOESCHT) {
+					return eintrag;
+				}
+			}
+			return null;
+		}
+
+		private static final class Quelle {
+
+			private final Iterator<Map.Entry<byte[], byte[]>> iterator;
+			private final int rang;
+			private Map.Entry<byte[], byte[]> aktuell;
+
+			private Quelle(Iterator<Map.Entry<byte[], byte[]>> iterator, int rang) {
+				this.iterator = iterator;
+				this.rang = rang;
+			}
+
+			private boolean weiter() {
+				if (!iterator.hasNext()) {
+					return false;
+				}
+				aktuell = iterator.next();
+				return true;
+			}
+		}
+	}
+}
@@ -3,7 +3,9 @@ package data.persistence;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.function.ObjIntConsumer;
 
+import config.ConnectionPool;
 import config.DatabaseFactory;
 import config.DatabaseType;
 import config.PropertiesLoader;
@@ -20,6 +22,7 @@ import exception.PersistenceException;
  * <p>Unterstützte Repository-Typen:</p>
  * <ul>
  *   <li>LokalRepository - Für lokale Dateispeicherung</li>
+ *   <li>LsmRepository - Für den eingebetteten, log-strukturierten Speicher</li>
  *   <li>JDBCRepository - Für SQLite und MariaDB-Datenbanken</li>
  * </ul>
  * 
@@ -49,6 +52,7 @@ import exception.PersistenceException;
  * @since 1.0
  * @see data.repository.QuizRepository
  * @see LokalRepository
+ * @see LsmRepository
  * @see JDBCRepository
  * @see config.DatabaseFactory
  * @see config.PropertiesLoader
@@ -65,28 +69,46 @@ public class RepositoryFactory {
 	 * @throws PersistenceException wenn das Repository nicht erstellt werden kann
 	 */
 	public static QuizRepository createRepository() {
+		return createRepository((schritt, prozent) -> {
+		});
+	}
+
+	/**
+	 * Erstellt das konfigurierte Repository und meldet den Lade-Fortschritt.
+	 *
+	 * <p>Nur das {@link LokalRepository} meldet Zwischenschritte; JDBC-Repositories
+	 * laden ihre Daten erst bei Abfragen.</p>
+	 *
+	 * <p>Ist die Datenbank nicht erreichbar, wird auf das {@link LokalRepository}
+	 * ausgewichen; schlägt dagegen die Schema-Migration fehl, bricht der Start ab.</p>
+	 *
+	 * @param fortschritt Erhält Beschreibung und Fortschritt in Prozent des aktuellen Schritts
+	 * @return Das Repository
+	 * @throws PersistenceException wenn die Schema-Migration fehlschlägt
+	 */
+	public static QuizRepository createRepository(ObjIntConsumer<String> fortschritt) {
+		DatabaseType dbType;
+		ConnectionPool pool;
+		Connection verbindung;
 		try {
-			DatabaseType dbType = PropertiesLoader.getDatabaseType();
+			dbType = PropertiesLoader.getDatabaseType();
 			System.out.println("RepositoryFactory: Erstelle Repository für Datenbanktyp: " + dbType.getDisplayName());
 			
 			switch (dbType) {
 			case LOKAL:
 				System.out.println("RepositoryFactory: Verwende LokalRepository");
-				return new LokalRepository();
+				return new LokalRepository(fortschritt);
+				
+			case LSM:
+				System.out.println("RepositoryFactory: Verwende LsmRepository");
+				return new LsmRepository();
 				
 			case SQLITE:
 			case MARIADB:
 				System.out.println("RepositoryFactory: Verwende JDBCRepository für " + dbType.getDisplayName());
-				Connection connection = DatabaseFactory.getInstance().createConnection(dbType);
-				// Schema initialisieren
-				try {
-					initialisiereSchema(connection, dbType);
-					System.out.println("RepositoryFactory: Schema erfolgreich initialisiert");
-				} catch (SQLException e) {
-					System.err.println("Fehler beim Initialisieren des Schemas: " + e.getMessage());
-					// Trotzdem Repository erstellen, da das Schema bereits existieren könnte
-				}
-				return new JDBCRepository(connection);
+				pool = DatabaseFactory.getInstance().getConnectionPool(dbType);
+				verbindung = pool.getConnection();
+				break;
 				
 			default:
 				throw new PersistenceException("Nicht unterstützter Datenbanktyp: " + dbType);
@@ -94,8 +116,18 @@ public class RepositoryFactory {
 		} catch (Exception e) {
 			System.err.println("Fehler beim Erstellen des Repositories: " + e.getMessage());
 			System.err.println("Verwende lokales Repository als Fallback");
-			return new LokalRepository();
+			return new LokalRepository(fortschritt);
 		}
+
+		// Die Datenbank ist erreichbar: eine fehlgeschlagene Migration wird gemeldet,
+		// statt mit einem unvollständigen Schema oder dem lokalen Fallback weiterzuarbeiten
+		try (Connection connection = verbindung) {
+			initialisiereSchema(connection, dbType);
+			System.out.println("RepositoryFactory: Schema erfolgreich initialisiert");
+		} catch (SQLException e) {
+			throw new PersistenceException("Datenbankschema konnte nicht aktualisiert werden: " + e.getMessage(), e);
+		}
+		return new JDBCRepository(pool);
 	}
 
 	/**
@@ -115,62 +147,15 @@ public class RepositoryFactory {
 	/**
 	 * Initialisiert das Datenbankschema basierend auf dem Datenbanktyp.
 	 * 
-	 * <p>Erstellt alle notwendigen Tabellen mit der entsprechenden SQL-Syntax
-	 * für den angegebenen Datenbanktyp.</p>
+	 * <p>Führt alle noch nicht angewendeten Migrationen aus {@link SchemaMigration}
+	 * aus (Tabellen, Indizes). Die erreichte Version steht in {@code schema_version}.</p>
 	 * 
 	 * @param conn Die Datenbankverbindung
 	 * @param dbType Der Typ der Datenbank
 	 * @throws SQLException bei Fehlern beim Erstellen des Schemas
 	 */
 	private static void initialisiereSchema(Connection conn, DatabaseType dbType) throws SQLException {
-		// SQLite-spezifische Syntax
-		String sqlThemen = "CREATE TABLE IF NOT EXISTS Themen (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
-				+ "titel TEXT NOT NULL, " + "information TEXT" + ")";
-
-		String sqlFragen = "CREATE TABLE IF NOT EXISTS Fragen (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
-				+ "frage_titel TEXT NOT NULL, " + "frage_text TEXT NOT NULL, " + "thema_id INTEGER NOT NULL, "
-				+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE" + ")";
-
-		String sqlAntworten = "CREATE TABLE IF NOT EXISTS Antworten (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
-				+ "antwort_text TEXT NOT NULL, " + "ist_richtig INTEGER NOT NULL, " + "frage_id INTEGER NOT NULL, "
-				+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
-
-		String sqlQuizErgebnisse = "CREATE TABLE IF NOT EXISTS QuizErgebnisse ("
-				+ "id INTEGER PRIMARY KEY AUTOINCREMENT, " + "thema_id INTEGER NOT NULL, "
-				+ "frage_id INTEGER NOT NULL, " + "antwort_richtig INTEGER NOT NULL, "
-				+ "antwort_vorher_gezeigt INTEGER NOT NULL, " + "antwort_zeit_sekunden INTEGER NOT NULL, "
-				+ "zeitpunkt TEXT NOT NULL, " + "punkte INTEGER NOT NULL, "
-				+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE, "
-				+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
-
-		// MariaDB-spezifische Syntax
-		if (dbType == DatabaseType.MARIADB) {
-			sqlThemen = "CREATE TABLE IF NOT EXISTS Themen (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
-					+ "titel VARCHAR(255) NOT NULL, " + "information TEXT" + ")";
-
-			sqlFragen = "CREATE TABLE IF NOT EXISTS Fragen (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
-					+ "frage_titel VARCHAR(255) NOT NULL, " + "frage_text TEXT NOT NULL, "
-					+ "thema_id BIGINT NOT NULL, " + "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE"
-					+ ")";
-
-			sqlAntworten = "CREATE TABLE IF NOT EXISTS Antworten (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
-					+ "antwort_text VARCHAR(255) NOT NULL, " + "ist_richtig BOOLEAN NOT NULL, "
-					+ "frage_id BIGINT NOT NULL, " + "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE"
-					+ ")";
-
-			sqlQuizErgebnisse = "CREATE TABLE IF NOT EXISTS QuizErgebnisse (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
-					+ "thema_id BIGINT NOT NULL, " + "frage_id BIGINT NOT NULL, " + "antwort_richtig BOOLEAN NOT NULL, "
-					+ "antwort_vorher_gezeigt BOOLEAN NOT NULL, " + "antwort_zeit_sekunden INT NOT NULL, "
-					+ "zeitpunkt DATETIME NOT NULL, " + "punkte INT NOT NULL, "
-					+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE, "
-					+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
-		}
-
-		try (java.sql.Statement stmt = conn.createStatement()) {
-			stmt.execute(sqlThemen);
-			stmt.execute(sqlFragen);
-			stmt.execute(sqlAntworten);
-			stmt.execute(sqlQuizErgebnisse);
-		}
+		int version = SchemaMigration.migriere(conn, dbType);
+		System.out.println("RepositoryFactory: Schema-Version " + version);
 	}
 }
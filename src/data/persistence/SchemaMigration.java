@@ -0,0 +1,225 @@
+package data.persistence;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import config.DatabaseType;
+
+/**
+ * Versionierte Schema-Migrationen für SQLite und MariaDB.
+ *
+ * <p>Die Tabelle {@code schema_version} enthält je angewendeter Migration eine
+ * Zeile. Beim Start werden alle Schritte mit höherer Version der Reihe nach
+ * ausgeführt, jeder in einer eigenen Transaktion (MariaDB bestätigt DDL sofort,
+ * daher sind alle Anweisungen mit {@code IF NOT EXISTS} wiederholbar). Schlägt
+ * ein Schritt fehl, bleibt die Version auf dem letzten erfolgreichen Stand.</p>
+ *
+ * <p>Ein Schritt kann vorab prüfen, ob die vorhandenen Daten zu ihm passen (etwa
+ * doppelte Titel vor einem eindeutigen Index), und bricht sonst mit einer Meldung
+ * ab, welche Daten zu bereinigen sind.</p>
+ *
+ * <p>Neue Migrationen werden am Ende von {@link #SCHRITTE} mit der nächsten
+ * Versionsnummer angehängt; bestehende Schritte werden nie geändert.</p>
+ *
+ * @author TvT
+ * @version 1.0
+ * @since 1.0
+ * @see RepositoryFactory
+ */
+final class SchemaMigration {
+
+	private static final List<Schritt> SCHRITTE = List.of(
+			new Schritt(1, "Basistabellen", SchemaMigration::basistabellen),
+			new Schritt(2, "Indizes für Fremdschlüssel und Ergebnis-Abfragen", dbType -> List.of(
+					"CREATE INDEX IF NOT EXISTS idx_fragen_thema ON Fragen (thema_id)",
+					"CREATE INDEX IF NOT EXISTS idx_antworten_frage ON Antworten (frage_id)",
+					"CREATE INDEX IF NOT EXISTS idx_ergebnisse_frage_zeit ON QuizErgebnisse (frage_id, zeitpunkt)",
+					"CREATE INDEX IF NOT EXISTS idx_ergebnisse_thema_zeit ON QuizErgebnisse (thema_id, zeitpunkt)")),
+			new Schritt(3, "Eindeutige Titel für Themen und Fragen je Thema", SchemaMigration::pruefeEindeutigeTitel,
+					dbType -> List.of(
+							"CREATE UNIQUE INDEX IF NOT EXISTS uq_themen_titel ON Themen (titel)",
+							"CREATE UNIQUE INDEX IF NOT EXISTS uq_fragen_thema_titel ON Fragen (thema_id, frage_titel)")));
+
+	// Höchstens so viele doppelte Titel werden in der Fehlermeldung aufgeführt
+	private static final int MAX_GEMELDET = 20;
+
+	private SchemaMigration() {
+	}
+
+	/**
+	 * Führt alle noch nicht angewendeten Migrationen aus.
+	 *
+	 * @param conn   Die Datenbankverbindung
+	 * @param dbType Der Typ der Datenbank
+	 * @return Die Schema-Version nach der Migration
+	 * @throws SQLException wenn ein Schritt fehlschlägt
+	 */
+	static int migriere(Connection conn, DatabaseType dbType) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (version INTEGER PRIMARY KEY, "
+					+ "beschreibung VARCHAR(255) NOT NULL, angewendet_am VARCHAR(32) NOT NULL)");
+		}
+
+		int version = leseVersion(conn);
+		for (Schritt schritt : SCHRITTE) {
+			if (schritt.version <= version) {
+				continue;
+			}
+			wendeAn(conn, dbType, schritt);
+			version = schritt.version;
+			System.out.println("SchemaMigration: Version " + version + " angewendet (" + schritt.beschreibung + ")");
+		}
+		return version;
+	}
+
+	private static int leseVersion(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement();
+				ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private static void wendeAn(Connection conn, DatabaseType dbType, Schritt schritt) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		conn.setAutoCommit(false);
+		try {
+			schritt.pruefung.pruefe(conn);
+			try (Statement stmt = conn.createStatement()) {
+				for (String sql : schritt.anweisungen.apply(dbType)) {
+					stmt.execute(sql);
+				}
+			}
+			String sql = "INSERT INTO schema_version(version, beschreibung, angewendet_am) VALUES(?, ?, ?)";
+			try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+				stmt.setInt(1, schritt.version);
+				stmt.setString(2, schritt.beschreibung);
+				stmt.setString(3, LocalDateTime.now().toString());
+				stmt.executeUpdate();
+			}
+			conn.commit();
+		} catch (SQLException e) {
+			conn.rollback();
+			throw new SQLException("Migration " + schritt.version + " (" + schritt.beschreibung + ") fehlgeschlagen: "
+					+ e.getMessage(), e);
+		} finally {
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	/**
+	 * Sucht vor Migration 3 nach Themen mit gleichem Titel und Fragen mit gleichem
+	 * Titel im selben Thema. Der Vergleich nutzt die Kollation der Datenbank, also
+	 * dieselbe Gleichheit wie der eindeutige Index (MariaDB ignoriert standardmäßig
+	 * die Groß-/Kleinschreibung, SQLite nicht).
+	 *
+	 * @throws SQLException mit der Liste der Duplikate, wenn es welche gibt
+	 */
+	private static void pruefeEindeutigeTitel(Connection conn) throws SQLException {
+		List<String> duplikate = new ArrayList<>();
+		try (Statement stmt = conn.createStatement()) {
+			try (ResultSet rs = stmt.executeQuery(
+					"SELECT titel, COUNT(*) FROM Themen GROUP BY titel HAVING COUNT(*) > 1 ORDER BY titel")) {
+				while (rs.next()) {
+					duplikate.add("Thema '" + rs.getString(1) + "' (" + rs.getInt(2) + "x)");
+				}
+			}
+			try (ResultSet rs = stmt.executeQuery("SELECT f.thema_id, t.titel, f.frage_titel, COUNT(*) FROM Fragen f "
+					+ "LEFT JOIN Themen t ON t.id = f.thema_id GROUP BY f.thema_id, t.titel, f.frage_titel "
+					+ "HAVING COUNT(*) > 1 ORDER BY f.thema_id, f.frage_titel")) {
+				while (rs.next()) {
+					String thema = rs.getString(2) != null ? "'" + rs.getString(2) + "'" : "ID " + rs.getLong(1);
+					duplikate.add("Frage '" + rs.getString(3) + "' in Thema " + thema + " (" + rs.getInt(4) + "x)");
+				}
+			}
+		}
+		if (duplikate.isEmpty()) {
+			return;
+		}
+		StringBuilder meldung = new StringBuilder(
+				"Doppelte Titel verhindern eindeutige Indizes, bitte umbenennen oder löschen und neu starten: ");
+		meldung.append(String.join(", ", duplikate.subList(0, Math.min(duplikate.size(), MAX_GEMELDET))));
+		if (duplikate.size() > MAX_GEMELDET) {
+			meldung.append(" und ").append(duplikate.size() - MAX_GEMELDET).append(" weitere");
+		}
+		throw new SQLException(meldung.toString());
+	}
+
+	private static List<String> basistabellen(DatabaseType dbType) {
+		// SQLite-spezifische Syntax
+		String sqlThemen = "CREATE TABLE IF NOT EXISTS Themen (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+				+ "titel TEXT NOT NULL, " + "information TEXT" + ")";
+
+		String sqlFragen = "CREATE TABLE IF NOT EXISTS Fragen (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+				+ "frage_titel TEXT NOT NULL, " + "frage_text TEXT NOT NULL, " + "thema_id INTEGER NOT NULL, "
+				+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE" + ")";
+
+		String sqlAntworten = "CREATE TABLE IF NOT EXISTS Antworten (" + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+				+ "antwort_text TEXT NOT NULL, " + "ist_richtig INTEGER NOT NULL, " + "frage_id INTEGER NOT NULL, "
+				+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
+
+		String sqlQuizErgebnisse = "CREATE TABLE IF NOT EXISTS QuizErgebnisse ("
+				+ "id INTEGER PRIMARY KEY AUTOINCREMENT, " + "thema_id INTEGER NOT NULL, "
+				+ "frage_id INTEGER NOT NULL, " + "antwort_richtig INTEGER NOT NULL, "
+				+ "antwort_vorher_gezeigt INTEGER NOT NULL, " + "antwort_zeit_sekunden INTEGER NOT NULL, "
+				+ "zeitpunkt TEXT NOT NULL, " + "punkte INTEGER NOT NULL, "
+				+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE, "
+				+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
+
+		// MariaDB-spezifische Syntax
+		if (dbType == DatabaseType.MARIADB) {
+			sqlThemen = "CREATE TABLE IF NOT EXISTS Themen (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+					+ "titel VARCHAR(255) NOT NULL, " + "information TEXT" + ")";
+
+			sqlFragen = "CREATE TABLE IF NOT EXISTS Fragen (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+					+ "frage_titel VARCHAR(255) NOT NULL, " + "frage_text TEXT NOT NULL, "
+					+ "thema_id BIGINT NOT NULL, " + "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE"
+					+ ")";
+
+			sqlAntworten = "CREATE TABLE IF NOT EXISTS Antworten (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+					+ "antwort_text VARCHAR(255) NOT NULL, " + "ist_richtig BOOLEAN NOT NULL, "
+					+ "frage_id BIGINT NOT NULL, " + "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE"
+					+ ")";
+
+			sqlQuizErgebnisse = "CREATE TABLE IF NOT EXISTS QuizErgebnisse (" + "id BIGINT PRIMARY KEY AUTO_INCREMENT, "
+					+ "thema_id BIGINT NOT NULL, " + "frage_id BIGINT NOT NULL, " + "antwort_richtig BOOLEAN NOT NULL, "
+					+ "antwort_vorher_gezeigt BOOLEAN NOT NULL, " + "antwort_zeit_sekunden INT NOT NULL, "
+					+ "zeitpunkt DATETIME NOT NULL, " + "punkte INT NOT NULL, "
+					+ "FOREIGN KEY (thema_id) REFERENCES Themen (id) ON DELETE CASCADE, "
+					+ "FOREIGN KEY (frage_id) REFERENCES Fragen (id) ON DELETE CASCADE" + ")";
+		}
+
+		return List.of(sqlThemen, sqlFragen, sqlAntworten, sqlQuizErgebnisse);
+	}
+
+	@FunctionalInterface
+	private interface Pruefung {
+		void pruefe(Connection conn) throws SQLException;
+	}
+
+	private static final class Schritt {
+		private final int version;
+		private final String beschreibung;
+		private final Pruefung pruefung;
+		private final Function<DatabaseType, List<String>> anweisungen;
+
+		private Schritt(int version, String beschreibung, Function<DatabaseType, List<String>> anweisungen) {
+			this(version, beschreibung, conn -> {
+			}, anweisungen);
+		}
+
+		private Schritt(int version, String beschreibung, Pruefung pruefung,
+				Function<DatabaseType, List<String>> anweisungen) {
+			this.version = version;
+			this.beschreibung = beschreibung;
+			this.pruefung = pruefung;
+			this.anweisungen = anweisungen;
+		}
+	}
+}
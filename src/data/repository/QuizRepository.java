@@ -1,6 +1,11 @@
 package data.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import data.dto.AntwortDTO;
@@ -29,6 +34,7 @@ import data.dto.ThemaDTO;
  * <ul>
  *   <li>JDBCRepository - Für SQLite und MariaDB</li>
  *   <li>LokalRepository - Für lokale Dateispeicherung</li>
+ *   <li>LsmRepository - Für den eingebetteten, log-strukturierten Speicher</li>
  * </ul>
  * 
  * <p>Verwendung:</p>
@@ -49,6 +55,7 @@ import data.dto.ThemaDTO;
  * @since 1.0
  * @see data.persistence.JDBCRepository
  * @see data.persistence.LokalRepository
+ * @see data.persistence.LsmRepository
  * @see data.persistence.RepositoryFactory
  */
 public interface QuizRepository {
@@ -115,6 +122,23 @@ public interface QuizRepository {
 	 */
 	List<FrageDTO> findFragenByThemaName(String themaName);
 
+	/**
+	 * Findet die Fragen aller Themen mit ihren Antworten, gruppiert nach Thema.
+	 * 
+	 * <p>Die Standard-Implementierung ruft {@link #findFragenByThemaId(long)} für
+	 * jedes Thema auf. Implementierungen mit Datenbankzugriff können alle Fragen und
+	 * Antworten mit wenigen Abfragen laden.</p>
+	 * 
+	 * @return Fragen je Themen-ID, sortiert nach Titel; Themen ohne Fragen können fehlen
+	 */
+	default Map<Long, List<FrageDTO>> findFragenFuerAlleThemen() {
+		Map<Long, List<FrageDTO>> fragenNachThema = new HashMap<>();
+		for (ThemaDTO thema : findAllThemen()) {
+			fragenNachThema.put(thema.getId(), findFragenByThemaId(thema.getId()));
+		}
+		return fragenNachThema;
+	}
+
 	/**
 	 * Findet eine Frage nach ihrer ID.
 	 * 
@@ -188,6 +212,18 @@ public interface QuizRepository {
 	 */
 	void saveQuizErgebnis(QuizErgebnisDTO ergebnis);
 
+	/**
+	 * Speichert viele Quiz-Ergebnisse auf einmal, z.B. beim Import oder beim
+	 * Nachspielen historischer Ergebnisse.
+	 * 
+	 * <p>Implementierungen schreiben die Ergebnisse in Blöcken statt einzeln
+	 * (JDBC: Batches in einer Transaktion, lokal: ein Anhängen je Block).</p>
+	 * 
+	 * @param ergebnisse Die zu speichernden Quiz-Ergebnisse; neue erhalten ihre ID,
+	 *                   sofern die Implementierung sie ermitteln kann
+	 */
+	void saveQuizErgebnisse(Collection<QuizErgebnisDTO> ergebnisse);
+
 	/**
 	 * Findet alle Quiz-Ergebnisse für ein bestimmtes Thema.
 	 * 
@@ -204,6 +240,45 @@ public interface QuizRepository {
 	 */
 	List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId);
 
+	/**
+	 * Findet eine Seite der Quiz-Ergebnisse eines Themas (Keyset-Paginierung).
+	 * 
+	 * <p>Die Ergebnisse sind absteigend nach Zeitpunkt und ID sortiert. Eine Seite
+	 * beginnt nach dem Cursor, also nach Zeitpunkt und ID des letzten Ergebnisses der
+	 * vorherigen Seite; mit {@code vorId <= 0} wird die erste Seite geliefert. Ist die
+	 * Seite kürzer als {@code limit}, gibt es keine weiteren Ergebnisse. Ergebnisse
+	 * ohne Zeitpunkt stehen am Ende.</p>
+	 * 
+	 * <p>Die Standard-Implementierung lädt alle Ergebnisse über
+	 * {@link #findQuizErgebnisseByThemaId(long)}; Implementierungen springen über
+	 * einen Index direkt an den Cursor.</p>
+	 * 
+	 * @param themaId Die ID des Themas
+	 * @param vorZeitpunkt Zeitpunkt des Cursors (ohne Bedeutung auf der ersten Seite)
+	 * @param vorId ID des Cursors oder {@code <= 0} für die erste Seite
+	 * @param limit Maximale Anzahl Ergebnisse der Seite
+	 * @return Höchstens {@code limit} Ergebnisse, absteigend nach Zeitpunkt und ID
+	 */
+	default List<QuizErgebnisDTO> findQuizErgebnisseByThemaId(long themaId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return seite(findQuizErgebnisseByThemaId(themaId), vorZeitpunkt, vorId, limit);
+	}
+
+	/**
+	 * Findet eine Seite der Quiz-Ergebnisse einer Frage (Keyset-Paginierung).
+	 * 
+	 * @param frageId Die ID der Frage
+	 * @param vorZeitpunkt Zeitpunkt des Cursors (ohne Bedeutung auf der ersten Seite)
+	 * @param vorId ID des Cursors oder {@code <= 0} für die erste Seite
+	 * @param limit Maximale Anzahl Ergebnisse der Seite
+	 * @return Höchstens {@code limit} Ergebnisse, absteigend nach Zeitpunkt und ID
+	 * @see #findQuizErgebnisseByThemaId(long, LocalDateTime, long, int)
+	 */
+	default List<QuizErgebnisDTO> findQuizErgebnisseByFrageId(long frageId, LocalDateTime vorZeitpunkt, long vorId,
+			int limit) {
+		return seite(findQuizErgebnisseByFrageId(frageId), vorZeitpunkt, vorId, limit);
+	}
+
 	/**
 	 * Findet Statistiken für alle Fragen eines Themas.
 	 * 
@@ -218,4 +293,84 @@ public interface QuizRepository {
 	 * @return Liste aller Statistiken für alle Themen und Fragen
 	 */
 	List<StatistikDTO> findAlleStatistiken();
+
+	/**
+	 * Aggregiert alle Quiz-Ergebnisse eines Themas.
+	 * 
+	 * <p>Die Standard-Implementierung lädt die Ergebnisse über
+	 * {@link #findQuizErgebnisseByThemaId(long)}. Implementierungen können die
+	 * Summen direkt in ihrem Speicher bilden, ohne DTOs zu erzeugen.</p>
+	 * 
+	 * @param themaId Die ID des Themas
+	 * @return Statistik mit Versuchen, Erfolgsrate, Durchschnittswerten und bester Punktzahl
+	 *         (ohne Titel)
+	 */
+	default StatistikDTO aggregiereErgebnisseByThemaId(long themaId) {
+		return aggregiere(findQuizErgebnisseByThemaId(themaId), new StatistikDTO(themaId, "", 0, ""));
+	}
+
+	/**
+	 * Aggregiert alle Quiz-Ergebnisse einer Frage.
+	 * 
+	 * @param frageId Die ID der Frage
+	 * @return Statistik mit Versuchen, Erfolgsrate, Durchschnittswerten und bester Punktzahl
+	 *         (ohne Titel)
+	 * @see #aggregiereErgebnisseByThemaId(long)
+	 */
+	default StatistikDTO aggregiereErgebnisseByFrageId(long frageId) {
+		return aggregiere(findQuizErgebnisseByFrageId(frageId), new StatistikDTO(0, "", frageId, ""));
+	}
+
+	/**
+	 * Aggregiert die Quiz-Ergebnisse aller Fragen aus {@link #findAlleStatistiken()}.
+	 * 
+	 * @return Statistik über alle Themen (ohne IDs und Titel)
+	 * @see #aggregiereErgebnisseByThemaId(long)
+	 */
+	default StatistikDTO aggregiereAlleErgebnisse() {
+		List<QuizErgebnisDTO> alleErgebnisse = findAlleStatistiken().stream()
+				.flatMap(stat -> findQuizErgebnisseByFrageId(stat.getFrageId()).stream()).toList();
+		return aggregiere(alleErgebnisse, new StatistikDTO(0, "", 0, ""));
+	}
+
+	/**
+	 * Schreibt alle noch nicht persistierten Änderungen (Flush-Barriere).
+	 * 
+	 * <p>Implementierungen, die sofort persistieren (z.B. JDBC mit Auto-Commit),
+	 * müssen nichts tun.</p>
+	 */
+	default void flush() {
+	}
+
+	private static List<QuizErgebnisDTO> seite(List<QuizErgebnisDTO> ergebnisse, LocalDateTime vorZeitpunkt,
+			long vorId, int limit) {
+		// Absteigend nach Zeitpunkt (ohne Zeitpunkt zuletzt), dann nach ID
+		Comparator<QuizErgebnisDTO> neuesteZuerst = Comparator
+				.comparing(QuizErgebnisDTO::getZeitpunkt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+				.thenComparingLong(QuizErgebnisDTO::getId).reversed();
+		QuizErgebnisDTO cursor = new QuizErgebnisDTO();
+		cursor.setId(vorId);
+		cursor.setZeitpunkt(vorZeitpunkt);
+		return ergebnisse.stream()
+				.filter(ergebnis -> vorId <= 0 || neuesteZuerst.compare(ergebnis, cursor) > 0)
+				.sorted(neuesteZuerst).limit(Math.max(0, limit)).toList();
+	}
+
+	private static StatistikDTO aggregiere(List<QuizErgebnisDTO> ergebnisse, StatistikDTO statistik) {
+		if (ergebnisse.isEmpty()) {
+			return statistik;
+		}
+		int versuche = ergebnisse.size();
+		int richtig = (int) ergebnisse.stream().filter(QuizErgebnisDTO::isAntwortRichtig).count();
+		statistik.setAnzahlVersuche(versuche);
+		statistik.setAnzahlRichtig(richtig);
+		statistik.setAnzahlFalsch(versuche - richtig);
+		statistik.setDurchschnittlicheAntwortZeit(
+				ergebnisse.stream().mapToInt(QuizErgebnisDTO::getAntwortZeitSekunden).average().orElse(0.0));
+		statistik.setDurchschnittlichePunkte(
+				(int) ergebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).average().orElse(0.0));
+		statistik.setBestePunkte(ergebnisse.stream().mapToInt(QuizErgebnisDTO::getPunkte).max().orElse(0));
+		statistik.berechneErfolgsRate();
+		return statistik;
+	}
 }
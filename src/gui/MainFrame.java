@@ -2,14 +2,20 @@
 package gui;
 
 import java.awt.Dimension;
+import java.awt.GridBagLayout;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
@@ -25,6 +31,7 @@ import gui.quiz.QuizMainPanel;
 import gui.statistik.StatistikMainPanel;
 import gui.mvc.ControllerFactory;
 import config.PropertiesLoader;
+import exception.PersistenceException;
 
 /**
  * Hauptfenster der Quiz-Anwendung.
@@ -70,8 +77,12 @@ import config.PropertiesLoader;
 public class MainFrame extends JFrame {
 
 	private static final long serialVersionUID = 1L;
-	private final QuizDataProvider dataProvider;
-	private final QuizApplication quizApp;
+	private QuizDataProvider dataProvider;
+	private QuizApplication quizApp;
+	private JProgressBar ladeBalken;
+	// Während des Ladens wird ein Schließen erst danach ausgeführt (nur im EDT gelesen und gesetzt)
+	private boolean laedt = true;
+	private boolean schliessenNachLaden;
 
 	// Performance-Optimierung für Resize-Events
 	private final ScheduledExecutorService resizeScheduler = Executors.newScheduledThreadPool(1);
@@ -85,11 +96,33 @@ public class MainFrame extends JFrame {
 	 * <p>Initialisiert alle Komponenten, lädt die Konfiguration und startet
 	 * die Anwendung. Das Fenster wird zentriert angezeigt und mit der
 	 * konfigurierten Größe versehen.</p>
+	 * 
+	 * <p>Die Daten werden im Hintergrund geladen; bis dahin zeigt das Fenster
+	 * einen Fortschrittsbalken, danach werden die Tabs aufgebaut. Wird das Fenster
+	 * währenddessen geschlossen, beendet es sich erst nach dem Laden, damit das
+	 * Repository (etwa beim Einspielen des Journals) ordnungsgemäß geschlossen wird.</p>
 	 */
 	public MainFrame() {
 		super();
 		setTitle("Quizzzzz");
-		setDefaultCloseOperation(EXIT_ON_CLOSE);
+		// Erst dispose() (stoppt die Anwendung und schreibt ausstehende Änderungen), dann beenden
+		setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				if (laedt) {
+					schliessenNachLaden = true;
+					ladeBalken.setString("Wird nach dem Laden beendet...");
+				} else {
+					dispose();
+				}
+			}
+
+			@Override
+			public void windowClosed(WindowEvent e) {
+				System.exit(0);
+			}
+		});
 		
 		// Fenstergröße aus application.properties laden
 		int windowWidth = PropertiesLoader.getWindowWidth();
@@ -99,12 +132,54 @@ public class MainFrame extends JFrame {
 		setLocationRelativeTo(null);
 		setMinimumSize(new Dimension(700, 500));
 
-		quizApp = QuizApplication.getInstance();
+		zeigeLadeanzeige();
+		setupResizeListener();
+
+		QuizApplication.bereitschaft((schritt, prozent) -> SwingUtilities.invokeLater(() -> {
+			if (ladeBalken != null) {
+				ladeBalken.setValue(prozent);
+				ladeBalken.setString(schliessenNachLaden ? "Wird nach dem Laden beendet: " + schritt : schritt);
+			}
+		})).whenComplete((app, fehler) -> SwingUtilities.invokeLater(() -> ladenAbgeschlossen(app, fehler)));
+	}
+
+	private void zeigeLadeanzeige() {
+		ladeBalken = new JProgressBar(0, 100);
+		ladeBalken.setStringPainted(true);
+		ladeBalken.setString("Lade Daten...");
+		ladeBalken.setPreferredSize(new Dimension(400, ladeBalken.getPreferredSize().height));
+
+		JPanel ladePanel = new JPanel(new GridBagLayout());
+		ladePanel.add(ladeBalken);
+		add(ladePanel);
+		setVisible(true);
+	}
+
+	private void ladenAbgeschlossen(QuizApplication app, Throwable fehler) {
+		laedt = false;
+		if (fehler != null) {
+			Throwable ursache = fehler.getCause() != null ? fehler.getCause() : fehler;
+			System.err.println("MainFrame: Fehler beim Laden der Daten: " + ursache.getMessage());
+			JOptionPane.showMessageDialog(this, "Die Daten konnten nicht geladen werden:\n" + ursache.getMessage(),
+					"Fehler", JOptionPane.ERROR_MESSAGE);
+			dispose();
+			return;
+		}
+
+		quizApp = app;
+		if (schliessenNachLaden) {
+			// Die Anwendung wurde nie gestartet, stop() schließt nur das Repository
+			dispose();
+			return;
+		}
 		quizApp.start();
 		dataProvider = QuizDataProviderFactory.getInstance();
 
+		getContentPane().removeAll();
+		ladeBalken = null;
 		init();
-		setupResizeListener();
+		revalidate();
+		repaint();
 	}
 
 	/**
@@ -221,12 +296,18 @@ public class MainFrame extends JFrame {
 	 * Bereinigt Ressourcen beim Schließen des Fensters.
 	 * 
 	 * <p>Stoppt die Quiz-Anwendung und bereinigt alle Scheduler-Ressourcen
-	 * vor dem endgültigen Schließen des Fensters.</p>
+	 * vor dem endgültigen Schließen des Fensters. Konnten dabei Quiz-Ergebnisse
+	 * nicht gespeichert werden, wird das vor dem Beenden angezeigt.</p>
 	 */
 	@Override
 	public void dispose() {
 		if (quizApp != null) {
-			quizApp.stop();
+			try {
+				quizApp.stop();
+			} catch (PersistenceException e) {
+				JOptionPane.showMessageDialog(this, e.getMessage() + ".\nDetails stehen in der Konsolenausgabe.",
+						"Fehler beim Speichern", JOptionPane.ERROR_MESSAGE);
+			}
 		}
 
 		cleanupResizeScheduler();
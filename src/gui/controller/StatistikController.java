@@ -33,7 +33,7 @@ public class StatistikController extends AbstractController {
         this.statistikService = statistikService;
         
         // Event-Listener registrieren
-        registerForEvents("QUIZ_ERGEBNIS_*", "THEMA_*", "FRAGE_*");
+        registerForEvents("QUIZ_ERGEBNIS_*", "QUIZ_ERGEBNISSE_*", "THEMA_*", "FRAGE_*");
     }
     
     /**
@@ -262,6 +262,7 @@ public class StatistikController extends AbstractController {
             
             switch (dataEvent.getEntityType()) {
                 case QUIZ_ERGEBNIS:
+                case QUIZ_ERGEBNISSE:
                     // Neue Quiz-Ergebnisse -> Statistiken aktualisieren
                     SwingUtilities.invokeLater(() -> {
                         try {
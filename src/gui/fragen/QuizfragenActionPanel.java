@@ -140,13 +140,18 @@ public class QuizfragenActionPanel extends AbstractActionPanel {
 				frage.setFrageTitel(titel);
 				frage.setFrageText(frageText);
 				
-				// Antworten aktualisieren - immer alle Antworten neu erstellen
+				// Antworten aktualisieren - Feld i zeigt die i-te gespeicherte Antwort,
+				// deren ID bleibt erhalten, damit nur Änderungen geschrieben werden
+				List<Antwort> alteAntworten = frage.getAntworten();
 				List<Antwort> antwortList = new ArrayList<>();
 				for (int i = 0; i < antworten.length; i++) {
 					String antwortText = ValidationHelper.trimOrEmpty(antworten[i]);
 					if (!antwortText.isEmpty()) {
-						// Neue Antwort erstellen (ID wird vom Repository gesetzt)
+						// Neue Antworten erhalten ihre ID vom Repository
 						Antwort neueAntwort = new Antwort(antwortText, richtig[i]);
+						if (i < alteAntworten.size()) {
+							neueAntwort.setId(alteAntworten.get(i).getId());
+						}
 						antwortList.add(neueAntwort);
 					}
 				}
@@ -10,6 +10,8 @@ import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
+import data.dto.AntwortDTO;
+import data.persistence.AntwortAbgleich;
 import quiz.data.dao.IFrageDAO;
 import quiz.data.model.Antwort;
 import quiz.data.model.Frage;
@@ -52,36 +54,84 @@ public class FrageDAO_JDBC implements IFrageDAO {
 
 	@Override
 	public void updateFrage(Frage frage) {
-		String sqlUpdateFrage = "UPDATE Fragen SET frage_text = ?, frage_titel = ? WHERE id = ?";
-		String sqlDeleteAntworten = "DELETE FROM Antworten WHERE frage_id = ?";
-		String sqlInsertAntwort = "INSERT INTO Antworten(antwort_text, ist_richtig, frage_id) VALUES(?, ?, ?)";
-		try (PreparedStatement pstmtFrage = conn.prepareStatement(sqlUpdateFrage)) {
-			pstmtFrage.setString(1, frage.getFrageText());
-			pstmtFrage.setString(2, frage.getFrageTitel());
-			pstmtFrage.setLong(3, frage.getId());
-			pstmtFrage.executeUpdate();
+		// Nur geänderte, neue und entfernte Antworten schreiben
+		List<AntwortDTO> antworten = new ArrayList<>();
+		for (Antwort antwort : frage.getAntworten()) {
+			antworten.add(new AntwortDTO(antwort.getId(), antwort.getText(), antwort.istRichtig()));
+		}
+
+		// Frage und Antworten gemeinsam schreiben; läuft bereits eine Transaktion des
+		// Aufrufers, wird sie mitbenutzt und nicht hier bestätigt
+		boolean eigeneTransaktion;
+		try {
+			eigeneTransaktion = conn.getAutoCommit();
+			if (eigeneTransaktion) {
+				conn.setAutoCommit(false);
+			}
 		} catch (SQLException e) {
 			throw new RuntimeException("Fehler beim Aktualisieren der Frage: " + e.getMessage(), e);
 		}
+		SQLException fehler = null;
+		try {
+			String sqlUpdateFrage = "UPDATE Fragen SET frage_text = ?, frage_titel = ? WHERE id = ?";
+			try (PreparedStatement pstmtFrage = conn.prepareStatement(sqlUpdateFrage)) {
+				pstmtFrage.setString(1, frage.getFrageText());
+				pstmtFrage.setString(2, frage.getFrageTitel());
+				pstmtFrage.setLong(3, frage.getId());
+				pstmtFrage.executeUpdate();
+			}
+			AntwortAbgleich.gleicheAb(conn, frage.getId(), antworten);
+			if (eigeneTransaktion) {
+				conn.commit();
+			}
+		} catch (SQLException e) {
+			fehler = e;
+			if (eigeneTransaktion) {
+				rollback(e);
+			}
+		} finally {
+			if (eigeneTransaktion) {
+				fehler = stelleAutoCommitWiederHer(fehler);
+			}
+		}
+		if (fehler != null) {
+			throw new RuntimeException("Fehler beim Aktualisieren der Frage: " + fehler.getMessage(), fehler);
+		}
 
-		try (PreparedStatement pstmtDelete = conn.prepareStatement(sqlDeleteAntworten)) {
-			pstmtDelete.setLong(1, frage.getId());
-			pstmtDelete.executeUpdate();
+		// IDs neuer Antworten erst nach dem Commit übernehmen
+		for (int i = 0; i < antworten.size(); i++) {
+			frage.getAntworten().get(i).setId(antworten.get(i).getId());
+		}
+	}
+
+	/**
+	 * Macht eine fehlgeschlagene Transaktion rückgängig; ein Fehler dabei wird an den
+	 * ursprünglichen angehängt.
+	 */
+	private void rollback(SQLException fehler) {
+		try {
+			conn.rollback();
 		} catch (SQLException e) {
-			throw new RuntimeException("Fehler beim Löschen der Antworten: " + e.getMessage(), e);
+			fehler.addSuppressed(e);
 		}
+	}
 
-		try (PreparedStatement pstmtInsert = conn.prepareStatement(sqlInsertAntwort)) {
-			for (Antwort antwort : frage.getAntworten()) {
-				pstmtInsert.setString(1, antwort.getText());
-				pstmtInsert.setBoolean(2, antwort.istRichtig());
-				pstmtInsert.setLong(3, frage.getId());
-				pstmtInsert.addBatch();
-			}
-			pstmtInsert.executeBatch();
+	/**
+	 * Schaltet Auto-Commit wieder ein. Ein Fehler dabei verdeckt nicht den Fehler der
+	 * Transaktion, sondern wird an diesen angehängt.
+	 *
+	 * @return Der zu meldende Fehler oder {@code null}
+	 */
+	private SQLException stelleAutoCommitWiederHer(SQLException fehler) {
+		try {
+			conn.setAutoCommit(true);
 		} catch (SQLException e) {
-			throw new RuntimeException("Fehler beim Einfügen der Antworten: " + e.getMessage(), e);
+			if (fehler == null) {
+				return e;
+			}
+			fehler.addSuppressed(e);
 		}
+		return fehler;
 	}
 
 	@Override
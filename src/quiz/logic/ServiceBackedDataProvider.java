@@ -171,11 +171,13 @@ public class ServiceBackedDataProvider implements QuizDataProvider {
 		List<ThemaDTO> themenDTO = themaService.findAllThemen();
 		System.out.println("ServiceBackedDataProvider: " + themenDTO.size() + " Themen aus Service geladen");
 
+		// Fragen aller Themen gesammelt laden statt je Thema
+		Map<Long, List<FrageDTO>> fragenNachThema = frageService.findFragenFuerAlleThemen();
+
 		List<Thema> themen = new ArrayList<>();
 		for (ThemaDTO t : themenDTO) {
 			Thema thema = mapToThema(t);
-			// Fragen zu diesem Thema nachladen
-			List<FrageDTO> fragenDTO = frageService.findFragenByThemaId(t.getId());
+			List<FrageDTO> fragenDTO = fragenNachThema.getOrDefault(t.getId(), List.of());
 			thema.setFragen(fragenDTO.stream().map(this::mapToFrage).collect(Collectors.toList()));
 			themen.add(thema);
 		}